@@ -0,0 +1,237 @@
+/******************************************************************************
+ *  Compilation:  gradle jmhClasses
+ *  Execution:    gradle jmh -PjmhArgs='DequeBenchmark'
+ *  Dependencies: Subjects.java Deque.java RingBufferDeque.java ChunkedDeque.java
+ *
+ *  JMH benchmarks comparing the linked-list Deque, the array-backed
+ *  RingBufferDeque, the block-based ChunkedDeque and java.util.ArrayDeque:
+ *  queue and stack traffic, and
+ *  iteration. Run with the gc profiler (the default of the jmh task) to see
+ *  the allocation rate of each.
+ *
+ ******************************************************************************/
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each queue and stack benchmark pushes size / 2 items through a deque that keeps the other size / 2
+ * resident, and reports the time for all of them. The deques are created and half-filled once per trial.
+ * As a deque never drops below half of its peak size, RingBufferDeque never shrinks (it only halves at a
+ * quarter full) and so never regrows: after the first call, the array-backed deques run at their
+ * steady-state capacity, and the numbers measure traffic, not resizing.
+ * The iteration benchmarks walk a deque of size items.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DequeBenchmark {
+    private static final MethodHandle NEW_LINKED = Subjects.constructor("Deque");
+    private static final MethodHandle LINKED_ADD_FIRST = Subjects.method("Deque", "addFirst", void.class, Object.class);
+    private static final MethodHandle LINKED_ADD_LAST = Subjects.method("Deque", "addLast", void.class, Object.class);
+    private static final MethodHandle LINKED_REMOVE_FIRST = Subjects.method("Deque", "removeFirst", Object.class);
+
+    private static final MethodHandle NEW_RING = Subjects.constructor("RingBufferDeque");
+    private static final MethodHandle RING_ADD_FIRST =
+            Subjects.method("RingBufferDeque", "addFirst", void.class, Object.class);
+    private static final MethodHandle RING_ADD_LAST =
+            Subjects.method("RingBufferDeque", "addLast", void.class, Object.class);
+    private static final MethodHandle RING_REMOVE_FIRST =
+            Subjects.method("RingBufferDeque", "removeFirst", Object.class);
+
+    private static final MethodHandle NEW_CHUNKED = Subjects.constructor("ChunkedDeque");
+    private static final MethodHandle CHUNKED_ADD_FIRST =
+            Subjects.method("ChunkedDeque", "addFirst", void.class, Object.class);
+    private static final MethodHandle CHUNKED_ADD_LAST =
+            Subjects.method("ChunkedDeque", "addLast", void.class, Object.class);
+    private static final MethodHandle CHUNKED_REMOVE_FIRST =
+            Subjects.method("ChunkedDeque", "removeFirst", Object.class);
+
+    @Param({"16", "1024", "65536", "1048576"})
+    public int size;
+
+    private Integer[] values;
+    // values[size / 2 ...], the items each queue or stack benchmark pushes and pops
+    private Integer[] cycle;
+    private Object linked;
+    private Object ring;
+    private Object chunked;
+    private ArrayDeque<Integer> arrayDeque;
+    // Pre-filled with size items, for the iteration benchmarks
+    private Object fullLinked;
+    private Object fullRing;
+    private Object fullChunked;
+    private ArrayDeque<Integer> fullArrayDeque;
+
+    @Setup
+    public void setUp() throws Throwable {
+        values = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+        }
+        linked = (Object) NEW_LINKED.invokeExact();
+        ring = (Object) NEW_RING.invokeExact();
+        chunked = (Object) NEW_CHUNKED.invokeExact();
+        arrayDeque = new ArrayDeque<>();
+        int resident = size / 2;
+        cycle = Arrays.copyOfRange(values, resident, size);
+        for (int i = 0; i < resident; i++) {
+            LINKED_ADD_LAST.invokeExact(linked, (Object) values[i]);
+            RING_ADD_LAST.invokeExact(ring, (Object) values[i]);
+            CHUNKED_ADD_LAST.invokeExact(chunked, (Object) values[i]);
+            arrayDeque.addLast(values[i]);
+        }
+        fullLinked = (Object) NEW_LINKED.invokeExact();
+        fullRing = (Object) NEW_RING.invokeExact();
+        fullChunked = (Object) NEW_CHUNKED.invokeExact();
+        fullArrayDeque = new ArrayDeque<>();
+        for (Integer value : values) {
+            LINKED_ADD_LAST.invokeExact(fullLinked, (Object) value);
+            RING_ADD_LAST.invokeExact(fullRing, (Object) value);
+            CHUNKED_ADD_LAST.invokeExact(fullChunked, (Object) value);
+            fullArrayDeque.addLast(value);
+        }
+    }
+
+    @Benchmark
+    public int linkedQueue() throws Throwable {
+        int sum = 0;
+        for (Integer value : cycle) {
+            LINKED_ADD_LAST.invokeExact(linked, (Object) value);
+        }
+        for (int i = 0; i < cycle.length; i++) {
+            sum += (Integer) (Object) LINKED_REMOVE_FIRST.invokeExact(linked);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int ringQueue() throws Throwable {
+        int sum = 0;
+        for (Integer value : cycle) {
+            RING_ADD_LAST.invokeExact(ring, (Object) value);
+        }
+        for (int i = 0; i < cycle.length; i++) {
+            sum += (Integer) (Object) RING_REMOVE_FIRST.invokeExact(ring);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int chunkedQueue() throws Throwable {
+        int sum = 0;
+        for (Integer value : cycle) {
+            CHUNKED_ADD_LAST.invokeExact(chunked, (Object) value);
+        }
+        for (int i = 0; i < cycle.length; i++) {
+            sum += (Integer) (Object) CHUNKED_REMOVE_FIRST.invokeExact(chunked);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int arrayDequeQueue() {
+        int sum = 0;
+        for (Integer value : cycle) {
+            arrayDeque.addLast(value);
+        }
+        for (int i = 0; i < cycle.length; i++) {
+            sum += arrayDeque.removeFirst();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int linkedStack() throws Throwable {
+        int sum = 0;
+        for (Integer value : cycle) {
+            LINKED_ADD_FIRST.invokeExact(linked, (Object) value);
+        }
+        for (int i = 0; i < cycle.length; i++) {
+            sum += (Integer) (Object) LINKED_REMOVE_FIRST.invokeExact(linked);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int ringStack() throws Throwable {
+        int sum = 0;
+        for (Integer value : cycle) {
+            RING_ADD_FIRST.invokeExact(ring, (Object) value);
+        }
+        for (int i = 0; i < cycle.length; i++) {
+            sum += (Integer) (Object) RING_REMOVE_FIRST.invokeExact(ring);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int chunkedStack() throws Throwable {
+        int sum = 0;
+        for (Integer value : cycle) {
+            CHUNKED_ADD_FIRST.invokeExact(chunked, (Object) value);
+        }
+        for (int i = 0; i < cycle.length; i++) {
+            sum += (Integer) (Object) CHUNKED_REMOVE_FIRST.invokeExact(chunked);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int arrayDequeStack() {
+        int sum = 0;
+        for (Integer value : cycle) {
+            arrayDeque.addFirst(value);
+        }
+        for (int i = 0; i < cycle.length; i++) {
+            sum += arrayDeque.removeFirst();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int linkedIterate() {
+        return sum((Iterable<?>) fullLinked);
+    }
+
+    @Benchmark
+    public int ringIterate() {
+        return sum((Iterable<?>) fullRing);
+    }
+
+    @Benchmark
+    public int chunkedIterate() {
+        return sum((Iterable<?>) fullChunked);
+    }
+
+    @Benchmark
+    public int arrayDequeIterate() {
+        return sum(fullArrayDeque);
+    }
+
+    private static int sum(Iterable<?> items) {
+        int sum = 0;
+        for (Object item : items) {
+            sum += (Integer) item;
+        }
+        return sum;
+    }
+}
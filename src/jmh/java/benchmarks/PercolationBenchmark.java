@@ -0,0 +1,103 @@
+/******************************************************************************
+ *  Compilation:  gradle jmhClasses
+ *  Execution:    gradle jmh -PjmhArgs='PercolationBenchmark'
+ *  Dependencies: Subjects.java Percolation.java Lattice.java
+ *
+ *  JMH benchmarks for the Percolation hot path: open(), isFull() and
+ *  percolates(), over a range of square grid sizes.
+ *
+ ******************************************************************************/
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * openAllSites() times a whole trial's worth of open() calls (reset, then every site in random order), so
+ * divide its time by n^2 for the cost of one open(). isFull() and percolates() are timed one call at a time,
+ * on a grid opened at p = 0.6 (just above the square lattice threshold).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PercolationBenchmark {
+    private static final double OPEN_FRACTION = 0.6;
+
+    @Param({"64", "256", "1024"})
+    public int n;
+
+    private Object percolation;
+    // Every site, in random order
+    private int[] order;
+    // The grid used by the query benchmarks, opened at OPEN_FRACTION
+    private Object openedGrid;
+    // Random sites to query, cycled through
+    private int[] querySites;
+    private int next;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Object lattice = (Object) Subjects.LATTICE_OF.invokeExact("square", n);
+        percolation = (Object) Subjects.NEW_PERCOLATION.invokeExact(lattice);
+        openedGrid = (Object) Subjects.NEW_PERCOLATION.invokeExact(lattice);
+
+        SplittableRandom random = new SplittableRandom(16);
+        int sites = n * n;
+        order = new int[sites];
+        for (int i = 0; i < sites; i++) {
+            order[i] = i;
+        }
+        for (int i = sites - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int site = order[swap];
+            order[swap] = order[i];
+            order[i] = site;
+        }
+        for (int i = 0; i < (int) (OPEN_FRACTION * sites); i++) {
+            Subjects.OPEN.invokeExact(openedGrid, order[i]);
+        }
+
+        querySites = new int[1024];
+        for (int i = 0; i < querySites.length; i++) {
+            querySites[i] = random.nextInt(sites);
+        }
+    }
+
+    @Benchmark
+    public Object openAllSites() throws Throwable {
+        Subjects.RESET.invokeExact(percolation);
+        for (int site : order) {
+            Subjects.OPEN.invokeExact(percolation, site);
+        }
+        return percolation;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean isFull() throws Throwable {
+        int site = querySites[next];
+        next = (next + 1) & (querySites.length - 1);
+        return (boolean) Subjects.IS_FULL.invokeExact(openedGrid, site);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean percolates() throws Throwable {
+        return (boolean) Subjects.PERCOLATES.invokeExact(openedGrid);
+    }
+}
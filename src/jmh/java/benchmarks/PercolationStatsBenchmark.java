@@ -0,0 +1,63 @@
+/******************************************************************************
+ *  Compilation:  gradle jmhClasses
+ *  Execution:    gradle jmh -PjmhArgs='PercolationStatsBenchmark'
+ *  Dependencies: Subjects.java PercolationStats.java Lattice.java
+ *
+ *  JMH benchmark for whole PercolationStats runs: every trial, end to end,
+ *  for each sampling strategy and model.
+ *
+ ******************************************************************************/
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times one PercolationStats of TRIALS trials. Trials run on the common fork/join pool, so the result scales
+ * with the number of cores; pin it with -Djava.util.concurrent.ForkJoinPool.common.parallelism=1 (via JMH's
+ * -jvmArgsAppend) to compare single-threaded cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PercolationStatsBenchmark {
+    private static final int TRIALS = 100;
+
+    @Param({"64", "256"})
+    public int n;
+
+    @Param({"REJECTION", "PERMUTATION"})
+    public String sampling;
+
+    @Param({"SITE", "BOND"})
+    public String model;
+
+    private Object lattice;
+    private long seed;
+
+    @Setup
+    public void setUp() throws Throwable {
+        lattice = (Object) Subjects.LATTICE_OF.invokeExact("square", n);
+    }
+
+    @Benchmark
+    public double trials() throws Throwable {
+        // A new seed each time, so the JIT cannot learn one fixed sequence of sites
+        Object stats = (Object) Subjects.NEW_STATS.invokeExact(lattice, TRIALS, seed++, sampling, model);
+        return (double) Subjects.MEAN.invokeExact(stats);
+    }
+}
@@ -0,0 +1,85 @@
+/******************************************************************************
+ *  Compilation:  gradle jmhClasses
+ *  Execution:    gradle jmh -PjmhArgs='RandomizedQueueBenchmark'
+ *  Dependencies: Subjects.java RandomizedQueue.java RandomSource.java
+ *
+ *  JMH benchmark for RandomizedQueue's dequeue() hot path with each random
+ *  source: the global StdRandom, SplittableRandom, ThreadLocalRandom and
+ *  xoshiro256++.
+ *
+ ******************************************************************************/
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each operation dequeues a random item and enqueues it again, so the queue keeps its size and the cost is
+ * one random draw plus one swap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomizedQueueBenchmark {
+    private static final MethodHandle NEW_QUEUE = Subjects.constructor("RandomizedQueue", "RandomSource");
+    private static final MethodHandle STD_RANDOM = Subjects.factory("RandomSource", "stdRandom");
+    private static final MethodHandle SPLITTABLE = Subjects.factory("RandomSource", "splittable", long.class);
+    private static final MethodHandle THREAD_LOCAL = Subjects.factory("RandomSource", "threadLocal");
+    private static final MethodHandle XOSHIRO = Subjects.factory("RandomSource", "xoshiro", long.class);
+    private static final MethodHandle ENQUEUE =
+            Subjects.method("RandomizedQueue", "enqueue", void.class, Object.class);
+    private static final MethodHandle DEQUEUE = Subjects.method("RandomizedQueue", "dequeue", Object.class);
+
+    @Param({"STD_RANDOM", "SPLITTABLE", "THREAD_LOCAL", "XOSHIRO"})
+    public String source;
+
+    @Param({"1024"})
+    public int size;
+
+    private Object queue;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Object random;
+        switch (source) {
+            case "STD_RANDOM":
+                random = (Object) STD_RANDOM.invokeExact();
+                break;
+            case "SPLITTABLE":
+                random = (Object) SPLITTABLE.invokeExact(22L);
+                break;
+            case "THREAD_LOCAL":
+                random = (Object) THREAD_LOCAL.invokeExact();
+                break;
+            default:
+                random = (Object) XOSHIRO.invokeExact(22L);
+                break;
+        }
+        queue = (Object) NEW_QUEUE.invokeExact(random);
+        for (int i = 0; i < size; i++) {
+            ENQUEUE.invokeExact(queue, (Object) Integer.valueOf(i));
+        }
+    }
+
+    @Benchmark
+    public Object dequeueAndEnqueue() throws Throwable {
+        Object item = (Object) DEQUEUE.invokeExact(queue);
+        ENQUEUE.invokeExact(queue, item);
+        return item;
+    }
+}
@@ -0,0 +1,165 @@
+/******************************************************************************
+ *  Compilation:  gradle jmhClasses
+ *  Execution:    none
+ *  Dependencies: Percolation.java PercolationStats.java Lattice.java
+ *
+ *  Method handles onto the classes under benchmark.
+ *
+ ******************************************************************************/
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * JMH refuses benchmark classes in the default package, and Java code outside the default package cannot
+ * name the classes in it. So the benchmarks reach Percolation and friends through these handles instead.
+ * <p>
+ * Each handle is a static final constant with every reference type erased to Object, so callers use
+ * invokeExact() and the JIT inlines the target as if it were called directly.
+ */
+final class Subjects {
+    /** (String name, int n) -> Lattice */
+    static final MethodHandle LATTICE_OF;
+    /** (Lattice) -> Percolation */
+    static final MethodHandle NEW_PERCOLATION;
+    /** (Percolation, int site) -> void */
+    static final MethodHandle OPEN;
+    /** (Percolation, int site) -> boolean */
+    static final MethodHandle IS_FULL;
+    /** (Percolation) -> boolean */
+    static final MethodHandle PERCOLATES;
+    /** (Percolation) -> void */
+    static final MethodHandle RESET;
+    /** (Lattice, int trials, long seed, String sampling, String model) -> PercolationStats */
+    static final MethodHandle NEW_STATS;
+    /** (PercolationStats) -> double */
+    static final MethodHandle MEAN;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> lattice = Class.forName("Lattice");
+            Class<?> percolation = Class.forName("Percolation");
+            Class<?> stats = Class.forName("PercolationStats");
+            Class<?> sampling = Class.forName("PercolationStats$Sampling");
+            Class<?> model = Class.forName("PercolationStats$Model");
+
+            LATTICE_OF = erase(lookup.findStatic(lattice, "of",
+                    MethodType.methodType(lattice, String.class, int.class)));
+            NEW_PERCOLATION = erase(lookup.findConstructor(percolation, MethodType.methodType(void.class, lattice)));
+            OPEN = erase(lookup.findVirtual(percolation, "open", MethodType.methodType(void.class, int.class)));
+            IS_FULL = erase(lookup.findVirtual(percolation, "isFull", MethodType.methodType(boolean.class, int.class)));
+            PERCOLATES = erase(lookup.findVirtual(percolation, "percolates", MethodType.methodType(boolean.class)));
+            RESET = erase(lookup.findVirtual(percolation, "reset", MethodType.methodType(void.class)));
+
+            MethodHandle samplingOf = enumValueOf(lookup, sampling);
+            MethodHandle modelOf = enumValueOf(lookup, model);
+            MethodHandle newStats = lookup.findConstructor(stats,
+                    MethodType.methodType(void.class, lattice, int.class, long.class, sampling, model));
+            newStats = MethodHandles.filterArguments(newStats, 3, samplingOf, modelOf);
+            NEW_STATS = erase(newStats);
+            MEAN = erase(lookup.findVirtual(stats, "mean", MethodType.methodType(double.class)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Subjects() {
+    }
+
+    /**
+     * Looks up the public no-argument constructor of a default-package class.
+     *
+     * @param className The simple class name.
+     * @return A () -> Object handle.
+     */
+    static MethodHandle constructor(String className) {
+        try {
+            Class<?> type = Class.forName(className);
+            return erase(MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No public no-argument constructor in " + className, e);
+        }
+    }
+
+    /**
+     * Looks up a public instance method of a default-package class. Generic parameters erase to Object.
+     *
+     * @param className  The simple class name.
+     * @param name       The method name.
+     * @param returnType The declared (erased) return type.
+     * @param parameters The declared (erased) parameter types.
+     * @return A handle taking the receiver as an Object, then the parameters, with reference types erased.
+     */
+    static MethodHandle method(String className, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            Class<?> type = Class.forName(className);
+            return erase(MethodHandles.publicLookup().findVirtual(type, name,
+                    MethodType.methodType(returnType, parameters)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No public method " + name + " in " + className, e);
+        }
+    }
+
+    /**
+     * Looks up a public static factory method of a default-package class, returning that class.
+     *
+     * @param className  The simple class name.
+     * @param name       The method name.
+     * @param parameters The declared parameter types.
+     * @return A handle returning Object.
+     */
+    static MethodHandle factory(String className, String name, Class<?>... parameters) {
+        try {
+            Class<?> type = Class.forName(className);
+            return erase(MethodHandles.publicLookup().findStatic(type, name,
+                    MethodType.methodType(type, parameters)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No public static factory " + name + " in " + className, e);
+        }
+    }
+
+    /**
+     * Looks up a public one-argument constructor of a default-package class.
+     *
+     * @param className     The simple class name.
+     * @param parameterName The simple name of the (default-package) parameter type.
+     * @return An (Object) -> Object handle.
+     */
+    static MethodHandle constructor(String className, String parameterName) {
+        try {
+            Class<?> type = Class.forName(className);
+            Class<?> parameter = Class.forName(parameterName);
+            return erase(MethodHandles.publicLookup().findConstructor(type,
+                    MethodType.methodType(void.class, parameter)));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No public constructor " + className + "(" + parameterName + ")", e);
+        }
+    }
+
+    /**
+     * Helper method to turn every non-primitive, non-String parameter and return type into Object.
+     */
+    private static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (!type.parameterType(i).isPrimitive() && type.parameterType(i) != String.class) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (!type.returnType().isPrimitive()) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    /**
+     * Helper method for a (String name) -> enum constant handle, i.e. Enum.valueOf(type, name).
+     */
+    private static MethodHandle enumValueOf(MethodHandles.Lookup lookup, Class<?> type)
+            throws ReflectiveOperationException {
+        return lookup.findStatic(type, "valueOf", MethodType.methodType(type, String.class));
+    }
+}
@@ -0,0 +1,351 @@
+/******************************************************************************
+ *  Compilation:  javac BondPercolation.java
+ *  Execution:    java BondPercolation n [--lattice=square|triangular|honeycomb|cubic] [--library-uf]
+ *  Dependencies: Lattice.java SpanningClusters.java PercolationSystem.java PercolationMetrics.java StdOut.java
+ *
+ *  Bond percolation: every site is present, and the bonds between
+ *  neighboring sites open one at a time. The system percolates once open
+ *  bonds connect the top row to the bottom row.
+ *
+ *  Running it as a program allocates a lattice with side n and reports its
+ *  memory footprint (estimated from the array layout, and measured on the heap).
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+
+public class BondPercolation implements PercolationSystem {
+    // Running total of number of open bonds
+    private int numberOfOpenBonds;
+    // Topology: site numbering, bonds, and which sites form the top and bottom rows
+    private final Lattice lattice;
+    // Site numbers below this are on the top row; site numbers at or above bottomRowStart are on the bottom row
+    private final int topRowEnd;
+    private final int bottomRowStart;
+    // Bond slots per site (see Lattice#forwardNeighbor())
+    private final int forwardDegree;
+    // Total number of bond slots: numberOfSites * forwardDegree. Some slots name no bond.
+    private final int bondSlots;
+    // Open/Closed bonds as a flat bitset: one bit per bond slot, 64 slots per long.
+    private final long[] bonds;
+
+    // Clusters of sites joined by open bonds, each tagged with whether it touches the top or bottom row
+    private final SpanningClusters clusters;
+
+    /**
+     * Construct a new BondPercolation instance over an n-by-n square grid, with every bond closed.
+     * Uses the in-project {@link PathHalvingUF} union-find engine.
+     *
+     * @param sideLength: The side length of the grid.
+     * @throws IllegalArgumentException if the sideLength < 2, or if the grid has too many bonds (see below).
+     */
+    public BondPercolation(int sideLength) {
+        this(Lattice.square(sideLength), false);
+    }
+
+    /**
+     * Construct a new BondPercolation instance over the given lattice, with every bond closed.
+     * Uses the in-project {@link PathHalvingUF} union-find engine.
+     *
+     * @param lattice: The lattice topology.
+     * @throws IllegalArgumentException if the lattice is null or has no bonds, or if its bond slots do not fit
+     *                                  in an int (numberOfSites * forwardDegree > Integer.MAX_VALUE).
+     */
+    public BondPercolation(Lattice lattice) {
+        this(lattice, false);
+    }
+
+    /**
+     * Construct a new BondPercolation instance over the given lattice, with every bond closed.
+     *
+     * @param lattice: The lattice topology.
+     * @param useLibraryUnionFind: If true, use the algs4 WeightedQuickUnionUF (via {@link LibraryUnionFind})
+     *                           instead of {@link PathHalvingUF}.
+     * @throws IllegalArgumentException if the lattice is null or has no bonds, or if its bond slots do not fit
+     *                                  in an int (numberOfSites * forwardDegree > Integer.MAX_VALUE).
+     */
+    public BondPercolation(Lattice lattice, boolean useLibraryUnionFind) {
+        validateConstructor(lattice);
+
+        // Initialize instance variables
+        numberOfOpenBonds = 0;
+        this.lattice = lattice;
+        int numberOfSites = lattice.numberOfSites();
+        topRowEnd = lattice.sitesPerRow();
+        bottomRowStart = numberOfSites - lattice.sitesPerRow();
+        forwardDegree = lattice.forwardDegree();
+        bondSlots = numberOfSites * forwardDegree;
+
+        // Initialize the bonds. Since this is a long[] bitset, all bits are initialized to 0 (closed).
+        bonds = new long[(bondSlots + 63) >>> 6];
+
+        clusters = new SpanningClusters(numberOfSites, useLibraryUnionFind);
+        flagBoundaryRows();
+    }
+
+    /**
+     * Closes every bond, returning this instance to the state of a freshly constructed one.
+     * Runs in O(number of sites) time and allocates nothing (unless running on the algs4 union-find).
+     */
+    @Override
+    public void reset() {
+        Arrays.fill(bonds, 0L);
+        clusters.reset();
+        flagBoundaryRows();
+        numberOfOpenBonds = 0;
+    }
+
+    /**
+     * Open the bond between two neighboring sites.
+     *
+     * @param site     0-based site number of one end (see {@link Lattice} for the numbering).
+     * @param neighbor 0-based site number of the other end.
+     * @throws IllegalArgumentException if either site is out of range, or if the two sites are not neighbors.
+     */
+    public void open(int site, int neighbor) {
+        openBond(bondSlot(site, neighbor));
+    }
+
+    /**
+     * Determines whether the bond between two neighboring sites is open.
+     *
+     * @param site     0-based site number of one end.
+     * @param neighbor 0-based site number of the other end.
+     * @return True if the bond is open.
+     * @throws IllegalArgumentException if either site is out of range, or if the two sites are not neighbors.
+     */
+    public boolean isOpen(int site, int neighbor) {
+        return isBondOpen(bondSlot(site, neighbor));
+    }
+
+    /**
+     * Determines whether a site is full. Every site is present in bond percolation, so this is true iff open
+     * bonds connect the site to the top row.
+     *
+     * @param site 0-based site number.
+     * @return True if the site is connected to the top row.
+     * @throws IllegalArgumentException if site is not between 0 and the number of sites - 1.
+     */
+    public boolean isFull(int site) {
+        validateSite(site);
+        return clusters.isConnectedToTop(site);
+    }
+
+    /**
+     * Open the bond in the given slot (site * forwardDegree + k, see Lattice#forwardNeighbor()).
+     * Does no bounds checking: callers must guarantee 0 <= slot < bondSlots.
+     *
+     * @param slot A bond slot.
+     * @return True if the bond was closed and has now been opened. False if it was already open,
+     *         or if the slot names no bond.
+     */
+    boolean openBond(int slot) {
+        if (isBondOpen(slot)) {
+            if (PercolationMetrics.ENABLED) {
+                PercolationMetrics.recordOpen(false);
+            }
+            return false;
+        }
+        int site = slot / forwardDegree;
+        int neighbor = lattice.forwardNeighbor(site, slot - site * forwardDegree);
+        if (neighbor < 0) {
+            return false;
+        }
+
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.recordOpen(true);
+        }
+        numberOfOpenBonds++;
+        bonds[slot >>> 6] |= 1L << slot;
+        clusters.union(site, neighbor);
+        return true;
+    }
+
+    /**
+     * Helper method to read a bond slot's bit. Does no bounds checking.
+     */
+    private boolean isBondOpen(int slot) {
+        return (bonds[slot >>> 6] & (1L << slot)) != 0;  // Shifts on long only use the low 6 bits of slot
+    }
+
+    /**
+     * Helper method to find the slot of the bond between two sites. The bond belongs to the lower-numbered site.
+     *
+     * @throws IllegalArgumentException if either site is out of range, or if the two sites are not neighbors.
+     */
+    private int bondSlot(int site, int neighbor) {
+        validateSite(site);
+        validateSite(neighbor);
+        int owner = Math.min(site, neighbor);
+        int other = Math.max(site, neighbor);
+        for (int k = 0; k < forwardDegree; k++) {
+            if (lattice.forwardNeighbor(owner, k) == other) {
+                return owner * forwardDegree + k;
+            }
+        }
+        String errorMessage = "Sites %s and %s are not neighbors on the %s lattice.";
+        throw new IllegalArgumentException(String.format(errorMessage, site, neighbor, lattice));
+    }
+
+    /**
+     * Helper method to tag the top and bottom rows. Every site is present, so the boundary rows carry their
+     * flags from the start, before any bond opens.
+     */
+    private void flagBoundaryRows() {
+        for (int site = 0; site < topRowEnd; site++) {
+            clusters.addFlags(site, SpanningClusters.CONNECTED_TO_TOP);
+        }
+        for (int site = bottomRowStart; site < lattice.numberOfSites(); site++) {
+            clusters.addFlags(site, SpanningClusters.CONNECTED_TO_BOTTOM);
+        }
+    }
+
+    /**
+     * @return The lattice this system is built on.
+     */
+    public Lattice lattice() {
+        return lattice;
+    }
+
+    /**
+     * Return the total number of open bonds.
+     *
+     * @return The count of open bonds.
+     */
+    public int numberOfOpenBonds() {
+        return numberOfOpenBonds;
+    }
+
+    /**
+     * Determines whether the given system percolates or not.
+     *
+     * @return True if open bonds connect any site on the top row to any site on the bottom row.
+     */
+    @Override
+    public boolean percolates() {
+        return clusters.percolates();
+    }
+
+    @Override
+    public int numberOfElements() {
+        // Fits: the constructor checked that the bond slots (a superset of the bonds) fit in an int
+        return (int) lattice.numberOfBonds();
+    }
+
+    @Override
+    public int elementIndexLimit() {
+        return bondSlots;
+    }
+
+    /**
+     * Opens the bond in the given slot: slot site * forwardDegree + k holds the bond from site to its
+     * k-th forward neighbor. Slots past the edge of the lattice name no bond, and opening them is a no-op.
+     */
+    @Override
+    public boolean openElement(int index) {
+        long start = PercolationMetrics.ENABLED ? System.nanoTime() : 0L;
+        if (index < 0 || index >= bondSlots) {
+            String errorMessage = "Bond slot %s is not valid. Slot must be between 0 and %s.";
+            throw new IllegalArgumentException(String.format(errorMessage, index, bondSlots - 1));
+        }
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.recordValidation(start);
+        }
+        return openBond(index);
+    }
+
+    @Override
+    public int numberOfOpenElements() {
+        return numberOfOpenBonds;
+    }
+
+    /**
+     * Helper method to estimate the heap footprint of a BondPercolation instance.
+     * Counts the backing arrays only (16-byte array headers, ignoring object headers and alignment):
+     * the bond bitset (1 bit per slot), the union-find parent and size arrays (4 + 4 bytes per site)
+     * and the root flags (1 byte per site).
+     *
+     * @param sites     The number of sites in the lattice.
+     * @param bondSlots The number of bond slots.
+     * @return Estimated number of bytes.
+     */
+    private static long estimatedMemoryUsage(long sites, long bondSlots) {
+        long arrayHeader = 16;
+        long bondBytes = arrayHeader + 8L * ((bondSlots + 63) / 64);
+        long unionFindBytes = 2 * (arrayHeader + 4L * sites);
+        long flagBytes = arrayHeader + sites;
+        return bondBytes + unionFindBytes + flagBytes;
+    }
+
+    /**
+     * Helper method to validate a 0-based site number.
+     *
+     * @throws IllegalArgumentException if site is negative, or not less than the number of sites.
+     */
+    private void validateSite(int site) {
+        if (site < 0 || site >= lattice.numberOfSites()) {
+            String errorMessage = "Site %s is not a valid site. Site must be between 0 and %s.";
+            throw new IllegalArgumentException(String.format(errorMessage, site, lattice.numberOfSites() - 1));
+        }
+    }
+
+    /**
+     * Helper method to validate the constructor argument.
+     *
+     * @throws IllegalArgumentException if the lattice is null, has no bonds, or has too many bond slots.
+     */
+    private static void validateConstructor(Lattice lattice) {
+        if (lattice == null) {
+            throw new IllegalArgumentException("Lattice cannot be null");
+        }
+        long slots = (long) lattice.numberOfSites() * lattice.forwardDegree();
+        if (lattice.numberOfBonds() == 0 || slots > Integer.MAX_VALUE) {
+            String errorMessage = "The %s lattice has %s bonds in %s bond slots. " +
+                    "Bond percolation needs at least one bond, and at most %s slots.";
+            throw new IllegalArgumentException(String.format(errorMessage, lattice, lattice.numberOfBonds(), slots,
+                    Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Main method to run this class as a command-line program.
+     * Allocates a lattice with side n and prints its estimated and measured memory footprint.
+     *
+     * @param args Command-line arguments: n, and optionally --lattice=name and --library-uf.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            StdOut.println("Please enter one argument: n (side length of the grid)");
+            return;
+        }
+
+        int sideLength = Integer.parseInt(args[0]);
+        boolean useLibraryUnionFind = false;
+        String latticeName = "square";
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--library-uf")) {
+                useLibraryUnionFind = true;
+            } else if (args[i].startsWith("--lattice=")) {
+                latticeName = args[i].substring("--lattice=".length());
+            }
+        }
+        Lattice lattice = Lattice.of(latticeName, sideLength);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        BondPercolation percolation = new BondPercolation(lattice, useLibraryUnionFind);
+        System.gc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+
+        double megabyte = 1024.0 * 1024.0;
+        StdOut.printf("lattice                 = %s \n", lattice);
+        StdOut.printf("sites                   = %d \n", lattice.numberOfSites());
+        StdOut.printf("bonds                   = %d \n", lattice.numberOfBonds());
+        StdOut.printf("estimated footprint     = %.1f MB \n",
+                estimatedMemoryUsage(lattice.numberOfSites(), percolation.elementIndexLimit()) / megabyte);
+        StdOut.printf("measured heap delta     = %.1f MB \n", (after - before) / megabyte);
+        StdOut.printf("open bonds              = %d \n", percolation.numberOfOpenBonds());
+    }
+}
@@ -0,0 +1,135 @@
+/******************************************************************************
+ *  Compilation:  javac ByteSink.java
+ *  Execution:    none
+ *  Dependencies: none
+ *
+ *  Buffered UTF-8 line writer over a byte channel: the output counterpart
+ *  of ByteTokenizer.
+ *
+ ******************************************************************************/
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes lines of text to a channel through one reusable BUFFER_SIZE buffer, which is written out only when
+ * full, on flush(), or on close().
+ * <p>
+ * ASCII characters are copied straight into the buffer. Only a line with other characters is encoded with
+ * String#getBytes(), so printing ASCII allocates nothing. Lines end with '\n' on every platform.
+ */
+public class ByteSink implements Flushable, Closeable {
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Constructor. Writes to the given channel.
+     *
+     * @param channel The channel to write to.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public ByteSink(WritableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Null channel");
+        }
+        this.channel = channel;
+    }
+
+    /**
+     * @return A sink to standard output, written through its file channel.
+     */
+    public static ByteSink standardOutput() {
+        return new ByteSink(new FileOutputStream(FileDescriptor.out).getChannel());
+    }
+
+    /**
+     * Writes the text, then a line feed.
+     *
+     * @param text The text, encoded as UTF-8.
+     * @throws IllegalArgumentException if text is null.
+     * @throws IOException              if writing fails.
+     */
+    public void println(String text) throws IOException {
+        if (text == null) {
+            throw new IllegalArgumentException("Null text");
+        }
+        if (isAscii(text)) {
+            for (int i = 0; i < text.length(); i++) {
+                put((byte) text.charAt(i));
+            }
+        } else {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            for (int offset = 0; offset < bytes.length; ) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                int run = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, run);
+                offset += run;
+            }
+        }
+        put((byte) '\n');
+    }
+
+    /**
+     * Writes out everything buffered so far.
+     *
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    /**
+     * Flushes, then closes the channel.
+     *
+     * @throws IOException if writing or closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Helper method to append one byte, writing the buffer out first if it is full.
+     */
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put(b);
+    }
+
+    /**
+     * Helper method to write the whole buffer: a single write() may write only part of it.
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,271 @@
+/******************************************************************************
+ *  Compilation:  javac ByteTokenizer.java
+ *  Execution:    java ByteTokenizer input.txt
+ *  Dependencies: In.java StdOut.java Stopwatch.java
+ *
+ *  Whitespace tokenizer that reads bytes from a channel into one reusable
+ *  buffer, instead of going through Scanner and its regular expressions.
+ *
+ *  Running it as a program reads the file three times and reports the
+ *  throughput of each pass: In.readString() (the Scanner path StdIn uses),
+ *  ByteTokenizer.next(), and ByteTokenizer.skip().
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits a UTF-8 byte stream into whitespace-separated tokens, like StdIn.readString(), at close to the
+ * speed the channel delivers bytes.
+ * <p>
+ * The bytes are scanned in place in a BUFFER_SIZE buffer that is refilled, never reallocated. next() copies
+ * a token's bytes out only if it straddles two fills, and allocates nothing but the returned String.
+ * skip() allocates nothing at all, for tokens the caller does not need (see ReservoirSampler#pendingSkips()).
+ * <p>
+ * Delimiters are the ASCII bytes Character.isWhitespace() accepts: space, tab, line feed, 0x0B, form feed,
+ * carriage return and 0x1C to 0x1F. Multi-byte UTF-8 sequences never contain bytes below 0x80, so they
+ * cannot be split, but unlike Scanner, non-ASCII whitespace such as U+2003 does not separate tokens.
+ */
+public class ByteTokenizer implements Closeable {
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    // Unread bytes are buffer[position, limit)
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer view = ByteBuffer.wrap(buffer);
+    private int position;
+    private int limit;
+    private boolean endOfStream;
+
+    // Holds the start of a token that straddles two fills. Grows to the longest such token.
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Constructor. Reads tokens from the given channel.
+     *
+     * @param channel The channel to read from.
+     * @throws IllegalArgumentException if channel is null.
+     */
+    public ByteTokenizer(ReadableByteChannel channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Null channel");
+        }
+        this.channel = channel;
+    }
+
+    /**
+     * @return A tokenizer over standard input, read through its file channel.
+     */
+    public static ByteTokenizer standardInput() {
+        return new ByteTokenizer(new FileInputStream(FileDescriptor.in).getChannel());
+    }
+
+    /**
+     * Determines whether there is another token, skipping any whitespace before it.
+     *
+     * @return true if there is another token.
+     * @throws IOException if reading fails.
+     */
+    public boolean hasNext() throws IOException {
+        while (true) {
+            while (position < limit) {
+                if (!isWhitespace(buffer[position])) {
+                    return true;
+                }
+                position++;
+            }
+            if (!fill()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return The next token, decoded as UTF-8.
+     * @throws NoSuchElementException if there are no more tokens.
+     * @throws IOException            if reading fails.
+     */
+    public String next() throws IOException {
+        validateHasNext();
+        int start = position;
+        while (position < limit && !isWhitespace(buffer[position])) {
+            position++;
+        }
+        if (position < limit || endOfStream) {
+            // The whole token is in the buffer
+            return new String(buffer, start, position - start, StandardCharsets.UTF_8);
+        }
+
+        // The token runs past the buffer: save its start, then keep reading
+        int length = 0;
+        while (true) {
+            int run = position - start;
+            if (length + run > scratch.length) {
+                scratch = Arrays.copyOf(scratch, Math.max(2 * scratch.length, length + run));
+            }
+            System.arraycopy(buffer, start, scratch, length, run);
+            length += run;
+            if (position < limit || !fill()) {
+                return new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            start = position;
+            while (position < limit && !isWhitespace(buffer[position])) {
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Passes over the next token without decoding it.
+     *
+     * @throws NoSuchElementException if there are no more tokens.
+     * @throws IOException            if reading fails.
+     */
+    public void skip() throws IOException {
+        validateHasNext();
+        while (true) {
+            while (position < limit) {
+                if (isWhitespace(buffer[position])) {
+                    return;
+                }
+                position++;
+            }
+            if (!fill()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Passes over up to n tokens without decoding them.
+     *
+     * @param n The number of tokens to pass over.
+     * @return The number of tokens passed over: n, or fewer if the input ran out first.
+     * @throws IllegalArgumentException if n < 0.
+     * @throws IOException              if reading fails.
+     */
+    public long skip(long n) throws IOException {
+        if (n < 0) {
+            throw new IllegalArgumentException("Cannot skip a negative number of tokens: " + n);
+        }
+        long skipped = 0;
+        while (skipped < n && hasNext()) {
+            skip();
+            skipped++;
+        }
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Throws NoSuchElementException if there are no more tokens
+     */
+    private void validateHasNext() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more tokens");
+        }
+    }
+
+    /**
+     * Helper method to replace the consumed buffer with the next bytes from the channel.
+     *
+     * @return false if the channel is at its end.
+     */
+    private boolean fill() throws IOException {
+        if (endOfStream) {
+            return false;
+        }
+        view.clear();
+        int read;
+        do {
+            read = channel.read(view);
+        } while (read == 0);
+        position = 0;
+        limit = Math.max(read, 0);
+        if (read < 0) {
+            endOfStream = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the byte is one of the ASCII characters Character.isWhitespace() accepts.
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+    }
+
+    /**
+     * Main method to run this class as a command-line program.
+     * See the comments at the top of this file for more information on running this program.
+     *
+     * @param args Command-line arguments.
+     * @throws IOException if the file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            StdOut.println("Please enter one argument: the input file");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        double megabytes = Files.size(file) / (1024.0 * 1024.0);
+
+        Stopwatch stopwatch = new Stopwatch();
+        In in = new In(args[0]);
+        long scannerTokens = 0;
+        while (!in.isEmpty()) {
+            in.readString();
+            scannerTokens++;
+        }
+        double scannerTime = stopwatch.elapsedTime();
+
+        stopwatch = new Stopwatch();
+        long nextTokens = 0;
+        try (ByteTokenizer tokenizer = new ByteTokenizer(FileChannel.open(file, StandardOpenOption.READ))) {
+            while (tokenizer.hasNext()) {
+                tokenizer.next();
+                nextTokens++;
+            }
+        }
+        double nextTime = stopwatch.elapsedTime();
+
+        stopwatch = new Stopwatch();
+        long skipTokens;
+        try (ByteTokenizer tokenizer = new ByteTokenizer(FileChannel.open(file, StandardOpenOption.READ))) {
+            skipTokens = tokenizer.skip(Long.MAX_VALUE);
+        }
+        double skipTime = stopwatch.elapsedTime();
+
+        if (scannerTokens != nextTokens || nextTokens != skipTokens) {
+            throw new IllegalStateException("Token counts differ: " + scannerTokens + ", " + nextTokens
+                    + ", " + skipTokens);
+        }
+        StdOut.printf("input                   = %.1f MB, %d tokens \n", megabytes, nextTokens);
+        StdOut.printf("In.readString()         = %.3f s (%.1f MB/s) \n", scannerTime, megabytes / scannerTime);
+        StdOut.printf("ByteTokenizer.next()    = %.3f s (%.1f MB/s) \n", nextTime, megabytes / nextTime);
+        StdOut.printf("ByteTokenizer.skip()    = %.3f s (%.1f MB/s) \n", skipTime, megabytes / skipTime);
+    }
+}
@@ -0,0 +1,274 @@
+/******************************************************************************
+ *  Compilation:  javac ChunkedDeque.java
+ *  Execution:    none
+ *  Dependencies: none
+ *
+ *  Unrolled-list implementation of the Deque API for very large deques:
+ *  a doubly-linked list of fixed-size blocks of items.
+ ******************************************************************************/
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Double Ended Queue built from fixed-size blocks of BLOCK_SIZE slots, linked at the ends.
+ * Same API and iteration order as {@link Deque}.
+ * <ul>
+ *  <li>isEmpty(), size(): constant time</li>
+ *  <li>addFirst(), addLast(), removeFirst(), removeLast(): worst-case constant time</li>
+ * </ul>
+ * <p>
+ * Unlike {@link RingBufferDeque}, growing never copies items: it only links one more block, so there is no
+ * pause proportional to size, and no need for one huge contiguous array. Unlike {@link Deque}, the per-item
+ * overhead is one reference, plus a block header shared by BLOCK_SIZE items, and iteration walks contiguous
+ * memory within each block.
+ * <p>
+ * Emptied blocks go to a small free-list and are reused before allocating new ones, so traffic that keeps
+ * crossing a block boundary does not allocate.
+ *
+ * @param <Item> A generic class.
+ */
+public class ChunkedDeque<Item> implements Iterable<Item> {
+    static final int BLOCK_SIZE = 1024;
+    // Emptied blocks kept for reuse. The rest are left to the garbage collector.
+    static final int MAX_FREE_BLOCKS = 4;
+
+    // The first item is head.items[headIndex]. The last is tail.items[tailIndex - 1].
+    // Only the head and tail blocks can be partly filled. When empty, head == tail and headIndex == tailIndex.
+    private Block<Item> head;
+    private int headIndex;
+    private Block<Item> tail;
+    private int tailIndex;
+    private int size;
+
+    // Singly-linked (through Block#next) stack of emptied blocks
+    private Block<Item> freeBlocks;
+    private int numberOfFreeBlocks;
+
+    /**
+     * Constructor. Initializes a 0-element Deque.
+     */
+    public ChunkedDeque() {
+        head = new Block<>();
+        tail = head;
+        recenter();
+        size = 0;
+    }
+
+    /**
+     * @return true if the Deque is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of elements in the deque.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Throws an exception for null inputs
+     */
+    private void validateAdd(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException(
+                    "You cannot add null items to a Deque");
+        }
+    }
+
+    /**
+     * Throws an exception if the deque is already empty
+     */
+    private void validateRemove() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("You cannot remove items " +
+                    "from an empty Deque");
+        }
+    }
+
+    /**
+     * Adds an item to the front of the queue.
+     * This will be the first item returned by removeFirst().
+     *
+     * @param item A non-null object.
+     * @throws IllegalArgumentException if item is null.
+     */
+    public void addFirst(Item item) {
+        validateAdd(item);
+        if (headIndex == 0) {
+            Block<Item> block = obtainBlock();
+            block.next = head;
+            head.prev = block;
+            head = block;
+            headIndex = BLOCK_SIZE;
+        }
+        head.items[--headIndex] = item;
+        size++;
+    }
+
+    /**
+     * Adds an item to the back of the queue.
+     * This will be the first item returned by removeLast().
+     *
+     * @param item A non-null object.
+     * @throws IllegalArgumentException if item is null.
+     */
+    public void addLast(Item item) {
+        validateAdd(item);
+        if (tailIndex == BLOCK_SIZE) {
+            Block<Item> block = obtainBlock();
+            block.prev = tail;
+            tail.next = block;
+            tail = block;
+            tailIndex = 0;
+        }
+        tail.items[tailIndex++] = item;
+        size++;
+    }
+
+    /**
+     * Removes the item at the front of the deque and returns it.
+     *
+     * @return The item at the front of the deque.
+     * @throws NoSuchElementException if the deque is empty.
+     */
+    public Item removeFirst() {
+        validateRemove();
+        Item item = head.items[headIndex];
+        head.items[headIndex++] = null;  // garbage collection optimization
+        size--;
+
+        // Move on to the next block once this one is used up
+        if (headIndex == BLOCK_SIZE && head != tail) {
+            Block<Item> used = head;
+            head = head.next;
+            head.prev = null;
+            headIndex = 0;
+            releaseBlock(used);
+        }
+        if (size == 0) {
+            recenter();
+        }
+        return item;
+    }
+
+    /**
+     * Removes and returns the most recently added item from the queue.
+     * @return The most recently added item in the queue.
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public Item removeLast() {
+        validateRemove();
+        Item item = tail.items[--tailIndex];
+        tail.items[tailIndex] = null;  // garbage collection optimization
+        size--;
+
+        // Move back to the previous block once this one is used up
+        if (tailIndex == 0 && tail != head) {
+            Block<Item> used = tail;
+            tail = tail.prev;
+            tail.next = null;
+            tailIndex = BLOCK_SIZE;
+            releaseBlock(used);
+        }
+        if (size == 0) {
+            recenter();
+        }
+        return item;
+    }
+
+    /**
+     * @return The number of emptied blocks waiting to be reused.
+     */
+    int freeBlocks() {
+        return numberOfFreeBlocks;
+    }
+
+    /**
+     * Helper method to start an empty deque in the middle of its only block, so that either end can grow
+     * by half a block before another block is needed.
+     */
+    private void recenter() {
+        headIndex = BLOCK_SIZE / 2;
+        tailIndex = BLOCK_SIZE / 2;
+    }
+
+    /**
+     * Helper method to take a block from the free-list, or allocate one if the list is empty.
+     */
+    private Block<Item> obtainBlock() {
+        if (freeBlocks == null) {
+            return new Block<>();
+        }
+        Block<Item> block = freeBlocks;
+        freeBlocks = block.next;
+        block.next = null;
+        numberOfFreeBlocks--;
+        return block;
+    }
+
+    /**
+     * Helper method to put an emptied block on the free-list, unless the list is full.
+     * Every slot of the block must already be null.
+     */
+    private void releaseBlock(Block<Item> block) {
+        block.prev = null;
+        if (numberOfFreeBlocks == MAX_FREE_BLOCKS) {
+            block.next = null;
+            return;
+        }
+        block.next = freeBlocks;
+        freeBlocks = block;
+        numberOfFreeBlocks++;
+    }
+
+    public Iterator<Item> iterator() {
+        return new ChunkedDequeIterator();
+    }
+
+    /**
+     * Fixed-size block of item slots, with links to its neighboring blocks.
+     */
+    private static final class Block<Item> {
+        @SuppressWarnings("unchecked")
+        private final Item[] items = (Item[]) new Object[BLOCK_SIZE];
+        private Block<Item> prev;
+        private Block<Item> next;
+    }
+
+    /**
+     * Iterator over the Deque.
+     * Iterates front-to-back (FIFO) order.
+     * Supports next() and hasNext(), but will throw UnsupportedOperationEx
+     * for remove().
+     */
+    private class ChunkedDequeIterator implements Iterator<Item> {
+        private Block<Item> block = head;
+        private int index = headIndex;
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return block != tail || index < tailIndex;
+        }
+
+        @Override
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (index == BLOCK_SIZE) {
+                block = block.next;
+                index = 0;
+            }
+            return block.items[index++];
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/******************************************************************************
+ *  Compilation:  javac ConcurrentPercolation.java
+ *  Execution:    java ConcurrentPercolation n [maxThreads] [--lattice=L] [--seed=S]
+ *  Dependencies: Lattice.java ConcurrentUnionFind.java Percolation.java PercolationSystem.java
+ *                StdOut.java Stopwatch.java
+ *
+ *  Thread-safe Percolation: many threads may open sites of one lattice at
+ *  the same time, e.g. to shard the open sequence of a single huge trial.
+ *
+ *  Running it as a program benchmarks it: it opens every site of a lattice
+ *  with side n, in one random order, split into contiguous shards across
+ *  1, 2, 4, ... maxThreads (default 32) threads, and compares the throughput
+ *  and the final state with the sequential Percolation.
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent counterpart of {@link Percolation}.
+ * <p>
+ * Sites are opened by setting their bit in an atomic bitset: exactly one thread wins each site, and only
+ * that thread connects it. After setting its bit, a thread unions the site with every neighbor it sees open.
+ * Both bits are set before either thread looks at the other's, so for two neighbors opened at once at least
+ * one of them sees the other.
+ * <p>
+ * As in Percolation, each cluster root carries CONNECTED_TO_TOP / CONNECTED_TO_BOTTOM flags. Flags are only
+ * ever OR-ed in, and every writer re-checks that it wrote to a root that is still a root (retrying on the new
+ * root if not). The thread that links a root under another one moves its flags up the same way. Together
+ * these guarantee that no flag is lost to a concurrent link.
+ * <p>
+ * All methods except reset() are thread-safe. Queries are linearizable with respect to each single open(),
+ * but a query concurrent with opens may see any subset of them.
+ */
+public class ConcurrentPercolation implements PercolationSystem {
+    private static final int CONNECTED_TO_TOP = 1;
+    private static final int CONNECTED_TO_BOTTOM = 2;
+    private static final int CONNECTED_TO_BOTH = CONNECTED_TO_TOP | CONNECTED_TO_BOTTOM;
+
+    // Topology: site numbering, neighbors, and which sites form the top and bottom rows
+    private final Lattice lattice;
+    private final int sideLength;
+    private final int topRowEnd;
+    private final int bottomRowStart;
+    // Per-thread scratch buffer for Lattice#neighbors()
+    private final ThreadLocal<int[]> neighborBuffer;
+
+    // Open/Closed sites as a flat atomic bitset: one bit per site, 64 sites per long
+    private final AtomicLongArray grid;
+    private final LongAdder numberOfOpenSites = new LongAdder();
+
+    private final ConcurrentUnionFind unionFind;
+    // rootFlags[r] holds the connectivity flags of the cluster rooted at r. Stale for non-roots.
+    private final AtomicIntegerArray rootFlags;
+
+    // Set once any cluster is connected to both the top and the bottom row. Percolation is monotonic.
+    private volatile boolean percolates;
+
+    /**
+     * Construct a new ConcurrentPercolation instance, which represents an n-by-n grid.
+     *
+     * @param sideLength: The side length of the grid.
+     * @throws IllegalArgumentException if the sideLength <= 0.
+     */
+    public ConcurrentPercolation(int sideLength) {
+        this(Lattice.square(sideLength));
+    }
+
+    /**
+     * Construct a new ConcurrentPercolation instance over the given lattice, with every site closed.
+     *
+     * @param lattice: The lattice topology.
+     * @throws IllegalArgumentException if the lattice is null.
+     */
+    public ConcurrentPercolation(Lattice lattice) {
+        if (lattice == null) {
+            throw new IllegalArgumentException("Lattice cannot be null");
+        }
+
+        this.lattice = lattice;
+        this.sideLength = lattice.sideLength();
+        int numberOfSites = lattice.numberOfSites();
+        topRowEnd = lattice.sitesPerRow();
+        bottomRowStart = numberOfSites - lattice.sitesPerRow();
+        int maxDegree = lattice.maxDegree();
+        neighborBuffer = ThreadLocal.withInitial(() -> new int[maxDegree]);
+
+        grid = new AtomicLongArray((numberOfSites + 63) >>> 6);
+        unionFind = new ConcurrentUnionFind(numberOfSites);
+        rootFlags = new AtomicIntegerArray(numberOfSites);
+        percolates = false;
+    }
+
+    /**
+     * Closes every site, returning this instance to the state of a freshly constructed one.
+     * Not thread-safe: no other method may run at the same time.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < grid.length(); i++) {
+            grid.lazySet(i, 0L);
+        }
+        for (int i = 0; i < rootFlags.length(); i++) {
+            rootFlags.lazySet(i, 0);
+        }
+        unionFind.reset();
+        numberOfOpenSites.reset();
+        percolates = false;
+    }
+
+    /**
+     * Open site at the given 1-based row and column. Thread-safe.
+     *
+     * @param row 1-based row number.
+     * @param col 1-based column number.
+     * @throws IllegalArgumentException if either row or column are less than 1 or greater than sideLength.
+     * @throws UnsupportedOperationException if the lattice is not two-dimensional.
+     */
+    public void open(int row, int col) {
+        validateArguments(row, col);
+        openSite((row - 1) * sideLength + (col - 1));
+    }
+
+    /**
+     * Open the site with the given 0-based site number. Thread-safe.
+     *
+     * @param site 0-based site number.
+     * @throws IllegalArgumentException if site is not between 0 and the number of sites - 1.
+     */
+    public void open(int site) {
+        validateSite(site);
+        openSite(site);
+    }
+
+    /**
+     * Helper method to open a site. Does no bounds checking.
+     *
+     * @return True if this call opened the site, false if it was already open.
+     */
+    private boolean openSite(int site) {
+        int word = site >>> 6;
+        long bit = 1L << site;
+        // Claim the site: whichever thread flips the bit owns the site and connects it
+        long previous;
+        do {
+            previous = grid.get(word);
+            if ((previous & bit) != 0) {
+                return false;
+            }
+        } while (!grid.compareAndSet(word, previous, previous | bit));
+        numberOfOpenSites.increment();
+
+        int flags = 0;
+        if (site < topRowEnd) {
+            flags |= CONNECTED_TO_TOP;
+        }
+        if (site >= bottomRowStart) {
+            flags |= CONNECTED_TO_BOTTOM;
+        }
+        if (flags != 0) {
+            addFlags(site, flags);
+        }
+
+        int[] neighbors = neighborBuffer.get();
+        int degree = lattice.neighbors(site, neighbors);
+        for (int i = 0; i < degree; i++) {
+            int neighbor = neighbors[i];
+            if (!isSiteOpen(neighbor)) {
+                continue;
+            }
+            int child = unionFind.link(site, neighbor);
+            if (child >= 0) {
+                // child is no longer a root: move its flags up to the cluster's current root
+                int childFlags = rootFlags.get(child);
+                if (childFlags != 0) {
+                    addFlags(child, childFlags);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to OR flags into the root of the cluster containing site.
+     * If the root is linked under another one while we write, the write might be missed by the linking thread,
+     * so write again on the new root until the root we wrote to is still a root afterwards.
+     */
+    private void addFlags(int site, int flags) {
+        while (true) {
+            int root = unionFind.find(site);
+            int merged = rootFlags.accumulateAndGet(root, flags, (a, b) -> a | b);
+            if (merged == CONNECTED_TO_BOTH) {
+                percolates = true;
+            }
+            if (unionFind.isRoot(root)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method to read a site's bit. Does no bounds checking.
+     */
+    private boolean isSiteOpen(int site) {
+        return (grid.get(site >>> 6) & (1L << site)) != 0;
+    }
+
+    /**
+     * Determines whether a given site is open. Thread-safe.
+     *
+     * @param site 0-based site number.
+     * @return True if the given site is open.
+     * @throws IllegalArgumentException if site is not between 0 and the number of sites - 1.
+     */
+    public boolean isOpen(int site) {
+        validateSite(site);
+        return isSiteOpen(site);
+    }
+
+    /**
+     * Determines whether a given site is full. Thread-safe.
+     *
+     * @param site 0-based site number.
+     * @return True iff the given site is open AND is connected to any site on the top row.
+     * @throws IllegalArgumentException if site is not between 0 and the number of sites - 1.
+     */
+    public boolean isFull(int site) {
+        validateSite(site);
+        if (!isSiteOpen(site)) {
+            return false;
+        }
+        // A root that was linked away may not hold all its cluster's flags: only trust a live root
+        while (true) {
+            int root = unionFind.find(site);
+            int flags = rootFlags.get(root);
+            if ((flags & CONNECTED_TO_TOP) != 0 || unionFind.isRoot(root)) {
+                return (flags & CONNECTED_TO_TOP) != 0;
+            }
+        }
+    }
+
+    /**
+     * @return The lattice this system is built on.
+     */
+    public Lattice lattice() {
+        return lattice;
+    }
+
+    /**
+     * @return The count of open sites.
+     */
+    public int numberOfOpenSites() {
+        return (int) numberOfOpenSites.sum();
+    }
+
+    /**
+     * Determines whether the given system percolates or not. Thread-safe.
+     *
+     * @return True if any of the sites on the bottom row are connected to any of the sites on the top row.
+     */
+    @Override
+    public boolean percolates() {
+        return percolates;
+    }
+
+    @Override
+    public int numberOfElements() {
+        return lattice.numberOfSites();
+    }
+
+    @Override
+    public int elementIndexLimit() {
+        return lattice.numberOfSites();
+    }
+
+    @Override
+    public boolean openElement(int index) {
+        validateSite(index);
+        return openSite(index);
+    }
+
+    @Override
+    public int numberOfOpenElements() {
+        return numberOfOpenSites();
+    }
+
+    /**
+     * Helper method to validate a 0-based site number.
+     *
+     * @throws IllegalArgumentException if site is negative, or not less than the number of sites.
+     */
+    private void validateSite(int site) {
+        if (site < 0 || site >= lattice.numberOfSites()) {
+            String errorMessage = "Site %s is not a valid site. Site must be between 0 and %s.";
+            throw new IllegalArgumentException(String.format(errorMessage, site, lattice.numberOfSites() - 1));
+        }
+    }
+
+    /**
+     * Helper method to validate site coordinates.
+     *
+     * @throws IllegalArgumentException if row or col is 0, or if row or col is greater than sideLength.
+     * @throws UnsupportedOperationException if the lattice is not two-dimensional.
+     */
+    private void validateArguments(int row, int col) {
+        if (lattice.dimensions() != 2) {
+            throw new UnsupportedOperationException("Row and column addressing needs a 2D lattice, not " + lattice);
+        }
+        if (row <= 0 || col <= 0 || row > sideLength || col > sideLength) {
+            String errorMessage = "Site (%s, %s) is not a valid site. " +
+                    "Row and col must each be greater than 0 and less than or equal to %s.";
+            throw new IllegalArgumentException(String.format(errorMessage, row, col, sideLength));
+        }
+    }
+
+    /**
+     * Main method to run this class as a command-line program.
+     * See the comments at the top of this file for more information on running this program.
+     *
+     * @param args Command-line arguments.
+     * @throws InterruptedException if interrupted while waiting for the worker threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            StdOut.println("Please enter one argument: n (side length of the grid)");
+            return;
+        }
+
+        int sideLength = Integer.parseInt(args[0]);
+        int maxThreads = 32;
+        String latticeName = "square";
+        long seed = new SplittableRandom().nextLong();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--lattice=")) {
+                latticeName = args[i].substring("--lattice=".length());
+            } else if (args[i].startsWith("--seed=")) {
+                seed = Long.parseLong(args[i].substring("--seed=".length()));
+            } else {
+                maxThreads = Integer.parseInt(args[i]);
+            }
+        }
+        Lattice lattice = Lattice.of(latticeName, sideLength);
+        int sites = lattice.numberOfSites();
+
+        // One random open order, shared by every run
+        int[] order = new int[sites];
+        for (int i = 0; i < sites; i++) {
+            order[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = sites - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int site = order[swap];
+            order[swap] = order[i];
+            order[i] = site;
+        }
+
+        Percolation sequential = new Percolation(lattice);
+        Stopwatch stopwatch = new Stopwatch();
+        for (int site : order) {
+            sequential.openSite(site);
+        }
+        double sequentialTime = stopwatch.elapsedTime();
+
+        StdOut.printf("lattice                 = %s \n", lattice);
+        StdOut.printf("seed                    = %d \n", seed);
+        StdOut.printf("cores                   = %d \n", Runtime.getRuntime().availableProcessors());
+        StdOut.printf("%-10s %12s %14s %10s\n", "threads", "time (s)", "Mopens/s", "speedup");
+        StdOut.printf("%-10s %12.3f %14.2f %10.2f\n", "sequential", sequentialTime,
+                sites / sequentialTime / 1e6, 1.0);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ConcurrentPercolation concurrent = new ConcurrentPercolation(lattice);
+            double time = openInParallel(concurrent, order, threads);
+            if (concurrent.percolates() != sequential.percolates()
+                    || concurrent.numberOfOpenSites() != sequential.numberOfOpenSites()) {
+                throw new IllegalStateException("Concurrent run disagrees with the sequential run at " + threads
+                        + " threads");
+            }
+            StdOut.printf("%-10d %12.3f %14.2f %10.2f\n", threads, time, sites / time / 1e6, sequentialTime / time);
+        }
+    }
+
+    /**
+     * Helper method for main(): opens the sites in order, split into one contiguous shard per thread.
+     *
+     * @return The elapsed wall-clock time in seconds.
+     */
+    private static double openInParallel(ConcurrentPercolation percolation, int[] order, int threads)
+            throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) order.length * t / threads);
+            int to = (int) ((long) order.length * (t + 1) / threads);
+            workers[t] = new Thread(() -> {
+                for (int i = from; i < to; i++) {
+                    percolation.openSite(order[i]);
+                }
+            });
+        }
+
+        Stopwatch stopwatch = new Stopwatch();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return stopwatch.elapsedTime();
+    }
+}
@@ -0,0 +1,361 @@
+/******************************************************************************
+ *  Compilation:  javac ConcurrentRandomizedQueue.java
+ *  Execution:    java ConcurrentRandomizedQueue [maxThreads] [operations]
+ *  Dependencies: RandomizedQueue.java StdOut.java Stopwatch.java
+ *
+ *  Thread-safe Randomized Queue, striped to spread contention: one
+ *  resizing array (and one lock) per stripe.
+ *
+ *  Running it as a program benchmarks it against a RandomizedQueue behind a
+ *  single lock: t threads (t = 1, 2, 4, ... maxThreads, default 32) each
+ *  alternate enqueue() and dequeue() on a shared, pre-filled queue.
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generic Randomized Queue that holds non-null elements, safe to share between threads.
+ * Supports isEmpty(), size(), enqueue(), dequeue(), and sample() methods.
+ * <p>
+ * Items are spread over stripes, each a resizing array with its own lock. enqueue() only locks the calling
+ * thread's stripe, so producers on different stripes never contend.
+ * <p>
+ * dequeue() and sample() stay uniform over all items, however unevenly the stripes are filled: they pick a
+ * stripe uniformly and a slot uniformly in [0, sizeBound), and retry if the slot is beyond the end of the
+ * stripe (rejection sampling). As sizeBound is at least the size of every stripe, each item is picked with
+ * the same probability 1 / (stripes * sizeBound) per attempt. enqueue() raises sizeBound as stripes grow.
+ * After a run of misses (the stripes may have shrunk), the sampling thread lowers it to the largest stripe
+ * size, read without taking any lock.
+ * <p>
+ * The iterator walks a shuffled snapshot, so it is weakly consistent: it never throws
+ * ConcurrentModificationException, and may or may not see concurrent changes.
+ */
+public class ConcurrentRandomizedQueue<Item> implements Iterable<Item> {
+    private static final int INITIAL_CAPACITY = 2;
+
+    private final Stripe<Item>[] stripes;
+    // At least the size of every stripe. Only enqueue() (upwards) and lowerSizeBound() change it.
+    private final AtomicInteger sizeBound = new AtomicInteger();
+
+    /**
+     * Constructor. Builds a new queue with one stripe per available processor.
+     */
+    public ConcurrentRandomizedQueue() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor. Builds a new queue with the given number of stripes.
+     *
+     * @param numberOfStripes The number of stripes. More stripes mean less contention between producers,
+     *                        but more rejected attempts when the stripes are unevenly filled.
+     * @throws IllegalArgumentException if numberOfStripes < 1.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentRandomizedQueue(int numberOfStripes) {
+        if (numberOfStripes < 1) {
+            throw new IllegalArgumentException("Number of stripes must be positive: " + numberOfStripes);
+        }
+        stripes = (Stripe<Item>[]) new Stripe<?>[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * Determines whether the queue is empty. A snapshot: may be stale as soon as it returns.
+     *
+     * @return true if the queue is empty.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of items currently stored in the queue. A snapshot: may be stale as soon as it
+     * returns, and is not atomic with respect to concurrent enqueues and dequeues.
+     *
+     * @return the queue size.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<Item> stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * Adds a new item to the calling thread's stripe.
+     *
+     * @param item Any non-null object of type Item.
+     * @throws IllegalArgumentException if item is null.
+     */
+    public void enqueue(Item item) {
+        validateNotNull(item);
+        Stripe<Item> stripe = stripes[stripeOfCurrentThread()];
+        stripe.lock.lock();
+        try {
+            int size = stripe.size;
+            if (size == stripe.items.length) {
+                stripe.resize(size * 2);
+            }
+            stripe.items[size] = item;
+            stripe.size = size + 1;
+            // Raise the bound before unlocking, so no sampler can see the new item without it
+            raiseSizeBound(size + 1);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves, but does not remove, a random element from this queue.
+     *
+     * @return An element from this queue, each with the same probability.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public Item sample() {
+        return take(false);
+    }
+
+    /**
+     * Retrieves and removes a random element from this queue.
+     *
+     * @return A random element in this queue, each with the same probability.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public Item dequeue() {
+        return take(true);
+    }
+
+    /**
+     * Helper method for sample() and dequeue(): rejection sampling over (stripe, slot) pairs.
+     */
+    private Item take(boolean remove) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int misses = 0;
+        while (true) {
+            int bound = sizeBound.get();
+            if (bound == 0) {
+                throw new NoSuchElementException("Queue underflow");
+            }
+            Stripe<Item> stripe = stripes[random.nextInt(stripes.length)];
+            int slot = random.nextInt(bound);
+
+            // Cheap unlocked pre-check, then check again under the lock
+            if (slot < stripe.size) {
+                stripe.lock.lock();
+                try {
+                    if (slot < stripe.size) {
+                        return remove ? stripe.remove(slot) : stripe.items[slot];
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+
+            // Many misses in a row: the bound may be stale, or the queue empty
+            if (++misses == 4 * stripes.length) {
+                misses = 0;
+                lowerSizeBound(bound);
+            }
+        }
+    }
+
+    /**
+     * Helper method to raise sizeBound to at least the given stripe size.
+     */
+    private void raiseSizeBound(int stripeSize) {
+        while (true) {
+            int bound = sizeBound.get();
+            if (stripeSize <= bound || sizeBound.compareAndSet(bound, stripeSize)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method to lower sizeBound from the given value to the size of the largest stripe, without
+     * locking: one volatile read per stripe, so a skewed queue (e.g. filled by one thread) that keeps missing
+     * costs no global serialization.
+     * A stripe can grow after its size was read without raising the bound, if it was still below the old
+     * bound. So once lowered, the bound is raised again to cover every stripe's current size.
+     */
+    private void lowerSizeBound(int bound) {
+        int largest = 0;
+        for (Stripe<Item> stripe : stripes) {
+            largest = Math.max(largest, stripe.size);
+        }
+        // Fails if an enqueue() has raised the bound meanwhile: then it is fresh anyway
+        if (largest < bound && sizeBound.compareAndSet(bound, largest)) {
+            for (Stripe<Item> stripe : stripes) {
+                raiseSizeBound(stripe.size);
+            }
+        }
+    }
+
+    /**
+     * @return The current bound on stripe sizes that sampling draws slots below.
+     */
+    int sizeBound() {
+        return sizeBound.get();
+    }
+
+    /**
+     * Helper method for the calling thread's stripe: a hash of its id, so each thread keeps to one stripe.
+     */
+    private int stripeOfCurrentThread() {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 32) % stripes.length);
+    }
+
+    /**
+     * Throws IllegalArgumentException if parameter is null
+     */
+    private void validateNotNull(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Null item");
+        }
+    }
+
+    /**
+     * @return An iterator over a snapshot of the items, in uniformly random order.
+     */
+    @Override
+    public Iterator<Item> iterator() {
+        List<Item> snapshot = new ArrayList<>();
+        for (Stripe<Item> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (int i = 0; i < stripe.size; i++) {
+                    snapshot.add(stripe.items[i]);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        Collections.shuffle(snapshot, ThreadLocalRandom.current());
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    /**
+     * One stripe: a resizing array like RandomizedQueue's, guarded by its own lock.
+     * items and the array contents are only accessed under the lock. size is volatile so that size() and
+     * the pre-check in take() can read it without the lock.
+     */
+    private static final class Stripe<Item> {
+        private final ReentrantLock lock = new ReentrantLock();
+        @SuppressWarnings("unchecked")
+        private Item[] items = (Item[]) new Object[INITIAL_CAPACITY];
+        private volatile int size;
+
+        /**
+         * Removes the item at the given slot by moving the last item into it. Caller holds the lock.
+         */
+        private Item remove(int slot) {
+            int last = size - 1;
+            Item item = items[slot];
+            items[slot] = items[last];
+            items[last] = null;  // Garbage collection: avoid loitering
+            size = last;
+            if (last > 0 && last <= items.length / 4) {
+                resize(items.length / 2);
+            }
+            return item;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void resize(int capacity) {
+            Item[] resized = (Item[]) new Object[capacity];
+            System.arraycopy(items, 0, resized, 0, size);
+            items = resized;
+        }
+    }
+
+    /**
+     * Main method to run this class as a command-line program.
+     * See the comments at the top of this file for more information on running this program.
+     *
+     * @param args Command-line arguments.
+     * @throws InterruptedException if interrupted while waiting for the worker threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        StdOut.printf("cores                   = %d \n", Runtime.getRuntime().availableProcessors());
+        StdOut.printf("operations              = %d \n", operations);
+        StdOut.printf("%-8s %18s %18s %10s\n", "threads", "striped (M/s)", "locked (M/s)", "speedup");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ConcurrentRandomizedQueue<Integer> striped = new ConcurrentRandomizedQueue<>();
+            double stripedRate = operations / run(striped::enqueue, striped::dequeue, threads, operations) / 1e6;
+
+            RandomizedQueue<Integer> queue = new RandomizedQueue<>();
+            Object lock = new Object();
+            double lockedRate = operations / run(item -> {
+                synchronized (lock) {
+                    queue.enqueue(item);
+                }
+            }, () -> {
+                synchronized (lock) {
+                    return queue.dequeue();
+                }
+            }, threads, operations) / 1e6;
+
+            StdOut.printf("%-8d %18.2f %18.2f %10.2f\n", threads, stripedRate, lockedRate, stripedRate / lockedRate);
+        }
+    }
+
+    /**
+     * Helper method for main(): the queue operations under test.
+     */
+    private interface Enqueue {
+        void enqueue(Integer item);
+    }
+
+    private interface Dequeue {
+        Integer dequeue();
+    }
+
+    /**
+     * Helper method for main(): pre-fills the queue, then splits the operations over the threads, each
+     * alternating enqueue() and dequeue(), so the queue never runs dry.
+     *
+     * @return The elapsed wall-clock time in seconds.
+     */
+    private static double run(Enqueue enqueue, Dequeue dequeue, int threads, int operations)
+            throws InterruptedException {
+        for (int i = 0; i < 1024; i++) {
+            enqueue.enqueue(i);
+        }
+        int perThread = operations / threads / 2;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    enqueue.enqueue(dequeue.dequeue());
+                }
+            });
+        }
+
+        Stopwatch stopwatch = new Stopwatch();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return stopwatch.elapsedTime();
+    }
+}
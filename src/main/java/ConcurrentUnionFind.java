@@ -0,0 +1,163 @@
+/******************************************************************************
+ *  Compilation:  javac ConcurrentUnionFind.java
+ *  Execution:    none
+ *  Dependencies: UnionFind.java
+ *
+ *  Lock-free union-find for many threads: randomized linking by CAS, and
+ *  path splitting in find().
+ *
+ ******************************************************************************/
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Thread-safe Union-Find (Jayanti and Tarjan's concurrent disjoint sets).
+ * <ul>
+ *  <li>Randomized linking: every element has a fixed pseudo-random priority, and a root is only ever linked
+ *      under a root of higher priority. That keeps trees shallow in expectation without tracking sizes, so a
+ *      link is a single compareAndSet on the lower root's parent.</li>
+ *  <li>Path splitting: find() points every node it visits at its grandparent with a compareAndSet. A failed
+ *      CAS means another thread already moved the pointer up the tree, so it is simply ignored: find() never
+ *      retries and never waits for other threads.</li>
+ *  <li>union() retries only when another thread linked one of the two roots in the meantime.</li>
+ * </ul>
+ * All operations except reset() may run concurrently. Like {@link PathHalvingUF}, there is no argument
+ * validation. Sizes are not tracked, so size() is unsupported.
+ */
+public class ConcurrentUnionFind implements UnionFind {
+    // parent[i] is the parent of element i. Roots point at themselves. Only ever moves up the tree.
+    private final AtomicIntegerArray parent;
+    // Number of disjoint sets
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Initializes n singleton sets, 0 through n-1.
+     *
+     * @param n The number of elements.
+     * @throws IllegalArgumentException if n is negative.
+     */
+    public ConcurrentUnionFind(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of elements must be non-negative: " + n);
+        }
+        parent = new AtomicIntegerArray(n);
+        reset();
+    }
+
+    /**
+     * Resets to n singleton sets in place, in O(n) time and without allocating.
+     * Not thread-safe: no other operation may run at the same time.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < parent.length(); i++) {
+            parent.lazySet(i, i);
+        }
+        count.set(parent.length());
+    }
+
+    @Override
+    public int find(int p) {
+        int parentP = parent.get(p);
+        while (parentP != p) {
+            int grandparent = parent.get(parentP);
+            // Path splitting: point p at its grandparent. If the CAS fails, p already points higher up.
+            parent.compareAndSet(p, parentP, grandparent);
+            p = parentP;
+            parentP = grandparent;
+        }
+        return p;
+    }
+
+    @Override
+    public void union(int p, int q) {
+        link(p, q);
+    }
+
+    /**
+     * Merges the sets containing p and q, and reports which root stopped being a root. Callers that keep
+     * per-root data use it to move that data to the surviving root.
+     *
+     * @param p One element.
+     * @param q The other element.
+     * @return The root that was linked under the other one, or -1 if p and q were already in the same set.
+     */
+    int link(int p, int q) {
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) {
+                return -1;
+            }
+            // Link the lower-priority root under the higher-priority one
+            int child = hasLowerPriority(rootP, rootQ) ? rootP : rootQ;
+            int newParent = child == rootP ? rootQ : rootP;
+            if (parent.compareAndSet(child, child, newParent)) {
+                count.decrementAndGet();
+                return child;
+            }
+            // Another thread linked child first: retry from the new roots
+        }
+    }
+
+    /**
+     * @param p An element.
+     * @return True if p is currently a root. May be stale as soon as it returns if other threads are linking.
+     */
+    boolean isRoot(int p) {
+        return parent.get(p) == p;
+    }
+
+    @Override
+    public boolean connected(int p, int q) {
+        // The roots can move while we look: only trust a mismatch if rootP is still a root afterwards
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) {
+                return true;
+            }
+            if (isRoot(rootP)) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public int count() {
+        return count.get();
+    }
+
+    /**
+     * Unsupported: randomized linking does not track set sizes.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public int size(int p) {
+        throw new UnsupportedOperationException("ConcurrentUnionFind does not track set sizes");
+    }
+
+    /**
+     * Helper method to compare the fixed pseudo-random priorities of two elements.
+     * The priority is a bijective hash of the index, so it needs no memory, never changes, and no two
+     * elements share one.
+     */
+    private static boolean hasLowerPriority(int p, int q) {
+        return priority(p) < priority(q);
+    }
+
+    /**
+     * Helper method for a 32-bit mixing hash (the murmur3 finalizer, which is a bijection on ints).
+     */
+    private static int priority(int p) {
+        int h = p;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
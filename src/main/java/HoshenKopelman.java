@@ -0,0 +1,400 @@
+/******************************************************************************
+ *  Compilation:  javac HoshenKopelman.java
+ *  Execution:    java HoshenKopelman n p [--seed=S] [--lattice=L] [--format=csv|binary] [--out=FILE]
+ *  Dependencies: Percolation.java Lattice.java StdOut.java
+ *
+ *  Hoshen-Kopelman cluster labelling: the size distribution of the clusters
+ *  of open sites of a Percolation system, in a single pass over its sites.
+ *
+ *  Sites are labelled one row at a time. Each open site joins the clusters
+ *  of its already-labelled neighbors (which are all in the current row or
+ *  the row before), or starts a new cluster. At the end of each row, any
+ *  cluster that no longer reaches the current row is complete: its size goes
+ *  into the histogram and its label is recycled. So the working set is two
+ *  rows of labels, O(n) for the 2D lattices, however large the grid is.
+ *
+ *  Running it as a program opens each site of a lattice with side n
+ *  independently with probability p, then writes the histogram of cluster
+ *  sizes as CSV (default) or in the compact binary format described at
+ *  writeBinary(), to FILE or standard output.
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+public class HoshenKopelman {
+    /* First 4 bytes of the binary format: "HKCS" (Hoshen-Kopelman Cluster Sizes) */
+    static final int BINARY_MAGIC = 0x484B4353;
+    static final int BINARY_VERSION = 1;
+
+    /* Number of sites in the labelled system */
+    private final int numberOfSites;
+
+    /* smallCounts[s] is the number of clusters of size s, for s <= sitesPerRow. Most clusters are small. */
+    private final long[] smallCounts;
+
+    /* Counts for the sizes above sitesPerRow. There are at most numberOfSites / sitesPerRow such clusters. */
+    private final TreeMap<Integer, Long> largeCounts = new TreeMap<>();
+
+    private int numberOfClusters;
+    private int largestCluster;
+
+    // Working set for the labelling pass, two rows wide. Labels of the previous row are 0 .. previousLabels - 1,
+    // and labels handed out in the current row follow on from them, so there are never more than 2 * sitesPerRow.
+    private final int[] previousRow;
+    private final int[] currentRow;
+    private final int[] parent;
+    private final int[] clusterSize;
+    private final int[] relabel;
+    private final int[] carriedSize;
+
+    /**
+     * Labels the clusters of open sites of the given system and builds their size histogram.
+     * The system is only read, never modified.
+     *
+     * @param percolation The system to label.
+     * @throws IllegalArgumentException if percolation is null.
+     */
+    public HoshenKopelman(Percolation percolation) {
+        if (percolation == null) {
+            throw new IllegalArgumentException("Percolation cannot be null");
+        }
+
+        Lattice lattice = percolation.lattice();
+        numberOfSites = lattice.numberOfSites();
+        int sitesPerRow = lattice.sitesPerRow();
+        smallCounts = new long[sitesPerRow + 1];
+        previousRow = new int[sitesPerRow];
+        currentRow = new int[sitesPerRow];
+        parent = new int[2 * sitesPerRow];
+        clusterSize = new int[2 * sitesPerRow];
+        relabel = new int[2 * sitesPerRow];
+        carriedSize = new int[sitesPerRow];
+
+        label(percolation, lattice);
+    }
+
+    /**
+     * @return The number of sites in the labelled system.
+     */
+    public int numberOfSites() {
+        return numberOfSites;
+    }
+
+    /**
+     * @return The number of clusters of open sites.
+     */
+    public int numberOfClusters() {
+        return numberOfClusters;
+    }
+
+    /**
+     * @return The number of sites in the largest cluster, or 0 if no site is open.
+     */
+    public int largestCluster() {
+        return largestCluster;
+    }
+
+    /**
+     * Returns the number of clusters of exactly the given size.
+     *
+     * @param size A cluster size, at least 1.
+     * @return The number of clusters with that many sites.
+     * @throws IllegalArgumentException if size is less than 1.
+     */
+    public long count(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Cluster size must be at least 1: " + size);
+        }
+        if (size < smallCounts.length) {
+            return smallCounts[size];
+        }
+        Long count = largeCounts.get(size);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Writes the histogram as CSV: a "size,count" header, then one line per cluster size that occurs,
+     * in ascending order of size. The stream is flushed but not closed.
+     *
+     * @param out Destination stream.
+     * @throws IOException if writing fails.
+     */
+    public void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII));
+        writer.write("size,count\n");
+        for (int size = 1; size < smallCounts.length; size++) {
+            if (smallCounts[size] > 0) {
+                writer.write(size + "," + smallCounts[size] + "\n");
+            }
+        }
+        for (Map.Entry<Integer, Long> entry : largeCounts.entrySet()) {
+            writer.write(entry.getKey() + "," + entry.getValue() + "\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the histogram in a compact big-endian binary format (as written by DataOutputStream):
+     * <pre>
+     *     int  magic              0x484B4353 ("HKCS")
+     *     int  version            1
+     *     int  numberOfSites
+     *     int  numberOfClusters
+     *     int  entries            number of distinct cluster sizes
+     *     entries x (int size, long count), in ascending order of size
+     * </pre>
+     * The stream is flushed but not closed.
+     *
+     * @param out Destination stream.
+     * @throws IOException if writing fails.
+     */
+    public void writeBinary(OutputStream out) throws IOException {
+        int entries = largeCounts.size();
+        for (int size = 1; size < smallCounts.length; size++) {
+            if (smallCounts[size] > 0) {
+                entries++;
+            }
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(BINARY_MAGIC);
+        data.writeInt(BINARY_VERSION);
+        data.writeInt(numberOfSites);
+        data.writeInt(numberOfClusters);
+        data.writeInt(entries);
+        for (int size = 1; size < smallCounts.length; size++) {
+            if (smallCounts[size] > 0) {
+                data.writeInt(size);
+                data.writeLong(smallCounts[size]);
+            }
+        }
+        for (Map.Entry<Integer, Long> entry : largeCounts.entrySet()) {
+            data.writeInt(entry.getKey());
+            data.writeLong(entry.getValue());
+        }
+        data.flush();
+    }
+
+    /**
+     * Helper method for the labelling pass.
+     */
+    private void label(Percolation percolation, Lattice lattice) {
+        int sitesPerRow = lattice.sitesPerRow();
+        int rows = numberOfSites / sitesPerRow;
+        int[] neighbors = new int[lattice.maxDegree()];
+        int[] previous = previousRow;
+        int[] current = currentRow;
+        int previousLabels = 0;
+
+        for (int row = 0; row < rows; row++) {
+            int rowStart = row * sitesPerRow;
+            int nextLabel = previousLabels;
+            for (int i = 0; i < sitesPerRow; i++) {
+                int site = rowStart + i;
+                if (!percolation.isOpen(site)) {
+                    current[i] = -1;
+                    continue;
+                }
+
+                // Join the clusters of the neighbors labelled so far: those numbered below this site
+                int root = -1;
+                int degree = lattice.neighbors(site, neighbors);
+                for (int k = 0; k < degree; k++) {
+                    int neighbor = neighbors[k];
+                    if (neighbor >= site) {
+                        continue;
+                    }
+                    int neighborLabel = neighbor >= rowStart
+                            ? current[neighbor - rowStart]
+                            : previous[neighbor - rowStart + sitesPerRow];
+                    if (neighborLabel < 0) {
+                        continue;
+                    }
+                    int neighborRoot = find(neighborLabel);
+                    root = root < 0 ? neighborRoot : union(root, neighborRoot);
+                }
+
+                if (root < 0) {
+                    root = nextLabel++;
+                    parent[root] = root;
+                    clusterSize[root] = 0;
+                }
+                clusterSize[root]++;
+                current[i] = root;
+            }
+
+            previousLabels = retireCompletedClusters(current, nextLabel, row == rows - 1);
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+    }
+
+    /**
+     * Helper method run at the end of each row. Records every cluster that does not reach the given row
+     * (or every cluster, after the last row), then relabels the row's clusters as 0 .. k-1 so that the
+     * next row hands out labels from k.
+     *
+     * @param row      Labels of the row just finished. Rewritten with the new labels.
+     * @param labels   Number of labels in use.
+     * @param finalRow True after the last row: every cluster is complete.
+     * @return The number k of clusters that are still growing.
+     */
+    private int retireCompletedClusters(int[] row, int labels, boolean finalRow) {
+        // Number the clusters still reaching this row in order of first appearance
+        for (int label = 0; label < labels; label++) {
+            relabel[label] = -1;
+        }
+        int growing = 0;
+        if (!finalRow) {
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] < 0) {
+                    continue;
+                }
+                int root = find(row[i]);
+                if (relabel[root] < 0) {
+                    relabel[root] = growing++;
+                }
+                row[i] = relabel[root];
+            }
+        }
+
+        // Every other root is a complete cluster. Stash the growing clusters' sizes under their new labels:
+        // a new label can equal the old label of a root not yet visited, so they cannot be moved in place.
+        for (int label = 0; label < labels; label++) {
+            if (parent[label] != label) {
+                continue;
+            }
+            if (relabel[label] < 0) {
+                record(clusterSize[label]);
+            } else {
+                carriedSize[relabel[label]] = clusterSize[label];
+            }
+        }
+        for (int label = 0; label < growing; label++) {
+            parent[label] = label;
+            clusterSize[label] = carriedSize[label];
+        }
+        return growing;
+    }
+
+    /**
+     * Helper method to find the root label, with path halving.
+     */
+    private int find(int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+
+    /**
+     * Helper method to merge two root labels, by size. Returns the new root.
+     */
+    private int union(int rootP, int rootQ) {
+        if (rootP == rootQ) {
+            return rootP;
+        }
+        if (clusterSize[rootP] < clusterSize[rootQ]) {
+            int swap = rootP;
+            rootP = rootQ;
+            rootQ = swap;
+        }
+        parent[rootQ] = rootP;
+        clusterSize[rootP] += clusterSize[rootQ];
+        return rootP;
+    }
+
+    /**
+     * Helper method to add one complete cluster to the histogram.
+     */
+    private void record(int size) {
+        numberOfClusters++;
+        largestCluster = Math.max(largestCluster, size);
+        if (size < smallCounts.length) {
+            smallCounts[size]++;
+        } else {
+            largeCounts.merge(size, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Main method to run this class as a command-line program.
+     * See the comments at the top of this file for more information on running this program.
+     *
+     * @param args Command-line arguments.
+     * @throws IOException if writing the histogram fails.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            StdOut.println("Please enter two arguments: " +
+                    "n (side length of the grid) and " +
+                    "p (probability that each site is open)");
+            return;
+        }
+
+        int sideLength = Integer.parseInt(args[0]);
+        double p = Double.parseDouble(args[1]);
+        long seed = new SplittableRandom().nextLong();
+        String latticeName = "square";
+        boolean binary = false;
+        String outFile = null;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--seed=")) {
+                seed = Long.parseLong(args[i].substring("--seed=".length()));
+            } else if (args[i].startsWith("--lattice=")) {
+                latticeName = args[i].substring("--lattice=".length());
+            } else if (args[i].startsWith("--format=")) {
+                binary = args[i].substring("--format=".length()).equalsIgnoreCase("binary");
+            } else if (args[i].startsWith("--out=")) {
+                outFile = args[i].substring("--out=".length());
+            }
+        }
+
+        Lattice lattice = Lattice.of(latticeName, sideLength);
+        Percolation percolation = new Percolation(lattice);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int site = 0; site < lattice.numberOfSites(); site++) {
+            if (random.nextDouble() < p) {
+                percolation.openSite(site);
+            }
+        }
+        HoshenKopelman clusters = new HoshenKopelman(percolation);
+
+        OutputStream out = outFile == null ? System.out : new FileOutputStream(outFile);
+        try {
+            if (binary) {
+                clusters.writeBinary(out);
+            } else {
+                clusters.writeCsv(out);
+            }
+        } finally {
+            if (outFile != null) {
+                out.close();
+            }
+        }
+
+        // Keep standard output clean when the histogram itself went there
+        if (outFile != null) {
+            StdOut.printf("lattice                 = %s \n", lattice);
+            StdOut.printf("seed                    = %d \n", seed);
+            StdOut.printf("open sites              = %d \n", percolation.numberOfOpenSites());
+            StdOut.printf("clusters                = %d \n", clusters.numberOfClusters());
+            StdOut.printf("largest cluster         = %d \n", clusters.largestCluster());
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/******************************************************************************
+ *  Compilation:  javac Lattice.java
+ *  Execution:    none
+ *  Dependencies: none
+ *
+ *  Lattice topologies for Percolation and BondPercolation: which sites exist,
+ *  which sites are neighbors (joined by a bond), and which sites form the top
+ *  and bottom boundaries.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ * An immutable lattice of sites numbered 0 through numberOfSites() - 1.
+ * <p>
+ * Every lattice is built from rows, columns and layers (layers = 1 for the 2D lattices), and sites are
+ * numbered row-major with the row varying slowest:
+ * <pre>
+ *     site = (row * sideLength + col) * layers + layer      (all 0-based)
+ * </pre>
+ * So rows are contiguous blocks of sites. Percolation runs from the first row (the top) to the last row
+ * (the bottom). For the 2D lattices this numbering matches Percolation's (row, col) numbering.
+ * <p>
+ * Neighbors are described by precomputed tables of (row, col, layer) steps and the matching site-number
+ * offsets. Finding a site's neighbors is a loop over plain int arrays: no per-neighbor virtual calls.
+ * <p>
+ * Each bond is owned by its lower-numbered site: it is that site's k-th "forward" neighbor (one with a positive
+ * site offset) for some k < forwardDegree(). So bond slot {@code site * forwardDegree() + k} names every bond
+ * exactly once. Slots past the edge of the lattice (or past a site's own forward degree) name no bond.
+ * Supported lattices:
+ * <ul>
+ *  <li>{@link #square(int)}: 2D, 4 neighbors. Site threshold ~0.5927.</li>
+ *  <li>{@link #triangular(int)}: 2D, 6 neighbors (the square lattice plus one diagonal). Site threshold 1/2.</li>
+ *  <li>{@link #honeycomb(int)}: 2D, 3 neighbors (brick-wall embedding). Site threshold ~0.6970.</li>
+ *  <li>{@link #cubic(int)}: 3D, 6 neighbors. Site threshold ~0.3116.</li>
+ * </ul>
+ */
+public final class Lattice {
+    private final String name;
+    private final int sideLength;
+    private final int layers;
+    private final int numberOfSites;
+    // Number of sites in one row (one horizontal slab for the cubic lattice)
+    private final int sitesPerRow;
+    private final int maxDegree;
+
+    // Neighbor tables, indexed [parity class][neighbor]. Only the honeycomb lattice has two parity classes:
+    // whether a site has its vertical neighbor above or below depends on (row + col) % 2.
+    private final int[][] rowSteps;
+    private final int[][] colSteps;
+    private final int[][] layerSteps;
+    private final int[][] siteOffsets;
+    // forwardNeighbors[parity] lists the indexes k (into the tables above) whose site offset is positive
+    private final int[][] forwardNeighbors;
+    private final int forwardDegree;
+    private final long numberOfBonds;
+
+    private Lattice(String name, int sideLength, int layers, int[][][] steps) {
+        this.name = name;
+        this.sideLength = sideLength;
+        this.layers = layers;
+        this.sitesPerRow = sideLength * layers;
+        this.numberOfSites = sideLength * sitesPerRow;
+
+        int parityClasses = steps.length;
+        rowSteps = new int[parityClasses][];
+        colSteps = new int[parityClasses][];
+        layerSteps = new int[parityClasses][];
+        siteOffsets = new int[parityClasses][];
+        forwardNeighbors = new int[parityClasses][];
+        int degree = 0;
+        int forward = 0;
+        for (int parity = 0; parity < parityClasses; parity++) {
+            int[][] classSteps = steps[parity];
+            int count = classSteps.length;
+            rowSteps[parity] = new int[count];
+            colSteps[parity] = new int[count];
+            layerSteps[parity] = new int[count];
+            siteOffsets[parity] = new int[count];
+            for (int k = 0; k < count; k++) {
+                rowSteps[parity][k] = classSteps[k][0];
+                colSteps[parity][k] = classSteps[k][1];
+                layerSteps[parity][k] = classSteps[k][2];
+                siteOffsets[parity][k] = classSteps[k][0] * sitesPerRow + classSteps[k][1] * layers + classSteps[k][2];
+            }
+            int forwardCount = 0;
+            int[] forwardIndexes = new int[count];
+            for (int k = 0; k < count; k++) {
+                if (siteOffsets[parity][k] > 0) {
+                    forwardIndexes[forwardCount++] = k;
+                }
+            }
+            forwardNeighbors[parity] = Arrays.copyOf(forwardIndexes, forwardCount);
+            degree = Math.max(degree, count);
+            forward = Math.max(forward, forwardCount);
+        }
+        maxDegree = degree;
+        forwardDegree = forward;
+        numberOfBonds = countBonds();
+    }
+
+    /**
+     * Square lattice: n-by-n sites, each connected to the sites above, below, left and right.
+     *
+     * @param n The side length.
+     * @throws IllegalArgumentException if n <= 0, or if n^2 does not fit in an int.
+     */
+    public static Lattice square(int n) {
+        validateSize(n, 2);
+        return new Lattice("square", n, 1, new int[][][] {
+                {{-1, 0, 0}, {1, 0, 0}, {0, -1, 0}, {0, 1, 0}}
+        });
+    }
+
+    /**
+     * Triangular lattice: n-by-n sites, each connected to its 4 square-lattice neighbors plus the
+     * up-right and down-left diagonals, which gives every interior site 6 neighbors.
+     *
+     * @param n The side length.
+     * @throws IllegalArgumentException if n <= 0, or if n^2 does not fit in an int.
+     */
+    public static Lattice triangular(int n) {
+        validateSize(n, 2);
+        return new Lattice("triangular", n, 1, new int[][][] {
+                {{-1, 0, 0}, {1, 0, 0}, {0, -1, 0}, {0, 1, 0}, {-1, 1, 0}, {1, -1, 0}}
+        });
+    }
+
+    /**
+     * Honeycomb lattice in its brick-wall embedding: n-by-n sites, each connected to its left and right
+     * neighbors, and to the site below if (row + col) is even, or to the site above if it is odd.
+     * Every interior site has 3 neighbors.
+     *
+     * @param n The side length.
+     * @throws IllegalArgumentException if n <= 0, or if n^2 does not fit in an int.
+     */
+    public static Lattice honeycomb(int n) {
+        validateSize(n, 2);
+        return new Lattice("honeycomb", n, 1, new int[][][] {
+                {{0, -1, 0}, {0, 1, 0}, {1, 0, 0}},
+                {{0, -1, 0}, {0, 1, 0}, {-1, 0, 0}}
+        });
+    }
+
+    /**
+     * Simple cubic lattice: n-by-n-by-n sites, each connected to its 6 axis neighbors.
+     * Rows are horizontal n-by-n slabs, so percolation runs from the top slab to the bottom slab.
+     *
+     * @param n The side length.
+     * @throws IllegalArgumentException if n <= 0, or if n^3 does not fit in an int.
+     */
+    public static Lattice cubic(int n) {
+        validateSize(n, 3);
+        return new Lattice("cubic", n, n, new int[][][] {
+                {{-1, 0, 0}, {1, 0, 0}, {0, -1, 0}, {0, 1, 0}, {0, 0, -1}, {0, 0, 1}}
+        });
+    }
+
+    /**
+     * Looks up a lattice by name.
+     *
+     * @param name One of "square", "triangular", "honeycomb" or "cubic" (case-insensitive).
+     * @param n    The side length.
+     * @throws IllegalArgumentException if the name is unknown or n is invalid.
+     */
+    public static Lattice of(String name, int n) {
+        switch (name.toLowerCase()) {
+            case "square":
+                return square(n);
+            case "triangular":
+                return triangular(n);
+            case "honeycomb":
+                return honeycomb(n);
+            case "cubic":
+                return cubic(n);
+            default:
+                throw new IllegalArgumentException("Unknown lattice: " + name);
+        }
+    }
+
+    /**
+     * @return The total number of sites.
+     */
+    public int numberOfSites() {
+        return numberOfSites;
+    }
+
+    /**
+     * @return The lattice's name, as accepted by {@link #of(String, int)}: "square", "triangular", "honeycomb"
+     *         or "cubic".
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return The number of sites along each side.
+     */
+    public int sideLength() {
+        return sideLength;
+    }
+
+    /**
+     * @return 2 for the square, triangular and honeycomb lattices, 3 for the cubic lattice.
+     */
+    public int dimensions() {
+        return layers == 1 ? 2 : 3;
+    }
+
+    /**
+     * @return The number of bonds, i.e. of pairs of neighboring sites.
+     */
+    public long numberOfBonds() {
+        return numberOfBonds;
+    }
+
+    /**
+     * @return The number of sites in the top row (and in every other row).
+     */
+    int sitesPerRow() {
+        return sitesPerRow;
+    }
+
+    /**
+     * @return The largest number of neighbors any site can have. Size buffers passed to neighbors() with this.
+     */
+    int maxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Writes the site numbers of every neighbor of the given site into buffer.
+     * Does no bounds checking on site: callers must guarantee 0 <= site < numberOfSites().
+     *
+     * @param site   0-based site number.
+     * @param buffer Output array of length at least maxDegree().
+     * @return The number of neighbors written to buffer[0 .. count).
+     */
+    int neighbors(int site, int[] buffer) {
+        int row = site / sitesPerRow;
+        int withinRow = site - row * sitesPerRow;
+        int col = withinRow / layers;
+        int layer = withinRow - col * layers;
+        int parity = (row + col) & (siteOffsets.length - 1);  // Always 0 unless there are two parity classes
+
+        int[] rowStep = rowSteps[parity];
+        int[] colStep = colSteps[parity];
+        int[] layerStep = layerSteps[parity];
+        int[] offset = siteOffsets[parity];
+        int count = 0;
+        for (int k = 0; k < offset.length; k++) {
+            // Unsigned comparison catches both -1 and sideLength in one test
+            if (Integer.compareUnsigned(row + rowStep[k], sideLength) >= 0
+                    || Integer.compareUnsigned(col + colStep[k], sideLength) >= 0
+                    || Integer.compareUnsigned(layer + layerStep[k], layers) >= 0) {
+                continue;
+            }
+            buffer[count++] = site + offset[k];
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of bond slots per site. See forwardNeighbor().
+     */
+    int forwardDegree() {
+        return forwardDegree;
+    }
+
+    /**
+     * Returns the k-th forward neighbor of a site: the other end of the k-th bond this site owns.
+     * Does no bounds checking on site: callers must guarantee 0 <= site < numberOfSites() and 0 <= k < forwardDegree().
+     *
+     * @param site 0-based site number.
+     * @param k    Bond slot, between 0 and forwardDegree() - 1.
+     * @return The neighbor's site number (always greater than site), or -1 if this slot names no bond.
+     */
+    int forwardNeighbor(int site, int k) {
+        int row = site / sitesPerRow;
+        int withinRow = site - row * sitesPerRow;
+        int col = withinRow / layers;
+        int layer = withinRow - col * layers;
+        int parity = (row + col) & (siteOffsets.length - 1);
+
+        int[] forward = forwardNeighbors[parity];
+        if (k >= forward.length) {
+            return -1;
+        }
+        int index = forward[k];
+        if (Integer.compareUnsigned(row + rowSteps[parity][index], sideLength) >= 0
+                || Integer.compareUnsigned(col + colSteps[parity][index], sideLength) >= 0
+                || Integer.compareUnsigned(layer + layerSteps[parity][index], layers) >= 0) {
+            return -1;
+        }
+        return site + siteOffsets[parity][index];
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + sideLength + (layers == 1 ? "x" + sideLength : "x" + sideLength + "x" + layers);
+    }
+
+    /**
+     * Helper method to count the bonds: for each forward step, the number of sites of the right parity class whose
+     * step stays inside the lattice. Loops over rows only, so it takes O(sideLength) time per step.
+     */
+    private long countBonds() {
+        long bonds = 0;
+        int parityMask = siteOffsets.length - 1;
+        for (int parity = 0; parity < siteOffsets.length; parity++) {
+            for (int index : forwardNeighbors[parity]) {
+                int rowStep = rowSteps[parity][index];
+                int colStep = colSteps[parity][index];
+                long layerCount = layers - Math.abs(layerSteps[parity][index]);
+                // Valid columns are [colLo, colHi]: those whose step stays inside the lattice
+                int colLo = Math.max(0, -colStep);
+                int colHi = Math.min(sideLength, sideLength - colStep) - 1;
+                for (int row = Math.max(0, -rowStep); row < Math.min(sideLength, sideLength - rowStep); row++) {
+                    if (colHi < colLo) {
+                        break;
+                    }
+                    long cols = colHi - colLo + 1;
+                    if (parityMask != 0) {
+                        // Only every other column has this parity: find the first one, then count every second
+                        int first = colLo + ((parity - row - colLo) & 1);
+                        cols = first > colHi ? 0 : (colHi - first) / 2 + 1;
+                    }
+                    bonds += cols * layerCount;
+                }
+            }
+        }
+        return bonds;
+    }
+
+    /**
+     * Helper method to validate a side length: positive, and small enough for every site number to fit in an int.
+     */
+    private static void validateSize(int n, int dimensions) {
+        long sites = n;
+        for (int d = 1; d < dimensions && n > 0; d++) {
+            sites *= n;
+        }
+        if (n <= 0 || sites > Integer.MAX_VALUE) {
+            String msg = "Invalid side length %s. Please enter a value > 0 whose %s-dimensional lattice has at most %s sites.";
+            throw new IllegalArgumentException(String.format(msg, n, dimensions, Integer.MAX_VALUE));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/******************************************************************************
+ *  Compilation:  javac LibraryUnionFind.java
+ *  Execution:    none
+ *  Dependencies: UnionFind.java WeightedQuickUnionUF.java
+ *
+ *  Adapter that exposes the algs4 WeightedQuickUnionUF through the UnionFind
+ *  interface, so it can be compared against the in-project implementation.
+ *
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+
+/**
+ * Thin wrapper around {@link WeightedQuickUnionUF}.
+ * Weighted, but no path compression, and every call is bounds-checked by the library.
+ */
+public class LibraryUnionFind implements UnionFind {
+    private final int n;
+    private WeightedQuickUnionUF unionFind;
+
+    /**
+     * Initializes n singleton sets, 0 through n-1.
+     *
+     * @param n The number of elements.
+     */
+    public LibraryUnionFind(int n) {
+        this.n = n;
+        unionFind = new WeightedQuickUnionUF(n);
+    }
+
+    @Override
+    public int find(int p) {
+        return unionFind.find(p);
+    }
+
+    @Override
+    public void union(int p, int q) {
+        unionFind.union(p, q);
+    }
+
+    @Override
+    public boolean connected(int p, int q) {
+        return unionFind.connected(p, q);
+    }
+
+    @Override
+    public int count() {
+        return unionFind.count();
+    }
+
+    /**
+     * Not supported: WeightedQuickUnionUF keeps its set sizes private.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public int size(int p) {
+        throw new UnsupportedOperationException("WeightedQuickUnionUF does not expose set sizes");
+    }
+
+    /**
+     * WeightedQuickUnionUF cannot be reset in place, so this allocates a fresh instance.
+     */
+    @Override
+    public void reset() {
+        unionFind = new WeightedQuickUnionUF(n);
+    }
+}
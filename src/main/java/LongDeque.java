@@ -0,0 +1,288 @@
+/******************************************************************************
+ *  Compilation:  javac LongDeque.java
+ *  Execution:    java -Xmx8g LongDeque n
+ *  Dependencies: Deque.java StdOut.java Stopwatch.java
+ *
+ *  Deque of long values, stored unboxed in a circular long[] buffer.
+ *  The long counterpart of IntDeque.
+ *
+ *  Running it as a program pushes n values through a LongDeque and then
+ *  through a Deque<Long> (addLast all, then removeFirst all), and prints
+ *  the time and the heap held by each when full.
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Double Ended Queue of primitive longs. Same operations and iteration order as {@link Deque}, but values
+ * are stored in a long[]: no Node and no Long per value, so 8 bytes per slot instead of about 56 bytes
+ * per value, and nothing to allocate or garbage-collect per operation.
+ * <ul>
+ *  <li>isEmpty(), size(): constant time</li>
+ *  <li>addFirst(), addLast(), removeFirst(), removeLast(): amortized constant time</li>
+ * </ul>
+ * <p>
+ * The buffer works like {@link RingBufferDeque}: power-of-two capacity with mask indexing, doubling when
+ * full and halving when a quarter full.
+ * <p>
+ * No path boxes: iterator() is a {@link PrimitiveIterator.OfLong} (use nextLong(), or forEach(LongConsumer)).
+ * That is also why LongDeque is not an Iterable: a for-each loop over it would box every value.
+ */
+public class LongDeque {
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // values[head] is the first value, values[(head + size - 1) & mask] the last
+    private long[] values;
+    private int mask;
+    private int head;
+    private int size;
+
+    /**
+     * Constructor. Initializes a 0-element Deque.
+     */
+    public LongDeque() {
+        values = new long[MIN_CAPACITY];
+        mask = MIN_CAPACITY - 1;
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * @return true if the Deque is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of elements in the deque.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Throws an exception if the deque is already empty
+     */
+    private void validateRemove() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("You cannot remove items " +
+                    "from an empty Deque");
+        }
+    }
+
+    /**
+     * Adds a value to the front of the queue.
+     * This will be the first value returned by removeFirst().
+     *
+     * @param value Any long.
+     * @throws IllegalStateException if the deque already holds the maximum 2^30 values.
+     */
+    public void addFirst(long value) {
+        if (size == values.length) {
+            resize(grownCapacity());
+        }
+        head = (head - 1) & mask;
+        values[head] = value;
+        size++;
+    }
+
+    /**
+     * Adds a value to the back of the queue.
+     * This will be the first value returned by removeLast().
+     *
+     * @param value Any long.
+     * @throws IllegalStateException if the deque already holds the maximum 2^30 values.
+     */
+    public void addLast(long value) {
+        if (size == values.length) {
+            resize(grownCapacity());
+        }
+        values[(head + size) & mask] = value;
+        size++;
+    }
+
+    /**
+     * Removes the value at the front of the deque and returns it.
+     *
+     * @return The value at the front of the deque.
+     * @throws NoSuchElementException if the deque is empty.
+     */
+    public long removeFirst() {
+        validateRemove();
+        long value = values[head];
+        head = (head + 1) & mask;
+        size--;
+        shrinkIfSparse();
+        return value;
+    }
+
+    /**
+     * Removes and returns the most recently added value from the queue.
+     * @return The most recently added value in the queue.
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public long removeLast() {
+        validateRemove();
+        long value = values[(head + size - 1) & mask];
+        size--;
+        shrinkIfSparse();
+        return value;
+    }
+
+    /**
+     * @return The number of slots in the backing array. Always a power of two.
+     */
+    int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Helper method for the capacity to grow to when the array is full.
+     *
+     * @throws IllegalStateException if the array is already as large as it can be.
+     */
+    private int grownCapacity() {
+        if (values.length == MAX_CAPACITY) {
+            throw new IllegalStateException("A LongDeque cannot hold more than " + MAX_CAPACITY + " values");
+        }
+        return values.length << 1;
+    }
+
+    /**
+     * Helper method to halve the array once it is only a quarter full.
+     */
+    private void shrinkIfSparse() {
+        if (values.length > MIN_CAPACITY && size <= values.length >>> 2) {
+            resize(values.length >>> 1);
+        }
+    }
+
+    /**
+     * Helper method to move the values into a new array of the given capacity, unwrapped so head is 0.
+     * The capacity must be a power of two, and at least size.
+     */
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        int firstRun = Math.min(size, values.length - head);
+        System.arraycopy(values, head, resized, 0, firstRun);
+        System.arraycopy(values, 0, resized, firstRun, size - firstRun);
+        values = resized;
+        mask = capacity - 1;
+        head = 0;
+    }
+
+    /**
+     * Performs the given action on every value, front to back, without boxing.
+     *
+     * @param action The action.
+     */
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(values[(head + i) & mask]);
+        }
+    }
+
+    /**
+     * Iterator over the Deque.
+     * Iterates front-to-back (FIFO) order. Call nextLong(), not next(), to avoid boxing.
+     * Supports nextLong() and hasNext(), but will throw UnsupportedOperationEx for remove().
+     *
+     * @return A primitive iterator.
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new LongDequeIterator();
+    }
+
+    private class LongDequeIterator implements PrimitiveIterator.OfLong {
+        // Position of the next value, counted from the front
+        private int index = 0;
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return values[(head + index++) & mask];
+        }
+    }
+
+    /**
+     * Main method to run this class as a command-line program.
+     * See the comments at the top of this file for more information on running this program.
+     *
+     * @param args Command-line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            StdOut.println("Please enter one argument: n (number of values)");
+            return;
+        }
+        int n = Integer.parseInt(args[0]);
+        double megabyte = 1024.0 * 1024.0;
+        Runtime runtime = Runtime.getRuntime();
+
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        Stopwatch stopwatch = new Stopwatch();
+        LongDeque primitive = new LongDeque();
+        for (int i = 0; i < n; i++) {
+            primitive.addLast(i);
+        }
+        double fillTime = stopwatch.elapsedTime();
+        System.gc();
+        long primitiveBytes = runtime.totalMemory() - runtime.freeMemory() - before;
+        stopwatch = new Stopwatch();
+        long primitiveSum = 0;
+        while (!primitive.isEmpty()) {
+            primitiveSum += primitive.removeFirst();
+        }
+        double drainTime = stopwatch.elapsedTime();
+        primitive = null;
+
+        StdOut.printf("values                  = %d \n", n);
+        StdOut.printf("LongDeque fill          = %.3f s (%.1f M values/s) \n", fillTime, n / fillTime / 1e6);
+        StdOut.printf("LongDeque drain         = %.3f s (%.1f M values/s) \n", drainTime, n / drainTime / 1e6);
+        StdOut.printf("LongDeque heap          = %.1f MB \n", primitiveBytes / megabyte);
+
+        System.gc();
+        before = runtime.totalMemory() - runtime.freeMemory();
+        stopwatch = new Stopwatch();
+        Deque<Long> boxed = new Deque<>();
+        for (int i = 0; i < n; i++) {
+            boxed.addLast((long) i);
+        }
+        fillTime = stopwatch.elapsedTime();
+        System.gc();
+        long boxedBytes = runtime.totalMemory() - runtime.freeMemory() - before;
+        stopwatch = new Stopwatch();
+        long boxedSum = 0;
+        while (!boxed.isEmpty()) {
+            boxedSum += boxed.removeFirst();
+        }
+        drainTime = stopwatch.elapsedTime();
+
+        StdOut.printf("Deque<Long> fill        = %.3f s (%.1f M values/s) \n", fillTime, n / fillTime / 1e6);
+        StdOut.printf("Deque<Long> drain       = %.3f s (%.1f M values/s) \n", drainTime, n / drainTime / 1e6);
+        StdOut.printf("Deque<Long> heap        = %.1f MB \n", boxedBytes / megabyte);
+        if (primitiveSum != boxedSum) {
+            throw new IllegalStateException("The two deques returned different values");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/******************************************************************************
+ *  Compilation:  javac PathHalvingUF.java
+ *  Execution:    none
+ *  Dependencies: UnionFind.java PercolationMetrics.java
+ *
+ *  Weighted quick-union with path halving, backed by flat primitive arrays.
+ *
+ ******************************************************************************/
+
+/**
+ * Union-Find implementation tuned for the Percolation hot path.
+ * <ul>
+ *  <li>Union by size: the smaller tree is always linked under the larger one.</li>
+ *  <li>Path halving: every node visited by find() is pointed at its grandparent,
+ *      so trees flatten as a side effect of ordinary queries.</li>
+ *  <li>No argument validation: callers own the invariant 0 <= p < n.
+ *      An out-of-range element surfaces as an ArrayIndexOutOfBoundsException.</li>
+ * </ul>
+ * Together these give near-constant amortized time (inverse Ackermann) per operation.
+ */
+public class PathHalvingUF implements UnionFind {
+    // parent[i] is the parent of element i. Roots point at themselves.
+    private final int[] parent;
+    // size[i] is the number of elements in the tree rooted at i. Only meaningful for roots.
+    private final int[] size;
+    // Number of disjoint sets
+    private int count;
+
+    /**
+     * Initializes n singleton sets, 0 through n-1.
+     *
+     * @param n The number of elements.
+     * @throws IllegalArgumentException if n is negative.
+     */
+    public PathHalvingUF(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of elements must be non-negative: " + n);
+        }
+        parent = new int[n];
+        size = new int[n];
+        reset();
+    }
+
+    /**
+     * Resets to n singleton sets in place, in O(n) time and without allocating.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        count = parent.length;
+    }
+
+    @Override
+    public int find(int p) {
+        if (PercolationMetrics.ENABLED) {
+            return countedFind(p);
+        }
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];  // Path halving: skip to grandparent
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * Helper method for find() with PercolationMetrics on: same as find(), but records the path length.
+     * Kept out of find() so that find() stays small enough to inline when metrics are off.
+     */
+    private int countedFind(int p) {
+        int links = 0;
+        while (p != parent[p]) {
+            int up = parent[p];
+            links += up == parent[up] ? 1 : 2;  // Each step skips to the grandparent, unless the parent is the root
+            parent[p] = parent[up];
+            p = parent[p];
+        }
+        PercolationMetrics.recordFind(links);
+        return p;
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+        unionRoots(rootP, rootQ);
+    }
+
+    /**
+     * Links the smaller tree under the larger one directly: no find(), so nothing is recorded in
+     * PercolationMetrics for roots the caller already had.
+     */
+    @Override
+    public int unionRoots(int rootP, int rootQ) {
+        count--;
+        if (size[rootP] < size[rootQ]) {
+            parent[rootP] = rootQ;
+            size[rootQ] += size[rootP];
+            return rootQ;
+        }
+        parent[rootQ] = rootP;
+        size[rootP] += size[rootQ];
+        return rootP;
+    }
+
+    @Override
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public int size(int p) {
+        return size[find(p)];
+    }
+}
@@ -1,66 +1,114 @@
 /******************************************************************************
- *  Compilation:  javac PercolationStats.java
- *  Execution:    java Percolation.java
- *  Dependencies: WeightedQuickUnionUF.java
+ *  Compilation:  javac Percolation.java
+ *  Execution:    java Percolation n [--lattice=square|triangular|honeycomb|cubic] [--library-uf]
+ *  Dependencies: Lattice.java SpanningClusters.java PercolationSystem.java PercolationMetrics.java StdOut.java
  *
  *  This file contains the Percolation class, which you can use to run
- *  Monte-Carlo simulations
+ *  Monte-Carlo simulations on any Lattice (an n-by-n square grid by default).
+ *
+ *  Running it as a program allocates a lattice with side n and reports its
+ *  memory footprint (estimated from the array layout, and measured on the heap).
  ******************************************************************************/
 
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import edu.princeton.cs.algs4.StdOut;
 
-public class Percolation {
-    // Union-Find hidden nodes, used to optimize union-find performance
-    private final int topHiddenNode;
-    private final int bottomHiddenNode;
+import java.util.Arrays;
+import java.util.BitSet;
 
+public class Percolation implements PercolationSystem {
     // Running total of number of open sites
     private int numberOfOpenSites;
+    // Topology: site numbering, neighbors, and which sites form the top and bottom rows
+    private final Lattice lattice;
     // Length of each side in the grid
     private final int sideLength;
-    // Open/Closed grid. A site (x, y) is open if grid[x-1][y-1] == true.
-    private final boolean[][] grid;
-
-    // UnionFind object to check if the grid percolates
-    private final WeightedQuickUnionUF percolationUnionFind;
-
-    // UnionFInd object to check if the grid is full
-    private final WeightedQuickUnionUF fullnessUnionFind;
+    // Site numbers below this are on the top row; site numbers at or above bottomRowStart are on the bottom row
+    private final int topRowEnd;
+    private final int bottomRowStart;
+    // Scratch buffer for Lattice#neighbors(), reused on every open()
+    private final int[] neighborBuffer;
+    // Open/Closed grid as a flat bitset: one bit per site, 64 sites per long.
+    // Site (row, col) is open if bit convertSiteToUnionFindNode(row, col) is set.
+    private final long[] grid;
+
+    // Clusters of open sites over a single union-find, each tagged with whether it touches the top or bottom row.
+    // There are no hidden top/bottom nodes, so there is no backwash.
+    private final SpanningClusters clusters;
 
     /**
      * Construct a new Percolation instance, which represents an n-by-n grid .
+     * Uses the in-project {@link PathHalvingUF} union-find engine.
      *
      * @param sideLength: The side length of the grid.
      * @throws IllegalArgumentException if the sideLength <= 0.
      */
     public Percolation(int sideLength) {
-        validateConstructor(sideLength);
+        this(sideLength, false);
+    }
+
+    /**
+     * Construct a new Percolation instance, which represents an n-by-n grid .
+     *
+     * @param sideLength: The side length of the grid.
+     * @param useLibraryUnionFind: If true, use the algs4 WeightedQuickUnionUF (via {@link LibraryUnionFind})
+     *                           instead of {@link PathHalvingUF}. Useful for comparing the two engines.
+     * @throws IllegalArgumentException if the sideLength <= 0.
+     */
+    public Percolation(int sideLength, boolean useLibraryUnionFind) {
+        this(Lattice.square(sideLength), useLibraryUnionFind);
+    }
+
+    /**
+     * Construct a new Percolation instance over the given lattice, with every site closed.
+     * Uses the in-project {@link PathHalvingUF} union-find engine.
+     * The (row, col) methods are only available on 2D lattices. Use the 0-based site methods on any lattice.
+     *
+     * @param lattice: The lattice topology.
+     */
+    public Percolation(Lattice lattice) {
+        this(lattice, false);
+    }
+
+    /**
+     * Construct a new Percolation instance over the given lattice, with every site closed.
+     *
+     * @param lattice: The lattice topology.
+     * @param useLibraryUnionFind: If true, use the algs4 WeightedQuickUnionUF (via {@link LibraryUnionFind})
+     *                           instead of {@link PathHalvingUF}.
+     */
+    public Percolation(Lattice lattice, boolean useLibraryUnionFind) {
+        if (lattice == null) {
+            throw new IllegalArgumentException("Lattice cannot be null");
+        }
 
         // Initialize instance variables
         numberOfOpenSites = 0;
-        this.sideLength = sideLength;
-
-        // Initialize the grid. Since this is a boolean[][],
-        // all entries should be initialized to false.
-        // Initialization will take O(n^2) time.
-        grid = new boolean[sideLength][sideLength];
-
-        // Initialize the UnionFind data structure that determines whether a given node is empty or full
-        int numberOfSites = sideLength * sideLength;
-        topHiddenNode = numberOfSites;
-        bottomHiddenNode = numberOfSites + 1;
-        percolationUnionFind = new WeightedQuickUnionUF(numberOfSites + 2);
-        fullnessUnionFind = new WeightedQuickUnionUF(numberOfSites + 1);
-
-        // Union all sites on top row with TOP_HIDDEN_NODE
-        // Union all sites on bottom row with BOTTOM_HIDDEN_NODE
-        int topRow = 1;
-        int bottomRow = sideLength;
-        for (int col = 1; col <= sideLength; col++) {
-            fullnessUnionFind.union(topHiddenNode, convertSiteToUnionFindNode(topRow, col));
-            percolationUnionFind.union(topHiddenNode, convertSiteToUnionFindNode(topRow, col));
-            percolationUnionFind.union(bottomHiddenNode, convertSiteToUnionFindNode(bottomRow, col));
-        }
+        this.lattice = lattice;
+        this.sideLength = lattice.sideLength();
+        int numberOfSites = lattice.numberOfSites();
+        topRowEnd = lattice.sitesPerRow();
+        bottomRowStart = numberOfSites - lattice.sitesPerRow();
+        neighborBuffer = new int[lattice.maxDegree()];
+
+        // Initialize the grid. Since this is a long[] bitset,
+        // all bits are initialized to 0 (closed).
+        // Initialization will take O(n^2 / 64) time.
+        grid = new long[wordsForBits(numberOfSites)];
+
+        // Initialize the clusters. Flags start at 0: a site only picks up its top/bottom flag once it is opened.
+        clusters = new SpanningClusters(numberOfSites, useLibraryUnionFind);
+    }
+
+    /**
+     * Closes every site, returning this instance to the state of a freshly constructed one.
+     * Runs in O(number of sites) time and allocates nothing (unless running on the algs4 union-find), so a single
+     * instance can be reused across many Monte Carlo trials.
+     */
+    @Override
+    public void reset() {
+        Arrays.fill(grid, 0L);
+        clusters.reset();
+        numberOfOpenSites = 0;
     }
 
     /**
@@ -75,42 +123,100 @@ public class Percolation {
     public void open(int row, int col) {
         // Check inputs
         validateArguments(row, col);
+        openSite(convertSiteToUnionFindNode(row, col));
+    }
 
+    /**
+     * Open the site with the given 0-based site number (see {@link Lattice} for the numbering).
+     * Works on any lattice.
+     *
+     * @param site 0-based site number.
+     * @throws IllegalArgumentException if site is not between 0 and the number of sites - 1.
+     */
+    public void open(int site) {
+        validateSite(site);
+        openSite(site);
+    }
+
+    /**
+     * Open the site with the given 0-based site number (see convertSiteToUnionFindNode()).
+     * Does no bounds checking: this is the unchecked fast path for callers such as PercolationStats that
+     * generate site numbers themselves, so all callers must guarantee 0 <= site < number of sites.
+     *
+     * @param site 0-based site number.
+     * @return True if the site was closed and has now been opened, false if it was already open.
+     */
+    boolean openSite(int site) {
         // If the site is already open, do nothing
-        if (isOpen(row, col)) {
-            return;
+        if (isSiteOpen(site)) {
+            if (PercolationMetrics.ENABLED) {
+                PercolationMetrics.recordOpen(false);
+            }
+            return false;
+        }
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.recordOpen(true);
         }
 
         // Open the given site
         numberOfOpenSites++;
-        grid[row - 1][col - 1] = true;
+        grid[site >>> 6] |= 1L << site;
 
-        // Connect the site with its neighbors (we can perhaps refactor this method for readability).
-        connectSiteToNeighbors(row, col);
+        // Connect the site with its neighbors
+        connectSiteToNeighbors(site);
+        return true;
     }
 
-    private void connectSiteToNeighbors(int row, int col) {
-        int sourceNode = convertSiteToUnionFindNode(row, col);
+    /**
+     * Returns the number of sites in the cluster containing the given site.
+     * A closed site is always a cluster of one. Does no bounds checking.
+     *
+     * @param site 0-based site number.
+     * @return The cluster size.
+     * @throws UnsupportedOperationException if this instance runs on the algs4 union-find.
+     */
+    int clusterSize(int site) {
+        return clusters.size(site);
+    }
 
-        // Connect to each neighbor (left, right, top, bottom)
-        for (Neighbor neighbor : Neighbor.values()) {
-            // Row and column for this particular neighbor
-            int neighborRow = neighbor.getRow(row);
-            int neighborCol = neighbor.getCol(col);
+    /**
+     * Helper method to read a site's bit in the grid. Does no bounds checking.
+     *
+     * @param site 0-based site number.
+     * @return True if the site is open.
+     */
+    private boolean isSiteOpen(int site) {
+        return (grid[site >>> 6] & (1L << site)) != 0;  // Shifts on long only use the low 6 bits of site
+    }
 
-            // Guard clauses: If the source node is at an edge or the neighbor is closed, do not connect
-            if (!neighbor.isValidSite(sideLength, row, col)) {
-                continue;
-            }
-            if (!isOpen(neighborRow, neighborCol)) {
-                continue;
-            }
+    private void connectSiteToNeighbors(int site) {
+        // A newly opened site is still a singleton cluster: tag it with its own position first
+        byte flags = 0;
+        if (site < topRowEnd) {
+            flags |= SpanningClusters.CONNECTED_TO_TOP;
+        }
+        if (site >= bottomRowStart) {
+            flags |= SpanningClusters.CONNECTED_TO_BOTTOM;
+        }
+        if (flags != 0) {
+            clusters.addFlags(site, flags);
+        }
 
-            // No need to check if the source node is already connected to its neighbors, as WeightedQuickUF#union()
-            // already does it for us.
-            int neighborNode = convertSiteToUnionFindNode(neighborRow, neighborCol);
-            fullnessUnionFind.union(sourceNode, neighborNode);
-            percolationUnionFind.union(sourceNode, neighborNode);
+        // Connect to each open neighbor. The lattice has already dropped neighbors beyond the edges.
+        // No need to check if the site is already connected to a neighbor, as SpanningClusters#union()
+        // already does it for us.
+        int[] neighbors = neighborBuffer;
+        int degree = lattice.neighbors(site, neighbors);
+        int openNeighbors = 0;
+        for (int i = 0; i < degree; i++) {
+            int neighborNode = neighbors[i];
+            if (isSiteOpen(neighborNode)) {
+                clusters.union(site, neighborNode);
+                openNeighbors++;
+            }
+        }
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.recordNeighbors(degree, openNeighbors);
         }
     }
 
@@ -123,7 +229,7 @@ public class Percolation {
      */
     public boolean isOpen(int row, int col) {
         validateArguments(row, col);
-        return grid[row - 1][col - 1];
+        return isSiteOpen(convertSiteToUnionFindNode(row, col));
     }
 
     /**
@@ -133,10 +239,79 @@ public class Percolation {
      */
     public boolean isFull(int row, int col) {
         validateArguments(row, col);
-        if (!isOpen(row, col)) {
-            return false;
+        return isSiteFull(convertSiteToUnionFindNode(row, col));
+    }
+
+    /**
+     * Determines whether the site with the given 0-based site number is open. Works on any lattice.
+     *
+     * @param site 0-based site number.
+     * @return True if the given site is open.
+     * @throws IllegalArgumentException if site is not between 0 and the number of sites - 1.
+     */
+    public boolean isOpen(int site) {
+        validateSite(site);
+        return isSiteOpen(site);
+    }
+
+    /**
+     * Determines whether the site with the given 0-based site number is full. Works on any lattice.
+     *
+     * @param site 0-based site number.
+     * @return True iff the given site is open AND is connected to any site on the top row.
+     * @throws IllegalArgumentException if site is not between 0 and the number of sites - 1.
+     */
+    public boolean isFull(int site) {
+        validateSite(site);
+        return isSiteFull(site);
+    }
+
+    /**
+     * Helper method to determine whether a site is full. Does no bounds checking.
+     */
+    private boolean isSiteFull(int site) {
+        return isSiteOpen(site) && clusters.isConnectedToTop(site);
+    }
+
+    /**
+     * Captures the open and full state of every site in one pass, for callers that need the whole grid at
+     * once (e.g. to draw it). Much cheaper than calling isOpen() and isFull() site by site: closed sites are
+     * skipped a 64-bit word at a time, and each run of consecutive open sites along a row shares a single
+     * cluster lookup (every lattice links site - 1 to site, except at the start of a row).
+     * <p>
+     * The snapshot is a copy: opening more sites later does not change it.
+     *
+     * @return The current state of every site.
+     */
+    public Snapshot snapshot() {
+        long[] open = grid.clone();
+        long[] full = new long[grid.length];
+        int previousOpen = -2;
+        boolean previousFull = false;
+        for (int word = 0; word < open.length; word++) {
+            long bits = open[word];
+            while (bits != 0) {
+                int site = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                boolean siteFull = site == previousOpen + 1 && site % sideLength != 0
+                        ? previousFull
+                        : clusters.isConnectedToTop(site);
+                if (siteFull) {
+                    full[word] |= 1L << site;
+                }
+                previousOpen = site;
+                previousFull = siteFull;
+            }
         }
-        return fullnessUnionFind.connected(topHiddenNode, convertSiteToUnionFindNode(row, col));
+        return new Snapshot(lattice, open, full, numberOfOpenSites, percolates());
+    }
+
+    /**
+     * @return The lattice this system is built on.
+     */
+    public Lattice lattice() {
+        return lattice;
     }
 
     /**
@@ -153,13 +328,34 @@ public class Percolation {
      *
      * @return True if any of the sites on the bottom row are connected to any of the sites on the top row.
      */
+    @Override
     public boolean percolates() {
-        // Deal with wonky situation when we have a 1x1 grid
-        if (sideLength == 1) {
-            return isOpen(1, 1);
-        }
+        // Cached in SpanningClusters: O(1), and correct for the 1x1 grid as its only site is on both rows.
+        return clusters.percolates();
+    }
 
-        return percolationUnionFind.connected(topHiddenNode, bottomHiddenNode);
+    @Override
+    public int numberOfElements() {
+        return lattice.numberOfSites();
+    }
+
+    @Override
+    public int elementIndexLimit() {
+        return lattice.numberOfSites();
+    }
+
+    /**
+     * Same as {@link #open(int)}: the elements of site percolation are the sites.
+     */
+    @Override
+    public boolean openElement(int index) {
+        validateSite(index);
+        return openSite(index);
+    }
+
+    @Override
+    public int numberOfOpenElements() {
+        return numberOfOpenSites;
     }
 
     /**
@@ -173,28 +369,60 @@ public class Percolation {
      * convertSiteToUnionFindNode(1, 1) -> 0
      * convertSiteToUnionFindNode(2, 1) -> 3
      * convertSiteToUnionFindNode(2, 3) -> 5
+     * <p>
+     * Does no bounds checking: callers must call validateArguments() first.
      *
      * @param row 1-based row number (Top row is 1, bottom row is sideLength)
      * @param col 1-based column number (Leftmost column is 1, rightmost column is sideLength)
      * @return The 0=based node number in the UnionFind data structure.
      */
     private int convertSiteToUnionFindNode(int row, int col) {
-        validateArguments(row, col);
         int zeroIndexedRow = row - 1;
         int zeroIndexedCol = col - 1;
         return (sideLength * zeroIndexedRow) + zeroIndexedCol;
     }
 
     /**
-     * Helper method to validate constructor arguments.
+     * Helper method to size a bitset.
+     *
+     * @param bits Number of bits to store.
+     * @return Number of longs needed to hold that many bits.
+     */
+    private static int wordsForBits(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Helper method to estimate the heap footprint of a Percolation instance.
+     * Counts the backing arrays only (16-byte array headers, ignoring object headers and alignment):
+     * the bitset grid (1 bit per site), the union-find parent and size arrays (4 + 4 bytes per site)
+     * and the root flags (1 byte per site).
+     *
+     * @param sites The number of sites in the lattice.
+     * @return Estimated number of bytes.
+     */
+    private static long estimatedMemoryUsage(long sites) {
+        long arrayHeader = 16;
+        long gridBytes = arrayHeader + 8L * ((sites + 63) / 64);
+        long unionFindBytes = 2 * (arrayHeader + 4L * sites);
+        long flagBytes = arrayHeader + sites;
+        return gridBytes + unionFindBytes + flagBytes;
+    }
+
+    /**
+     * Helper method to validate a 0-based site number.
      *
-     * @param n The length of each side in the grid.
-     * @throws IllegalArgumentException if sideLength is less than 0.
+     * @param site A site number
+     * @throws IllegalArgumentException if site is negative, or not less than the number of sites.
      */
-    private void validateConstructor(int n) {
-        if (n <= 0) {
-            String msg = "Invalid side length %s. Please enter a value > 0.";
-            throw new IllegalArgumentException(String.format(msg, n));
+    private void validateSite(int site) {
+        long start = PercolationMetrics.ENABLED ? System.nanoTime() : 0L;
+        if (site < 0 || site >= lattice.numberOfSites()) {
+            String errorMessage = "Site %s is not a valid site. Site must be between 0 and %s.";
+            throw new IllegalArgumentException(String.format(errorMessage, site, lattice.numberOfSites() - 1));
+        }
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.recordValidation(start);
         }
     }
 
@@ -204,148 +432,140 @@ public class Percolation {
      * @param row A row number
      * @param col A column number
      * @throws IllegalArgumentException if row or col is 0, or if row or col is greater than sideLength.
+     * @throws UnsupportedOperationException if the lattice is not two-dimensional.
      */
     private void validateArguments(int row, int col) {
+        long start = PercolationMetrics.ENABLED ? System.nanoTime() : 0L;
+        if (lattice.dimensions() != 2) {
+            throw new UnsupportedOperationException("Row and column addressing needs a 2D lattice, not " + lattice);
+        }
         if (row <= 0 || col <= 0 || row > sideLength || col > sideLength) {
             String errorMessage = "Site (%s, %s) is not a valid site. " +
                     "Row and col must each be greater than 0 and less than or equal to %s.";
             throw new IllegalArgumentException(String.format(errorMessage, row, col, sideLength));
         }
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.recordValidation(start);
+        }
     }
 
     /**
-     * Helper class to calculate a site's neighbors.
-     * Each site has 4 possible neighbors: Top, Bottom, Left, and Right.
-     * A given site can have 0-4 neighbors, depending on the size of the grid and its location within the grid.
-     * You can check if a site has a valid neighbor by calling:
-     * <code>
-     * int sideLength = 10;
-     * Neighbor.TOP.isValidSite(sideLength, 1, 1); // --> Should return false, because this site is on the top row.
-     * Neighbor.RIGHT.isValidSite(sideLength, 1, 1); // -> Should return true, because this site has a rhs neighbor.
-     * </code>
+     * Main method to run this class as a command-line program.
+     * Allocates a lattice with side n and prints its estimated and measured memory footprint.
+     *
+     * @param args Command-line arguments: n, and optionally --lattice=name and --library-uf.
      */
-    private enum Neighbor {
-        TOP {
-            @Override
-            public boolean isValidSite(int n, int sourceRow, int sourceCol) {
-                return sourceRow > 1; // Sites on the top row have no top neighbors
-            }
-
-            @Override
-            public int getRow(int sourceRow) {
-                // Return the site on the row above
-                return sourceRow - 1;
-            }
-
-            @Override
-            public int getCol(int sourceCol) {
-                // column doesn't change
-                return sourceCol;
-            }
-        },
-        BOTTOM {
-            @Override
-            public boolean isValidSite(int n, int sourceRow, int sourceCol) {
-                // Sites already on the bottom row have no bottom neighbors
-                return sourceRow < n;
-            }
-
-            @Override
-            public int getRow(int sourceRow) {
-                // Return the row below
-                return sourceRow + 1;
-            }
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            StdOut.println("Please enter one argument: n (side length of the grid)");
+            return;
+        }
 
-            @Override
-            public int getCol(int sourceCol) {
-                // Column doesn't change
-                return sourceCol;
-            }
-        },
-        LEFT {
-            @Override
-            public boolean isValidSite(int n, int sourceRow, int sourceCol) {
-                // Sites already on the leftmost column have no neighbors to the left
-                return sourceCol > 1;
+        int sideLength = Integer.parseInt(args[0]);
+        boolean useLibraryUnionFind = false;
+        String latticeName = "square";
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--library-uf")) {
+                useLibraryUnionFind = true;
+            } else if (args[i].startsWith("--lattice=")) {
+                latticeName = args[i].substring("--lattice=".length());
             }
+        }
+        Lattice lattice = Lattice.of(latticeName, sideLength);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        Percolation percolation = new Percolation(lattice, useLibraryUnionFind);
+        System.gc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+
+        double megabyte = 1024.0 * 1024.0;
+        StdOut.printf("lattice                 = %s \n", lattice);
+        StdOut.printf("sites                   = %d \n", lattice.numberOfSites());
+        StdOut.printf("estimated footprint     = %.1f MB \n", estimatedMemoryUsage(lattice.numberOfSites()) / megabyte);
+        StdOut.printf("measured heap delta     = %.1f MB \n", (after - before) / megabyte);
+        StdOut.printf("open sites              = %d \n", percolation.numberOfOpenSites());
+    }
 
-            @Override
-            public int getRow(int sourceRow) {
-                // Row does not change
-                return sourceRow;
-            }
+    /**
+     * Immutable open/full state of every site of a Percolation system, as returned by {@link #snapshot()}.
+     */
+    public static final class Snapshot {
+        private final Lattice lattice;
+        private final long[] open;
+        private final long[] full;
+        private final int numberOfOpenSites;
+        private final boolean percolates;
+
+        private Snapshot(Lattice lattice, long[] open, long[] full, int numberOfOpenSites, boolean percolates) {
+            this.lattice = lattice;
+            this.open = open;
+            this.full = full;
+            this.numberOfOpenSites = numberOfOpenSites;
+            this.percolates = percolates;
+        }
 
-            @Override
-            public int getCol(int sourceCol) {
-                // Return one column to the left
-                return sourceCol - 1;
-            }
-        },
+        /**
+         * @param site 0-based site number.
+         * @return True if the site was open.
+         * @throws IllegalArgumentException if site is not between 0 and the number of sites - 1.
+         */
+        public boolean isOpen(int site) {
+            validateSnapshotSite(site);
+            return (open[site >>> 6] & (1L << site)) != 0;
+        }
 
-        RIGHT {
-            @Override
-            public boolean isValidSite(int n, int sourceRow, int sourceCol) {
-                // Sites already on the rightmost column have no neighbors to the right
-                return sourceCol < n;
-            }
+        /**
+         * @param site 0-based site number.
+         * @return True if the site was full (open, and connected to the top row).
+         * @throws IllegalArgumentException if site is not between 0 and the number of sites - 1.
+         */
+        public boolean isFull(int site) {
+            validateSnapshotSite(site);
+            return (full[site >>> 6] & (1L << site)) != 0;
+        }
 
-            @Override
-            public int getRow(int sourceRow) {
-                // Row does not change
-                return sourceRow;
-            }
+        /**
+         * @return A new BitSet with bit s set iff site s was open.
+         */
+        public BitSet openSites() {
+            return BitSet.valueOf(open);
+        }
 
-            @Override
-            public int getCol(int sourceCol) {
-                // Return one column to the right
-                return sourceCol + 1;
-            }
-        };
+        /**
+         * @return A new BitSet with bit s set iff site s was full. Always a subset of openSites().
+         */
+        public BitSet fullSites() {
+            return BitSet.valueOf(full);
+        }
 
         /**
-         * Given a source site (row and column), determines if this is a valid neighbor.
-         * If a site is on the topmost row, it has no neighbor to the top.
-         * If a site is on the bottom-most row, it has no neighbor to bottom.
-         * If a site is on the leftmost row, it has no neighbor to the left.
-         * If a site is on the rightmost row, it has no neighbor to the right.
-         * <p>
-         * To get valid data from this class, the following invariants must hold:
-         * <ul>
-         * <li>sideLength > 0</li>
-         * <li>0 < row <= sideLength</li>
-         * <li>0 < col <= sideLength</li>
-         * </ul>
-         * <p>
-         * If you are using this class as part of the Percolation class, you should call Percolation#validateArguments()
-         * before calling any of these methods.
-         *
-         * @param n The side length for the Percolation grid (nxn grid).
-         * @param sourceRow  The 1-based row number of the source site.
-         * @param sourceCol  The 1-based column number of the destination site.
-         * @return True if this is a valid neighbor.
+         * @return The number of open sites.
          */
-        public boolean isValidSite(int n, int sourceRow, int sourceCol) {
-            return false;
+        public int numberOfOpenSites() {
+            return numberOfOpenSites;
         }
 
         /**
-         * Returns the row for this neighbor.
-         * Does no bounds checking, so all callers much check if this a valid site by first calling isValidSite() for a
-         * given row, column, and grid size.
-         *
-         * @param sourceRow The 1-indexed row number representing the source site's row.
-         * @return The 1-indexed row number representing the neighbor site's row.
+         * @return True if the system percolated.
          */
-        public int getRow(int sourceRow) { return -1; }
+        public boolean percolates() {
+            return percolates;
+        }
 
         /**
-         * Returns the column for this neighbor.
-         * Does no bounds checking, so all callers much check if this a valid site by first calling isValidSite() for a
-         * given row, column, and grid size.
-         *
-         * @param sourceCol The 1-indexed column number representing the source site's column.
-         * @return The 1-indexed column number representing the neighbor site's column.
+         * @return The lattice of the system.
          */
-        public int getCol(int sourceCol) { return -1; }
+        public Lattice lattice() {
+            return lattice;
+        }
+
+        private void validateSnapshotSite(int site) {
+            if (site < 0 || site >= lattice.numberOfSites()) {
+                String errorMessage = "Site %s is not a valid site. Site must be between 0 and %s.";
+                throw new IllegalArgumentException(String.format(errorMessage, site, lattice.numberOfSites() - 1));
+            }
+        }
     }
 }
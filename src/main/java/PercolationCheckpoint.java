@@ -0,0 +1,314 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationCheckpoint.java
+ *  Execution:    java PercolationCheckpoint checkpoint1 [checkpoint2 ...]
+ *  Dependencies: PercolationStats.java Lattice.java StdOut.java
+ *
+ *  Append-only binary checkpoint of PercolationStats trial results, so that
+ *  long runs can resume after the JVM dies, and so that runs from several
+ *  processes can be merged into one report.
+ *
+ *  File layout (big-endian, as written by DataOutputStream):
+ *    header:  int     magic     0x50434B50 ("PCKP")
+ *             int     version   1
+ *             UTF     lattice name
+ *             int     lattice side length
+ *             UTF     model     (SITE or BOND)
+ *             UTF     sampling  (REJECTION or PERMUTATION)
+ *             long    master seed
+ *    records: int     trial number
+ *             double  threshold
+ *
+ *  Trial i always draws from PercolationStats.trialSeed(seed, i), so the
+ *  master seed is the whole RNG state: a resumed run reruns exactly the
+ *  trials that are missing, and gets exactly the results it would have got.
+ *
+ *  Running it as a program merges the given checkpoint files and prints the
+ *  mean, standard deviation and 95% confidence interval over all their trials.
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+
+public final class PercolationCheckpoint implements Closeable {
+    static final int MAGIC = 0x50434B50;
+    static final int VERSION = 1;
+    /* int trial + double threshold */
+    static final int RECORD_BYTES = 12;
+
+    private final Path file;
+    private final Lattice lattice;
+    private final PercolationStats.Model model;
+    private final PercolationStats.Sampling sampling;
+    private final long seed;
+
+    /* Complete records read from the file when it was opened, in file order */
+    private final int[] trials;
+    private final double[] thresholds;
+
+    /* Open for appending, or null if this checkpoint was loaded read-only */
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+
+    private PercolationCheckpoint(Path file, Lattice lattice, PercolationStats.Model model,
+                                  PercolationStats.Sampling sampling, long seed, int[] trials, double[] thresholds,
+                                  FileChannel channel) {
+        this.file = file;
+        this.lattice = lattice;
+        this.model = model;
+        this.sampling = sampling;
+        this.seed = seed;
+        this.trials = trials;
+        this.thresholds = thresholds;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a checkpoint for appending. Creates the file (with its header) if it does not exist or is empty.
+     * Otherwise reads back the trials it already holds, and truncates any partial record left at the end
+     * by a run that died mid-write.
+     *
+     * @param file     The checkpoint file.
+     * @param lattice  The lattice of the run.
+     * @param model    The model of the run.
+     * @param sampling The sampling of the run.
+     * @param seed     The master seed of the run.
+     * @return The checkpoint, positioned at its end.
+     * @throws IllegalArgumentException if the file was written by a run with a different configuration.
+     * @throws IOException              if the file cannot be read or written, or is not a checkpoint.
+     */
+    public static PercolationCheckpoint openForAppend(Path file, Lattice lattice, PercolationStats.Model model,
+                                                      PercolationStats.Sampling sampling, long seed)
+            throws IOException {
+        if (lattice == null || model == null || sampling == null) {
+            throw new IllegalArgumentException("Lattice, model and sampling cannot be null");
+        }
+        byte[] header = header(lattice, model, sampling, seed);
+
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            writeFully(channel, ByteBuffer.wrap(header));
+            return new PercolationCheckpoint(file, lattice, model, sampling, seed, new int[0], new double[0], channel);
+        }
+
+        PercolationCheckpoint existing = load(file);
+        if (!Arrays.equals(header, header(existing.lattice, existing.model, existing.sampling, existing.seed))) {
+            String errorMessage = "Checkpoint %s was written by a different run (%s, %s, %s, seed %s), not (%s, %s, %s, seed %s).";
+            throw new IllegalArgumentException(String.format(errorMessage, file,
+                    existing.lattice, existing.model, existing.sampling, existing.seed,
+                    lattice, model, sampling, seed));
+        }
+
+        // Drop a partial record at the end, then append after the last complete one
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        long validLength = header.length + (long) RECORD_BYTES * existing.trials.length;
+        channel.truncate(validLength);
+        channel.position(validLength);
+        return new PercolationCheckpoint(file, lattice, model, sampling, seed, existing.trials, existing.thresholds,
+                channel);
+    }
+
+    /**
+     * Reads a checkpoint file without opening it for writing. A partial record at the end is ignored.
+     *
+     * @param file The checkpoint file.
+     * @return The checkpoint.
+     * @throws IOException if the file cannot be read or is not a checkpoint.
+     */
+    public static PercolationCheckpoint load(Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a percolation checkpoint");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported checkpoint version " + version);
+            }
+            Lattice lattice = Lattice.of(in.readUTF(), in.readInt());
+            PercolationStats.Model model = PercolationStats.Model.valueOf(in.readUTF());
+            PercolationStats.Sampling sampling = PercolationStats.Sampling.valueOf(in.readUTF());
+            long seed = in.readLong();
+
+            long recordBytes = Files.size(file) - header(lattice, model, sampling, seed).length;
+            int records = (int) Math.max(0, recordBytes / RECORD_BYTES);
+            int[] trials = new int[records];
+            double[] thresholds = new double[records];
+            for (int i = 0; i < records; i++) {
+                trials[i] = in.readInt();
+                thresholds[i] = in.readDouble();
+            }
+            return new PercolationCheckpoint(file, lattice, model, sampling, seed, trials, thresholds, null);
+        } catch (EOFException e) {
+            throw new IOException(file + " has a truncated checkpoint header", e);
+        }
+    }
+
+    /**
+     * Appends one trial result and hands it to the operating system, so it survives the JVM dying.
+     * Safe to call from several threads.
+     *
+     * @param trial     The trial number.
+     * @param threshold The trial's threshold.
+     * @throws IOException           if writing fails.
+     * @throws IllegalStateException if this checkpoint was loaded read-only.
+     */
+    public synchronized void append(int trial, double threshold) throws IOException {
+        if (channel == null) {
+            throw new IllegalStateException("Checkpoint " + file + " was loaded read-only");
+        }
+        record.clear();
+        record.putInt(trial).putDouble(threshold).flip();
+        writeFully(channel, record);
+    }
+
+    /**
+     * Copies the results of the recorded trials numbered below results.length into results, and marks them in
+     * completed. Records for trials outside that range are ignored.
+     *
+     * @param results   Per-trial results, indexed by trial number.
+     * @param completed Set of trial numbers with a recorded result.
+     */
+    void copyCompleted(double[] results, BitSet completed) {
+        for (int i = 0; i < trials.length; i++) {
+            int trial = trials[i];
+            if (trial >= 0 && trial < results.length) {
+                results[trial] = thresholds[i];
+                completed.set(trial);
+            }
+        }
+    }
+
+    /**
+     * @return The number of complete records in the file when it was opened.
+     */
+    public int numberOfRecords() {
+        return trials.length;
+    }
+
+    /**
+     * @param i A record index, between 0 and numberOfRecords() - 1.
+     * @return The trial number of the i-th record.
+     */
+    public int trial(int i) {
+        return trials[i];
+    }
+
+    /**
+     * @param i A record index, between 0 and numberOfRecords() - 1.
+     * @return The threshold of the i-th record.
+     */
+    public double threshold(int i) {
+        return thresholds[i];
+    }
+
+    /**
+     * @return The lattice of the run that wrote this checkpoint.
+     */
+    public Lattice lattice() {
+        return lattice;
+    }
+
+    /**
+     * @return The model of the run that wrote this checkpoint.
+     */
+    public PercolationStats.Model model() {
+        return model;
+    }
+
+    /**
+     * @return The sampling of the run that wrote this checkpoint.
+     */
+    public PercolationStats.Sampling sampling() {
+        return sampling;
+    }
+
+    /**
+     * @return The master seed of the run that wrote this checkpoint.
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return The checkpoint file.
+     */
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Helper method to serialize a header.
+     */
+    private static byte[] header(Lattice lattice, PercolationStats.Model model, PercolationStats.Sampling sampling,
+                                 long seed) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(lattice.name());
+        out.writeInt(lattice.sideLength());
+        out.writeUTF(model.name());
+        out.writeUTF(sampling.name());
+        out.writeLong(seed);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Helper method to write a whole buffer: a single FileChannel#write() may write only part of it.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Main method to run this class as a command-line program.
+     * See the comments at the top of this file for more information on running this program.
+     *
+     * @param args Command-line arguments: one or more checkpoint files.
+     * @throws IOException if a checkpoint cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            StdOut.println("Please enter one or more checkpoint files to merge");
+            return;
+        }
+
+        Path[] files = new Path[args.length];
+        for (int i = 0; i < args.length; i++) {
+            files[i] = Paths.get(args[i]);
+        }
+        PercolationStats stats = PercolationStats.fromCheckpoints(files);
+
+        StdOut.printf("mean                    = %f \n", stats.mean());
+        StdOut.printf("stddev                  = %f \n", stats.stddev());
+        StdOut.printf("95%% confidence interval = [%f , %f] \n", stats.confidenceLo(), stats.confidenceHi());
+        StdOut.printf("trials                  = %d \n", stats.trials());
+        StdOut.printf("checkpoints             = %d \n", files.length);
+    }
+}
@@ -0,0 +1,369 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationCurve.java
+ *  Execution:    java PercolationCurve n T [points] [--seed=S] [--lattice=L]
+ *  Dependencies: Percolation.java Lattice.java PercolationStats.java StdOut.java
+ *
+ *  Newman-Ziff estimate of the whole percolation curve of an n-by-n grid
+ *  (or of any other Lattice).
+ *
+ *  Each trial opens ALL N sites in a uniformly random order and records,
+ *  after every single opening, whether the grid spans top to bottom and how
+ *  large the largest cluster is. Averaging over trials gives these statistics
+ *  as a function of the number k of open sites. Convolving with the binomial
+ *  distribution then gives them as a function of the occupation probability
+ *  p, for every p at once:
+ *
+ *      Q(p) = sum over k of  C(N, k) p^k (1-p)^(N-k) Q_k
+ *
+ *  So one sweep per trial replaces thousands of fixed-p runs.
+ *
+ *  Running it as a program prints the curve at `points` evenly spaced values
+ *  of p (default 21):
+ *    p, spanning probability R(p), largest cluster fraction P(p)
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class PercolationCurve {
+    /* Binomial weights below this fraction of the peak weight are dropped from the convolution */
+    private static final double NEGLIGIBLE_WEIGHT = 1e-16;
+
+    /* Blocks of trials per pool thread: enough to balance the load, few enough to bound the accumulators */
+    private static final int LEAVES_PER_THREAD = 4;
+
+    /* Lattice each sweep runs on */
+    private final Lattice lattice;
+
+    /* Number of sites in the lattice (n^2 for the square grid) */
+    private final int totalSites;
+
+    /* Number of trials run */
+    private final int numTrials;
+
+    /* Master seed. Trials are seeded exactly like PercolationStats trials. */
+    private final long seed;
+
+    /* spanningTrials[k] is the number of trials that span once k sites are open. */
+    private final long[] spanningTrials;
+
+    /* largestClusterTotals[k] is the sum over trials of the largest cluster size once k sites are open. */
+    private final long[] largestClusterTotals;
+
+    /**
+     * Builds the percolation curve with a fresh random master seed.
+     *
+     * @param sideLength - The side length of the percolation grid.
+     * @param trials     - Number of sweeps to run.
+     * @throws IllegalArgumentException if sideLength or trials is less than 1.
+     */
+    public PercolationCurve(int sideLength, int trials) {
+        this(sideLength, trials, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Builds the percolation curve.
+     *
+     * @param sideLength - The side length of the percolation grid.
+     * @param trials     - Number of sweeps to run.
+     * @param seed       - Master seed. The same seed always gives the same curve, whatever the number of threads.
+     * @throws IllegalArgumentException if sideLength or trials is less than 1.
+     */
+    public PercolationCurve(int sideLength, int trials, long seed) {
+        this(Lattice.square(sideLength), trials, seed);
+    }
+
+    /**
+     * Builds the percolation curve of any lattice.
+     *
+     * @param lattice - The lattice each sweep runs on.
+     * @param trials  - Number of sweeps to run.
+     * @param seed    - Master seed. The same seed always gives the same curve, whatever the number of threads.
+     * @throws IllegalArgumentException if lattice is null or trials is less than 1.
+     */
+    public PercolationCurve(Lattice lattice, int trials, long seed) {
+        if (lattice == null || trials <= 0) {
+            String errMessage = "Invalid arguments [lattice: %s, trials:%s]. " +
+                    "Lattice must be non-null and trials a non-zero, positive integer.";
+            throw new IllegalArgumentException(String.format(errMessage, lattice, trials));
+        }
+
+        this.lattice = lattice;
+        this.totalSites = lattice.numberOfSites();
+        this.numTrials = trials;
+        this.seed = seed;
+
+        // Each leaf task accumulates its block of trials into its own arrays, and the arrays are summed up
+        // the task tree. All statistics are integer counts, so the totals are the same whichever thread ran
+        // which trial. Nothing outlives the run: no per-thread state is left on the pool's threads.
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int leafTrials = Math.max(1, trials / (LEAVES_PER_THREAD * pool.getParallelism()));
+        Accumulator total = pool.invoke(new SweepTask(0, trials, leafTrials));
+
+        spanningTrials = new long[totalSites + 1];
+        largestClusterTotals = total.largestClusterTotals;
+        long spanning = 0;
+        for (int k = 0; k <= totalSites; k++) {
+            // Spanning is monotonic, so the trials spanning at k are those whose onset is at or before k
+            spanning += total.spanningOnsets[k];
+            spanningTrials[k] = spanning;
+        }
+    }
+
+    /**
+     * @return The number of sites in the lattice (the largest valid number of open sites).
+     */
+    public int numberOfSites() {
+        return totalSites;
+    }
+
+    /**
+     * @return The master seed the trials were derived from.
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Fraction of trials that span top to bottom once exactly k sites are open.
+     *
+     * @param openSites Number of open sites k, between 0 and n^2.
+     * @return The spanning probability R_k.
+     * @throws IllegalArgumentException if openSites is out of range.
+     */
+    public double spanningProbabilityAt(int openSites) {
+        validateOpenSites(openSites);
+        return (double) spanningTrials[openSites] / numTrials;
+    }
+
+    /**
+     * Average size of the largest cluster, as a fraction of all sites, once exactly k sites are open.
+     *
+     * @param openSites Number of open sites k, between 0 and n^2.
+     * @return The largest cluster fraction P_k.
+     * @throws IllegalArgumentException if openSites is out of range.
+     */
+    public double largestClusterFractionAt(int openSites) {
+        validateOpenSites(openSites);
+        return (double) largestClusterTotals[openSites] / numTrials / totalSites;
+    }
+
+    /**
+     * Probability that the grid spans top to bottom when each site is open independently with probability p.
+     *
+     * @param p Site occupation probability, between 0 and 1.
+     * @return The spanning probability R(p).
+     * @throws IllegalArgumentException if p is not in [0, 1].
+     */
+    public double spanningProbability(double p) {
+        return convolve(p, spanningTrials) / numTrials;
+    }
+
+    /**
+     * Expected size of the largest cluster, as a fraction of all sites, when each site is open independently
+     * with probability p.
+     *
+     * @param p Site occupation probability, between 0 and 1.
+     * @return The largest cluster fraction P(p).
+     * @throws IllegalArgumentException if p is not in [0, 1].
+     */
+    public double largestClusterFraction(double p) {
+        return convolve(p, largestClusterTotals) / numTrials / totalSites;
+    }
+
+    /**
+     * Helper method to compute sum over k of C(N, k) p^k (1-p)^(N-k) totals[k].
+     * The binomial weights are built by ratios outwards from the mode, then normalized,
+     * so no factorials or powers of tiny numbers are ever formed.
+     */
+    private double convolve(double p, long[] totals) {
+        if (!(p >= 0.0 && p <= 1.0)) {
+            throw new IllegalArgumentException("Probability must be between 0 and 1: " + p);
+        }
+        if (p == 0.0) {
+            return totals[0];
+        }
+        if (p == 1.0) {
+            return totals[totalSites];
+        }
+
+        int mode = (int) Math.min(totalSites, Math.floor((totalSites + 1) * p));
+        double odds = p / (1.0 - p);
+        double weightSum = 1.0;
+        double weighted = totals[mode];
+
+        // Walk up from the mode: B(k+1) = B(k) * (N-k)/(k+1) * p/(1-p)
+        double weight = 1.0;
+        for (int k = mode; k < totalSites; k++) {
+            weight *= (double) (totalSites - k) / (k + 1) * odds;
+            if (weight < NEGLIGIBLE_WEIGHT) {
+                break;
+            }
+            weightSum += weight;
+            weighted += weight * totals[k + 1];
+        }
+
+        // Walk down from the mode: B(k-1) = B(k) * k/(N-k+1) * (1-p)/p
+        weight = 1.0;
+        for (int k = mode; k > 0; k--) {
+            weight *= (double) k / (totalSites - k + 1) / odds;
+            if (weight < NEGLIGIBLE_WEIGHT) {
+                break;
+            }
+            weightSum += weight;
+            weighted += weight * totals[k - 1];
+        }
+
+        return weighted / weightSum;
+    }
+
+    /**
+     * Helper method to validate a number of open sites.
+     */
+    private void validateOpenSites(int openSites) {
+        if (openSites < 0 || openSites > totalSites) {
+            String msg = "Invalid number of open sites %s. Must be between 0 and %s.";
+            throw new IllegalArgumentException(String.format(msg, openSites, totalSites));
+        }
+    }
+
+    /**
+     * Helper method to run one Newman-Ziff sweep: open every site in a random order,
+     * recording the cluster statistics after each opening.
+     *
+     * @param trial       The 0-based trial number (selects the random stream).
+     * @param accumulator Where to add this trial's statistics.
+     */
+    private void runSweep(int trial, Accumulator accumulator) {
+        SplittableRandom random = new SplittableRandom(PercolationStats.trialSeed(seed, trial));
+        Percolation percolation = new Percolation(lattice);
+
+        int[] order = new int[totalSites];
+        for (int i = 0; i < totalSites; i++) {
+            order[i] = i;
+        }
+
+        int largestCluster = 0;
+        boolean spanning = false;
+        for (int i = 0; i < totalSites; i++) {
+            // One Fisher-Yates step picks the next closed site
+            int swap = i + random.nextInt(totalSites - i);
+            int site = order[swap];
+            order[swap] = order[i];
+            order[i] = site;
+
+            percolation.openSite(site);
+            int openSites = i + 1;
+
+            // The only cluster that can have grown is the one containing the new site
+            largestCluster = Math.max(largestCluster, percolation.clusterSize(site));
+            accumulator.largestClusterTotals[openSites] += largestCluster;
+
+            if (!spanning && percolation.percolates()) {
+                spanning = true;
+                accumulator.spanningOnsets[openSites]++;
+            }
+        }
+    }
+
+    /**
+     * Running totals for a block of sweeps.
+     */
+    private static class Accumulator {
+        // spanningOnsets[k] counts the trials that first spanned when the k-th site was opened
+        private final long[] spanningOnsets;
+        // largestClusterTotals[k] sums the largest cluster size with k sites open
+        private final long[] largestClusterTotals;
+
+        private Accumulator(int totalSites) {
+            spanningOnsets = new long[totalSites + 1];
+            largestClusterTotals = new long[totalSites + 1];
+        }
+
+        /**
+         * Adds the other block's totals into this one.
+         */
+        private void add(Accumulator other) {
+            for (int k = 0; k < spanningOnsets.length; k++) {
+                spanningOnsets[k] += other.spanningOnsets[k];
+                largestClusterTotals[k] += other.largestClusterTotals[k];
+            }
+        }
+    }
+
+    /**
+     * Fork/join task that runs sweeps [lo, hi), at most leafTrials per leaf, and returns their totals.
+     * Each leaf fills a fresh Accumulator; each parent adds its right child's totals into its left child's.
+     */
+    private class SweepTask extends RecursiveTask<Accumulator> {
+        private final int lo;
+        private final int hi;
+        private final int leafTrials;
+
+        private SweepTask(int lo, int hi, int leafTrials) {
+            this.lo = lo;
+            this.hi = hi;
+            this.leafTrials = leafTrials;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (hi - lo <= leafTrials) {
+                Accumulator accumulator = new Accumulator(totalSites);
+                for (int trial = lo; trial < hi; trial++) {
+                    runSweep(trial, accumulator);
+                }
+                return accumulator;
+            }
+            int mid = (lo + hi) >>> 1;
+            SweepTask left = new SweepTask(lo, mid, leafTrials);
+            left.fork();
+            Accumulator right = new SweepTask(mid, hi, leafTrials).compute();
+            Accumulator merged = left.join();
+            merged.add(right);
+            return merged;
+        }
+    }
+
+    /**
+     * Main method to run this class as a command-line program.
+     * See the comments at the top of this file for more information on running this program.
+     *
+     * @param args Command-line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            StdOut.println("Please enter two arguments: " +
+                    "n (side length of the grid) and " +
+                    "t (number of sweeps)");
+            return;
+        }
+
+        int sideLength = Integer.parseInt(args[0]);
+        int trials = Integer.parseInt(args[1]);
+        int points = 21;
+        long seed = new SplittableRandom().nextLong();
+        String latticeName = "square";
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--seed=")) {
+                seed = Long.parseLong(args[i].substring("--seed=".length()));
+            } else if (args[i].startsWith("--lattice=")) {
+                latticeName = args[i].substring("--lattice=".length());
+            } else {
+                points = Integer.parseInt(args[i]);
+            }
+        }
+
+        Lattice lattice = Lattice.of(latticeName, sideLength);
+        PercolationCurve curve = new PercolationCurve(lattice, trials, seed);
+        StdOut.printf("# lattice = %s, sweeps = %d, seed = %d \n", lattice, trials, curve.seed());
+        StdOut.println("# p, spanning probability, largest cluster fraction");
+        for (int i = 0; i < points; i++) {
+            double p = points == 1 ? 0.5 : (double) i / (points - 1);
+            StdOut.printf("%.4f, %.6f, %.6f \n", p, curve.spanningProbability(p), curve.largestClusterFraction(p));
+        }
+    }
+}
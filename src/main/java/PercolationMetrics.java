@@ -0,0 +1,186 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationMetrics.java
+ *  Execution:    none
+ *  Dependencies: StdOut.java
+ *
+ *  Optional hot-path counters for Percolation, BondPercolation and the
+ *  union-find underneath them: where does the time of open() go?
+ *
+ *  Off by default. Switch on with
+ *    -Dpercolation.metrics=true
+ *  PercolationStats prints the counters at the end of a run when they are on.
+ *
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters for the percolation hot path.
+ * <p>
+ * ENABLED is a static final constant, so the JIT folds every {@code if (PercolationMetrics.ENABLED)} guard
+ * and drops the instrumented code entirely when the switch is off: the disabled cost is zero. Callers must
+ * always guard their calls with it; the record methods themselves count unconditionally.
+ * <p>
+ * Counters are LongAdders, as PercolationStats runs trials on many threads at once.
+ */
+final class PercolationMetrics {
+    /** True iff the JVM was started with -Dpercolation.metrics=true. */
+    static final boolean ENABLED = Boolean.getBoolean("percolation.metrics");
+
+    /** find() path lengths (number of parent links followed) of LONG_PATHS or more share the last bucket. */
+    static final int LONG_PATHS = 16;
+
+    private static final LongAdder opens = new LongAdder();
+    private static final LongAdder redundantOpens = new LongAdder();
+    private static final LongAdder neighborChecks = new LongAdder();
+    private static final LongAdder openNeighbors = new LongAdder();
+    private static final LongAdder unions = new LongAdder();
+    private static final LongAdder merges = new LongAdder();
+    private static final LongAdder finds = new LongAdder();
+    private static final LongAdder findLinks = new LongAdder();
+    private static final LongAdder validations = new LongAdder();
+    private static final LongAdder validationNanos = new LongAdder();
+    private static final LongAdder[] pathLengths = new LongAdder[LONG_PATHS + 1];
+
+    static {
+        for (int i = 0; i < pathLengths.length; i++) {
+            pathLengths[i] = new LongAdder();
+        }
+    }
+
+    private PercolationMetrics() {
+    }
+
+    /**
+     * Records a call to open a site or bond.
+     *
+     * @param opened False if the site or bond was already open.
+     */
+    static void recordOpen(boolean opened) {
+        opens.increment();
+        if (!opened) {
+            redundantOpens.increment();
+        }
+    }
+
+    /**
+     * Records the neighbor scan of a newly opened site.
+     *
+     * @param checked Number of neighbors looked at.
+     * @param open    Number of them that were open.
+     */
+    static void recordNeighbors(int checked, int open) {
+        neighborChecks.add(checked);
+        openNeighbors.add(open);
+    }
+
+    /**
+     * Records a cluster union.
+     *
+     * @param merged False if both sites were already in the same cluster.
+     */
+    static void recordUnion(boolean merged) {
+        unions.increment();
+        if (merged) {
+            merges.increment();
+        }
+    }
+
+    /**
+     * Records one find().
+     *
+     * @param links Number of parent links followed from the element to its root.
+     */
+    static void recordFind(int links) {
+        finds.increment();
+        findLinks.add(links);
+        pathLengths[Math.min(links, LONG_PATHS)].increment();
+    }
+
+    /**
+     * Records one argument validation.
+     *
+     * @param startNanos System.nanoTime() taken just before validating.
+     */
+    static void recordValidation(long startNanos) {
+        validationNanos.add(System.nanoTime() - startNanos);
+        validations.increment();
+    }
+
+    /**
+     * Clears every counter.
+     */
+    static void reset() {
+        for (LongAdder adder : new LongAdder[]{opens, redundantOpens, neighborChecks, openNeighbors, unions, merges,
+                finds, findLinks, validations, validationNanos}) {
+            adder.reset();
+        }
+        for (LongAdder bucket : pathLengths) {
+            bucket.reset();
+        }
+    }
+
+    static long opens() {
+        return opens.sum();
+    }
+
+    static long redundantOpens() {
+        return redundantOpens.sum();
+    }
+
+    static long neighborChecks() {
+        return neighborChecks.sum();
+    }
+
+    static long unions() {
+        return unions.sum();
+    }
+
+    static long merges() {
+        return merges.sum();
+    }
+
+    static long finds() {
+        return finds.sum();
+    }
+
+    static long validations() {
+        return validations.sum();
+    }
+
+    /**
+     * @param links A path length, or LONG_PATHS for every path of LONG_PATHS links or more.
+     * @return The number of find() calls with that path length.
+     */
+    static long findsWithPathLength(int links) {
+        return pathLengths[links].sum();
+    }
+
+    /**
+     * Prints every counter, and the find() path length histogram, in the PercolationStats report format.
+     */
+    static void print() {
+        long findCount = finds.sum();
+        long validationCount = validations.sum();
+        StdOut.printf("opens                   = %d \n", opens.sum());
+        StdOut.printf("redundant opens         = %d \n", redundantOpens.sum());
+        StdOut.printf("neighbor checks         = %d (%d open) \n", neighborChecks.sum(), openNeighbors.sum());
+        StdOut.printf("unions                  = %d (%d merged) \n", unions.sum(), merges.sum());
+        StdOut.printf("finds                   = %d \n", findCount);
+        StdOut.printf("mean find path length   = %.3f \n", findCount == 0 ? 0.0 : (double) findLinks.sum() / findCount);
+        StdOut.printf("validations             = %d (%.1f ns each, timer included) \n", validationCount,
+                validationCount == 0 ? 0.0 : (double) validationNanos.sum() / validationCount);
+        if (findCount > 0) {
+            StdOut.println("find path lengths:");
+            for (int links = 0; links <= LONG_PATHS; links++) {
+                long count = pathLengths[links].sum();
+                if (count > 0) {
+                    StdOut.printf("  %3d%s %14d  %6.2f%% \n", links, links == LONG_PATHS ? "+" : " ", count,
+                            100.0 * count / findCount);
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,10 @@
 /******************************************************************************
  *  Compilation:  javac PercolationStats.java
- *  Execution:    java PercolationStats n T
- *  Dependencies: Percolation.java StdOut.java StdRandom.java StdStats.java
+ *  Execution:    java PercolationStats n T [--seed=S] [--sampling=rejection|permutation]
+ *                                      [--halfwidth=H] [--lattice=L] [--model=site|bond]
+ *                                      [--checkpoint=FILE] [--library-uf]
+ *  Dependencies: Percolation.java BondPercolation.java Lattice.java PercolationCheckpoint.java
+ *                PercolationMetrics.java StdOut.java StdStats.java Stopwatch.java
  *
  *  This program runs independent Monte Carlo simulation experiments in order
  *  to estimate the Percolation Threshold.
@@ -10,29 +13,104 @@
  *    - n: The side length of a percolation grid (creates a grid with nxn sites)
  *    - T: Number of trials to run.
  *
+ *  Optional flags:
+ *    - --seed=S: Master seed for the trials. Runs with the same seed produce
+ *      bit-identical results, whatever the number of threads.
+ *    - --sampling=rejection|permutation: How each trial picks sites to open
+ *      (see PercolationStats.Sampling). Defaults to rejection.
+ *    - --lattice=square|triangular|honeycomb|cubic: Lattice topology with
+ *      side n. Defaults to square (an n-by-n grid).
+ *    - --model=site|bond: Open sites (Percolation) or the bonds between
+ *      sites (BondPercolation). Defaults to site.
+ *    - --halfwidth=H: Adaptive mode. T becomes a budget: trials stop as soon
+ *      as the 95% confidence interval is no wider than mean +/- H.
+ *    - --checkpoint=FILE: Append each trial's result to FILE as it finishes.
+ *      If FILE already holds results of the same run (same lattice, model,
+ *      sampling and seed), those trials are skipped. Merge the checkpoints of
+ *      several runs with PercolationCheckpoint. Not available with --halfwidth.
+ *    - --library-uf: Run Percolation on the algs4 WeightedQuickUnionUF instead
+ *      of the in-project PathHalvingUF (to compare the two engines).
+ *
+ *  Hot-path counters (opens, redundant opens, neighbor checks, unions, finds,
+ *  the find() path length histogram and validation time) are printed after
+ *  the results when the JVM runs with -Dpercolation.metrics=true. They are
+ *  off, and cost nothing, by default. Path lengths are only recorded by
+ *  PathHalvingUF, not with --library-uf.
+ *
+ *  Trials run in parallel on the common fork/join pool. Its size defaults to
+ *  the number of cores, and can be set with
+ *    -Djava.util.concurrent.ForkJoinPool.common.parallelism=k
+ *
  *  Program logic:
- *    - Runs T Monte Carlo simulations using an n * n percolation Grid.
- *    - Records each percolation threshold (# open sites / # total sites)
+ *    - Runs T Monte Carlo simulations using an n * n percolation Grid (or another lattice).
+ *    - Records each percolation threshold (# open sites / # total sites, or
+ *      # open bonds / # total bonds)
  *    - It then prints:
  *      - The mean of all calculated percolation thresholds
  *      - The standard deviation of all percolation thresholds
  *      - The 95% confidence interval
+ *      - The elapsed wall-clock time and throughput in trials/second
  ******************************************************************************/
 import edu.princeton.cs.algs4.StdOut;
-import edu.princeton.cs.algs4.StdRandom;
 import edu.princeton.cs.algs4.StdStats;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class PercolationStats {
     /* Z value for 95% confidence interval */
     private static final double Z_VALUE = 1.96;
 
-    /* Side length of percolation grid (nxn) */
-    private final int sideLength;
+    /* Golden-ratio increment used to space out per-trial seeds (same constant as SplittableRandom) */
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
 
-    /* Number of trials to run */
+    /* Adaptive mode never stops before this many trials: the normal approximation needs a few samples */
+    private static final int MIN_ADAPTIVE_TRIALS = 10;
+
+    /* Lattice each trial runs on (an n-by-n square grid unless given explicitly) */
+    private final Lattice lattice;
+
+    /* Number of trials run. In adaptive mode this is only known once the target width is met. */
     private final double numTrials;
 
-    /* Results. Each element is an estimated percolation threshold for a given trial. */
+    /* Master seed. Trial i always draws from a SplittableRandom seeded with trialSeed(seed, i). */
+    private final long seed;
+
+    /* If true, each Percolation runs on the algs4 union-find instead of PathHalvingUF */
+    private final boolean useLibraryUnionFind;
+
+    /* How each trial picks the next site to open */
+    private final Sampling sampling;
+
+    /* Whether trials open sites or bonds */
+    private final Model model;
+
+    /* Fixed mode only: where to append each trial's result as it finishes (or null), and the trials whose
+     * results were read back from it instead of being run. Both are only used while the trials run. */
+    private final PercolationCheckpoint checkpoint;
+    private final BitSet resumedTrials;
+
+    /* Idle per-thread trial state. A worker takes one (or builds one, the first time) for each trial and
+     * hands it back afterwards, so there are never more than one per running thread, and in steady state
+     * trials reuse grids instead of allocating them. Cleared once all trials have run. */
+    private final ConcurrentLinkedQueue<TrialWorker> idleWorkers = new ConcurrentLinkedQueue<>();
+
+    /* Results. Each element is an estimated percolation threshold for a given trial.
+     * Null in adaptive mode, which only keeps running moments. */
     private final double[] thresholds;
 
     /* Mean and standard deviation */
@@ -40,29 +118,331 @@ public class PercolationStats {
     private final double stddev;
 
     /**
-     * PercolationStats constructor
+     * PercolationStats constructor. Uses a fresh random master seed.
      *
      * @param sideLength - The side length of the percolation grid.
      * @param trials     - Number of trials to run.
      * @throws IllegalArgumentException if sideLength or trials is less than 1.
      */
     public PercolationStats(int sideLength, int trials) {
-        validateConstructor(sideLength, trials);
+        this(sideLength, trials, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * PercolationStats constructor. Uses a fresh random master seed.
+     *
+     * @param sideLength          - The side length of the percolation grid.
+     * @param trials              - Number of trials to run.
+     * @param useLibraryUnionFind - If true, run each trial on the algs4 WeightedQuickUnionUF.
+     * @throws IllegalArgumentException if sideLength or trials is less than 1.
+     */
+    public PercolationStats(int sideLength, int trials, boolean useLibraryUnionFind) {
+        this(sideLength, trials, new SplittableRandom().nextLong(), useLibraryUnionFind);
+    }
+
+    /**
+     * PercolationStats constructor
+     *
+     * @param sideLength - The side length of the percolation grid.
+     * @param trials     - Number of trials to run.
+     * @param seed       - Master seed. The same seed always gives the same results.
+     * @throws IllegalArgumentException if sideLength or trials is less than 1.
+     */
+    public PercolationStats(int sideLength, int trials, long seed) {
+        this(sideLength, trials, seed, false);
+    }
+
+    /**
+     * PercolationStats constructor
+     *
+     * @param sideLength          - The side length of the percolation grid.
+     * @param trials              - Number of trials to run.
+     * @param seed                - Master seed. The same seed always gives the same results.
+     * @param useLibraryUnionFind - If true, run each trial on the algs4 WeightedQuickUnionUF.
+     * @throws IllegalArgumentException if sideLength or trials is less than 1.
+     */
+    public PercolationStats(int sideLength, int trials, long seed, boolean useLibraryUnionFind) {
+        this(sideLength, trials, seed, useLibraryUnionFind, Sampling.REJECTION, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * PercolationStats constructor
+     *
+     * @param sideLength - The side length of the percolation grid.
+     * @param trials     - Number of trials to run.
+     * @param seed       - Master seed. The same seed always gives the same results.
+     * @param sampling   - How each trial picks the next site to open.
+     * @throws IllegalArgumentException if sideLength or trials is less than 1.
+     */
+    public PercolationStats(int sideLength, int trials, long seed, Sampling sampling) {
+        this(sideLength, trials, seed, false, sampling, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * PercolationStats constructor that runs its trials on the given pool.
+     * Package-private so that tests can check results do not depend on the pool size.
+     */
+    PercolationStats(int sideLength, int trials, long seed, boolean useLibraryUnionFind, Sampling sampling,
+                     ForkJoinPool pool) {
+        this(Lattice.square(sideLength), trials, 0.0, seed, useLibraryUnionFind, sampling, Model.SITE, pool, null);
+    }
+
+    /**
+     * PercolationStats constructor for any lattice topology.
+     *
+     * @param lattice  - The lattice each trial runs on.
+     * @param trials   - Number of trials to run.
+     * @param seed     - Master seed. The same seed always gives the same results.
+     * @param sampling - How each trial picks the next site to open.
+     * @throws IllegalArgumentException if lattice is null or trials is less than 1.
+     */
+    public PercolationStats(Lattice lattice, int trials, long seed, Sampling sampling) {
+        this(lattice, trials, seed, sampling, Model.SITE);
+    }
+
+    /**
+     * PercolationStats constructor for any lattice topology and percolation model.
+     *
+     * @param lattice  - The lattice each trial runs on.
+     * @param trials   - Number of trials to run.
+     * @param seed     - Master seed. The same seed always gives the same results.
+     * @param sampling - How each trial picks the next site (or bond) to open.
+     * @param model    - Site or bond percolation.
+     * @throws IllegalArgumentException if lattice is null or trials is less than 1, or if the model cannot run
+     *                                  on the lattice (e.g. bond percolation on a single site).
+     */
+    public PercolationStats(Lattice lattice, int trials, long seed, Sampling sampling, Model model) {
+        this(lattice, trials, 0.0, seed, false, sampling, model, ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * PercolationStats constructor shared by the fixed and adaptive modes.
+     *
+     * @param lattice         - The lattice each trial runs on.
+     * @param trials          - Number of trials to run (fixed mode), or the trial budget (adaptive mode).
+     * @param targetHalfWidth - 0 for fixed mode. Otherwise the confidence interval half-width to stop at.
+     * @param checkpoint      - Fixed mode only: checkpoint to resume from and append to, or null.
+     */
+    private PercolationStats(Lattice lattice, int trials, double targetHalfWidth, long seed,
+                             boolean useLibraryUnionFind, Sampling sampling, Model model, ForkJoinPool pool,
+                             PercolationCheckpoint checkpoint) {
+        validateConstructor(lattice, trials);
+        if (!(targetHalfWidth >= 0)) {
+            throw new IllegalArgumentException("Target half-width must be positive: " + targetHalfWidth);
+        }
 
         // Initialize instance variables
-        this.sideLength = sideLength;
+        this.lattice = lattice;
+        this.seed = seed;
+        this.useLibraryUnionFind = useLibraryUnionFind;
+        this.sampling = sampling;
+        this.model = model;
+        this.checkpoint = checkpoint;
+        this.resumedTrials = new BitSet();
+        // Build the first system up front, so a lattice the model cannot run on fails here
+        // rather than inside a worker thread
+        idleWorkers.offer(new TrialWorker(newSystem()));
+
+        if (targetHalfWidth > 0) {
+            if (checkpoint != null) {
+                throw new IllegalArgumentException("Checkpoints are only supported in fixed mode");
+            }
+            // Adaptive mode: only running moments are kept
+            OnlineStats online = runUntilConfidence(trials, targetHalfWidth, pool);
+            idleWorkers.clear();
+            thresholds = null;
+            numTrials = (double) online.count;
+            mean = online.mean;
+            stddev = lattice.numberOfSites() == 1 ? Double.NaN : online.stddev();
+            return;
+        }
+
         numTrials = (double) trials;
         thresholds = new double[trials];
-
-        // Run the trials
-        for (int trial = 0; trial < trials; trial++) {
-            runTrial(trial);
+        if (checkpoint != null) {
+            checkpoint.copyCompleted(thresholds, resumedTrials);
         }
 
+        // Run the trials. Each trial writes only its own slot in thresholds, so the array
+        // (and everything computed from it) is identical whichever thread ran which trial,
+        // and whether or not the run was resumed from a checkpoint.
+        pool.invoke(new TrialTask(0, trials, thresholds, 0));
+        idleWorkers.clear();
+
         // Calculate mean and stddev
         mean = StdStats.mean(thresholds);
-        stddev = sideLength == 1 ? Double.NaN : StdStats.stddev(thresholds);
+        stddev = lattice.numberOfSites() == 1 ? Double.NaN : StdStats.stddev(thresholds);
+
+    }
+
+    /**
+     * PercolationStats constructor over results that were already computed (see {@link #fromCheckpoints}).
+     */
+    private PercolationStats(Lattice lattice, long seed, Sampling sampling, Model model, double[] thresholds) {
+        this.lattice = lattice;
+        this.seed = seed;
+        this.useLibraryUnionFind = false;
+        this.sampling = sampling;
+        this.model = model;
+        this.checkpoint = null;
+        this.resumedTrials = null;
+        this.thresholds = thresholds;
+        numTrials = (double) thresholds.length;
+        mean = StdStats.mean(thresholds);
+        stddev = lattice.numberOfSites() == 1 ? Double.NaN : StdStats.stddev(thresholds);
+    }
+
+    /**
+     * Fixed-mode PercolationStats that survives the JVM dying: every trial's result is appended to the
+     * checkpoint file as soon as the trial finishes. If the file already holds results of this same run
+     * (same lattice, model, sampling and seed), those trials are not rerun. Since trial i always replays
+     * the same random stream, the results are identical to those of a run that was never interrupted.
+     *
+     * @param lattice        - The lattice each trial runs on.
+     * @param trials         - Number of trials to run.
+     * @param seed           - Master seed. Must match the checkpoint's seed when resuming.
+     * @param sampling       - How each trial picks the next site (or bond) to open.
+     * @param model          - Site or bond percolation.
+     * @param checkpointFile - File to resume from and append to. Created if it does not exist.
+     * @return The statistics over all trials, resumed or run.
+     * @throws IllegalArgumentException if the arguments are invalid, or the checkpoint belongs to another run.
+     * @throws IOException              if the checkpoint cannot be read or written.
+     */
+    public static PercolationStats withCheckpoint(Lattice lattice, int trials, long seed, Sampling sampling,
+                                                  Model model, Path checkpointFile) throws IOException {
+        return withCheckpoint(lattice, trials, seed, false, sampling, model, checkpointFile);
+    }
+
+    /**
+     * Helper method for withCheckpoint(), also used by main() to pass the union-find choice.
+     */
+    private static PercolationStats withCheckpoint(Lattice lattice, int trials, long seed, boolean useLibraryUnionFind,
+                                                   Sampling sampling, Model model, Path checkpointFile)
+            throws IOException {
+        if (lattice == null) {
+            throw new IllegalArgumentException("Lattice cannot be null");
+        }
+        try (PercolationCheckpoint checkpoint = PercolationCheckpoint.openForAppend(checkpointFile, lattice, model,
+                sampling, seed)) {
+            return new PercolationStats(lattice, trials, 0.0, seed, useLibraryUnionFind, sampling, model,
+                    ForkJoinPool.commonPool(), checkpoint);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Merges the results recorded in several checkpoint files (e.g. from runs in separate processes) into one
+     * set of statistics. The runs must share a lattice and model. A trial recorded in more than one file (same
+     * master seed and trial number) is only counted once, so runs meant to be merged should use distinct seeds.
+     * Trials are folded in order of (file, record), after dropping duplicates.
+     *
+     * @param files - Checkpoint files.
+     * @return The statistics over every distinct recorded trial. Its seed() is the first file's seed.
+     * @throws IllegalArgumentException if no file is given, the files hold no trials, or the files were written
+     *                                  by runs on different lattices or models.
+     * @throws IOException              if a checkpoint cannot be read.
+     */
+    public static PercolationStats fromCheckpoints(Path... files) throws IOException {
+        if (files == null || files.length == 0) {
+            throw new IllegalArgumentException("At least one checkpoint file is needed");
+        }
+
+        PercolationCheckpoint first = PercolationCheckpoint.load(files[0]);
+        Map<Long, BitSet> seenTrials = new HashMap<>();
+        double[] merged = new double[0];
+        int count = 0;
+        for (Path file : files) {
+            PercolationCheckpoint checkpoint = file == files[0] ? first : PercolationCheckpoint.load(file);
+            if (!checkpoint.lattice().toString().equals(first.lattice().toString())
+                    || checkpoint.model() != first.model()) {
+                String errorMessage = "Cannot merge %s (%s, %s) with %s (%s, %s)";
+                throw new IllegalArgumentException(String.format(errorMessage, file, checkpoint.lattice(),
+                        checkpoint.model(), files[0], first.lattice(), first.model()));
+            }
+
+            BitSet seen = seenTrials.computeIfAbsent(checkpoint.seed(), s -> new BitSet());
+            merged = Arrays.copyOf(merged, count + checkpoint.numberOfRecords());
+            for (int i = 0; i < checkpoint.numberOfRecords(); i++) {
+                int trial = checkpoint.trial(i);
+                if (!seen.get(trial)) {
+                    seen.set(trial);
+                    merged[count++] = checkpoint.threshold(i);
+                }
+            }
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("The checkpoint files hold no trials");
+        }
+        return new PercolationStats(first.lattice(), first.seed(), first.sampling(), first.model(),
+                Arrays.copyOf(merged, count));
+    }
+
+    /**
+     * Adaptive PercolationStats: runs trials until the 95% confidence interval is no wider than
+     * mean +/- targetHalfWidth, or until maxTrials trials have run, whichever comes first.
+     * Mean and variance are updated online, so memory does not grow with the number of trials.
+     * <p>
+     * Trials still run in parallel, in batches, but are folded into the statistics in trial order and the
+     * stopping rule is checked after each one. So the same seed always stops at the same trial and gives
+     * bit-identical results, whatever the number of threads.
+     *
+     * @param sideLength      - The side length of the percolation grid.
+     * @param targetHalfWidth - Stop once Z * stddev / sqrt(trials) is at most this. Must be positive.
+     * @param maxTrials       - Trial budget.
+     * @param seed            - Master seed. The same seed always gives the same results.
+     * @param sampling        - How each trial picks the next site to open.
+     * @return The statistics over the trials actually run. See {@link #trials()}.
+     * @throws IllegalArgumentException if sideLength or maxTrials is less than 1, or targetHalfWidth is not positive.
+     */
+    public static PercolationStats untilConfidence(int sideLength, double targetHalfWidth, int maxTrials, long seed,
+                                                   Sampling sampling) {
+        return untilConfidence(Lattice.square(sideLength), targetHalfWidth, maxTrials, seed, sampling);
+    }
+
+    /**
+     * Adaptive PercolationStats for any lattice topology. See {@link #untilConfidence(int, double, int, long, Sampling)}.
+     */
+    public static PercolationStats untilConfidence(Lattice lattice, double targetHalfWidth, int maxTrials, long seed,
+                                                   Sampling sampling) {
+        return untilConfidence(lattice, targetHalfWidth, maxTrials, seed, sampling, Model.SITE);
+    }
 
+    /**
+     * Adaptive PercolationStats for any lattice topology and percolation model.
+     * See {@link #untilConfidence(int, double, int, long, Sampling)}.
+     */
+    public static PercolationStats untilConfidence(Lattice lattice, double targetHalfWidth, int maxTrials, long seed,
+                                                   Sampling sampling, Model model) {
+        if (!(targetHalfWidth > 0)) {
+            throw new IllegalArgumentException("Target half-width must be positive: " + targetHalfWidth);
+        }
+        return new PercolationStats(lattice, maxTrials, targetHalfWidth, seed, false, sampling, model,
+                ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * Helper method for adaptive mode: runs batches of trials in parallel until the target width is met.
+     */
+    private OnlineStats runUntilConfidence(int maxTrials, double targetHalfWidth, ForkJoinPool pool) {
+        OnlineStats online = new OnlineStats();
+        int batchSize = Math.max(pool.getParallelism(), 1);
+        double[] batch = new double[batchSize];
+
+        for (int start = 0; start < maxTrials; start += batchSize) {
+            int end = Math.min(start + batchSize, maxTrials);
+            pool.invoke(new TrialTask(start, end, batch, start));
+
+            // Fold in trial order, so where we stop never depends on the batch size
+            for (int trial = start; trial < end; trial++) {
+                online.add(batch[trial - start]);
+                if (online.count >= MIN_ADAPTIVE_TRIALS
+                        && Z_VALUE * online.stddev() / Math.sqrt(online.count) <= targetHalfWidth) {
+                    return online;
+                }
+            }
+        }
+        return online;
     }
 
     /**
@@ -107,6 +487,27 @@ public class PercolationStats {
         return mean + marginOfError();
     }
 
+    /**
+     * @return The number of trials run. In adaptive mode this can be less than the budget.
+     */
+    public int trials() {
+        return (int) numTrials;
+    }
+
+    /**
+     * @return The master seed the trials were derived from.
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return The number of trials whose results were read back from a checkpoint instead of being run.
+     */
+    public int resumedTrials() {
+        return resumedTrials == null ? 0 : resumedTrials.cardinality();
+    }
+
     /**
      * Helper method to calculate margin of error for estimating the confidence intervals
      */
@@ -116,38 +517,216 @@ public class PercolationStats {
     }
 
     /**
-     * Helper method to generate a random row or column.
+     * Helper method to derive the seed of a single trial from the master seed.
+     * Depends only on the master seed and the trial number (never on which thread runs the trial, or in
+     * which order), so a trial always replays the same sequence of sites.
+     * The mixing function is the SplitMix64 finalizer, which SplittableRandom also uses.
+     * Package-private so that other Monte Carlo drivers (e.g. PercolationCurve) seed trials the same way.
      *
-     * @return A random integer between 1 and n (inclusive).
+     * @param seed  The master seed.
+     * @param trial The 0-based trial number.
+     * @return The seed for that trial's random number generator.
      */
-    private int randomInt() {
-        return StdRandom.uniform(sideLength) + 1;
+    static long trialSeed(long seed, int trial) {
+        long z = seed + (trial + 1) * SEED_INCREMENT;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 
     /**
      * Helper method to run a single trial and calculate an estimated percolation threshold.
      *
-     * @param trial The trial number. Stores the result in thresholds[trial].
+     * @param trial The trial number. Selects the trial's random stream.
+     * @return The estimated threshold (# open elements / # total elements).
+     */
+    private double runTrial(int trial) {
+        SplittableRandom random = new SplittableRandom(trialSeed(seed, trial));
+        TrialWorker worker = idleWorkers.poll();
+        if (worker == null) {
+            worker = new TrialWorker(newSystem());
+        } else {
+            worker.system.reset();
+        }
+
+        PercolationSystem system = worker.system;
+        if (sampling == Sampling.PERMUTATION) {
+            openInPermutationOrder(worker, random);
+        } else {
+            openByRejection(system, random);
+        }
+        double totalElements = (double) system.numberOfElements();
+        double openElements = (double) system.numberOfOpenElements();
+
+        idleWorkers.offer(worker);
+        return openElements / totalElements;
+    }
+
+    /**
+     * Helper method to build a fresh system for a trial worker.
+     */
+    private PercolationSystem newSystem() {
+        if (model == Model.BOND) {
+            return new BondPercolation(lattice, useLibraryUnionFind);
+        }
+        return new Percolation(lattice, useLibraryUnionFind);
+    }
+
+    /**
+     * Helper method to open uniformly random elements until the system percolates.
+     * Draws that land on an already-open element (or on a gap in the numbering) are simply wasted.
+     */
+    private void openByRejection(PercolationSystem system, SplittableRandom random) {
+        int indexLimit = system.elementIndexLimit();
+        while (!system.percolates()) {
+            system.openElement(random.nextInt(indexLimit));
+        }
+    }
+
+    /**
+     * Helper method to open elements in a uniformly random order until the system percolates.
+     * Runs Fisher-Yates one step per draw, so the permutation is only shuffled as far as the trial
+     * actually gets, and every draw opens a new element (or skips a gap in the numbering, for bonds).
+     */
+    private void openInPermutationOrder(TrialWorker worker, SplittableRandom random) {
+        PercolationSystem system = worker.system;
+        int indexLimit = system.elementIndexLimit();
+        if (worker.order == null) {
+            worker.order = new int[indexLimit];
+        }
+
+        // Always restart from the identity permutation, so the order depends only on the trial's seed
+        // and not on which trial this worker ran before.
+        int[] order = worker.order;
+        for (int i = 0; i < indexLimit; i++) {
+            order[i] = i;
+        }
+        for (int i = 0; !system.percolates(); i++) {
+            int swap = i + random.nextInt(indexLimit - i);
+            int index = order[swap];
+            order[swap] = order[i];
+            order[i] = index;
+            system.openElement(index);
+        }
+    }
+
+    /**
+     * Helper method to validate the constructor. Throws an exception if the lattice is missing or trials is less
+     * than 1. Side lengths less than 1 are already rejected when the lattice is built.
+     */
+    private void validateConstructor(Lattice lattice, int trials) {
+        String errMessage = "Invalid arguments [lattice: %s, trials:%s]. " +
+                "Lattice must be non-null and trials a non-zero, positive integer.";
+        if (lattice == null || trials <= 0) {
+            throw new IllegalArgumentException(String.format(errMessage, lattice, trials));
+        }
+    }
+
+    /**
+     * Strategy used by each trial to pick the next site to open.
+     */
+    public enum Sampling {
+        /**
+         * Pick a uniformly random site and open it. Picks that land on an open site are wasted,
+         * which near the threshold is a large fraction of them. This is the classic sampler.
+         */
+        REJECTION,
+
+        /**
+         * Open sites in a uniformly random permutation order built by lazy Fisher-Yates,
+         * so every draw opens a new site. Both samplers give the same threshold distribution.
+         */
+        PERMUTATION
+    }
+
+    /**
+     * Percolation model run by each trial.
+     */
+    public enum Model {
+        /**
+         * Site percolation ({@link Percolation}): sites open at random.
+         */
+        SITE,
+
+        /**
+         * Bond percolation ({@link BondPercolation}): every site is present, and the bonds between
+         * neighboring sites open at random.
+         */
+        BOND
+    }
+
+    /**
+     * Reusable per-thread state for running trials: the system, and the permutation buffer for
+     * {@link Sampling#PERMUTATION} (allocated on first use).
      */
-    private void runTrial(int trial) {
-        Percolation percolation = new Percolation(sideLength);
-        while (!percolation.percolates()) {
-            percolation.open(randomInt(), randomInt());
+    private static class TrialWorker {
+        private final PercolationSystem system;
+        private int[] order;
+
+        private TrialWorker(PercolationSystem system) {
+            this.system = system;
         }
-        double totalSites = (double) (sideLength * sideLength);
-        double openSites = (double) percolation.numberOfOpenSites();
-        double threshold = openSites / totalSites;
-        thresholds[trial] = threshold;
     }
 
     /**
-     * Helper method to validate the constructor. Throws an exception if either of the arguments are less than 1.
+     * Welford's online algorithm for the running mean and variance.
+     * Numerically stable, and needs O(1) memory however many values are added.
      */
-    private void validateConstructor(int n, int trials) {
-        String errMessage = "Invalid arguments [sideLength: %s, trials:%s]. " +
-                "Both must be a non-zero, positive integer.";
-        if (n <= 0 || trials <= 0) {
-            throw new IllegalArgumentException(String.format(errMessage, n, trials));
+    private static class OnlineStats {
+        private int count;
+        private double mean;
+        // Sum of squared differences from the current mean
+        private double m2;
+
+        private void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+
+        private double stddev() {
+            return count < 2 ? Double.NaN : Math.sqrt(m2 / (count - 1));
+        }
+    }
+
+    /**
+     * Fork/join task that runs trials [lo, hi) and stores trial i's threshold in results[i - offset].
+     * Splits in half until a single trial is left: trials are long-running and uneven,
+     * so fine-grained tasks let idle workers steal the stragglers.
+     */
+    private class TrialTask extends RecursiveAction {
+        private final int lo;
+        private final int hi;
+        private final double[] results;
+        private final int offset;
+
+        private TrialTask(int lo, int hi, double[] results, int offset) {
+            this.lo = lo;
+            this.hi = hi;
+            this.results = results;
+            this.offset = offset;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                if (resumedTrials.get(lo)) {
+                    return;
+                }
+                double threshold = runTrial(lo);
+                results[lo - offset] = threshold;
+                if (checkpoint != null) {
+                    try {
+                        checkpoint.append(lo, threshold);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new TrialTask(lo, mid, results, offset), new TrialTask(mid, hi, results, offset));
         }
     }
 
@@ -156,8 +735,9 @@ public class PercolationStats {
      * See the comments at the top of this file for more information on running this program.
      *
      * @param args Command-line arguments.
+     * @throws IOException if the checkpoint file cannot be read or written.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         if (args.length < 2) {
             StdOut.println("Please enter two arguments: " +
                     "n (side length of the grid) and " +
@@ -167,10 +747,111 @@ public class PercolationStats {
 
         int sideLength = Integer.parseInt(args[0]);
         int trials = Integer.parseInt(args[1]);
-        PercolationStats stats = new PercolationStats(sideLength, trials);
+        boolean useLibraryUnionFind = hasFlag(args, "--library-uf");
+        String seedOption = optionValue(args, "--seed");
+        long seed = seedOption == null ? new SplittableRandom().nextLong() : Long.parseLong(seedOption);
+        String samplingOption = optionValue(args, "--sampling");
+        Sampling sampling = samplingOption == null ? Sampling.REJECTION : Sampling.valueOf(samplingOption.toUpperCase());
+        String halfWidthOption = optionValue(args, "--halfwidth");
+        double targetHalfWidth = halfWidthOption == null ? 0.0 : Double.parseDouble(halfWidthOption);
+        String latticeOption = optionValue(args, "--lattice");
+        Lattice lattice = Lattice.of(latticeOption == null ? "square" : latticeOption, sideLength);
+        String modelOption = optionValue(args, "--model");
+        Model model = modelOption == null ? Model.SITE : Model.valueOf(modelOption.toUpperCase());
+        String checkpointOption = optionValue(args, "--checkpoint");
+        Path checkpointFile = checkpointOption == null ? null : Paths.get(checkpointOption);
+        if (checkpointFile != null && targetHalfWidth > 0) {
+            StdOut.println("--checkpoint cannot be combined with --halfwidth");
+            return;
+        }
+        if (checkpointFile != null && seedOption == null
+                && Files.exists(checkpointFile) && Files.size(checkpointFile) > 0) {
+            // Resuming: rerunning the same command line picks up the seed the checkpoint was started with
+            seed = PercolationCheckpoint.load(checkpointFile).seed();
+        }
+
+        long allocatedBefore = allocatedBytes();
+        Stopwatch stopwatch = new Stopwatch();
+        PercolationStats stats = checkpointFile == null
+                ? new PercolationStats(lattice, trials, targetHalfWidth, seed, useLibraryUnionFind, sampling, model,
+                        ForkJoinPool.commonPool(), null)
+                : withCheckpoint(lattice, trials, seed, useLibraryUnionFind, sampling, model, checkpointFile);
+        double elapsed = stopwatch.elapsedTime();
+        long allocated = allocatedBytes() - allocatedBefore;
 
         StdOut.printf("mean                    = %f \n", stats.mean());
         StdOut.printf("stddev                  = %f \n", stats.stddev());
         StdOut.printf("95%% confidence interval = [%f , %f] \n", stats.confidenceLo(), stats.confidenceHi());
+        StdOut.printf("trials                  = %d \n", stats.trials());
+        if (checkpointFile != null) {
+            StdOut.printf("resumed trials          = %d \n", stats.resumedTrials());
+        }
+        StdOut.printf("seed                    = %d \n", stats.seed());
+        StdOut.printf("lattice                 = %s \n", lattice);
+        StdOut.printf("model                   = %s \n", model);
+        StdOut.printf("sampling                = %s \n", sampling);
+        StdOut.printf("union-find              = %s \n", useLibraryUnionFind ? "WeightedQuickUnionUF" : "PathHalvingUF");
+        StdOut.printf("threads                 = %d \n", ForkJoinPool.commonPool().getParallelism());
+        StdOut.printf("elapsed time            = %.3f s \n", elapsed);
+        StdOut.printf("throughput              = %.1f trials/s \n", stats.trials() / elapsed);
+        if (allocatedBefore >= 0) {
+            StdOut.printf("allocation              = %.1f KB/trial \n", allocated / 1024.0 / stats.trials());
+        }
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.print();
+        }
+    }
+
+    /**
+     * Helper method to read the total number of bytes allocated so far by all live threads.
+     * Relies on the HotSpot extension of ThreadMXBean.
+     *
+     * @return The byte count, or -1 if the JVM does not support allocation measurement.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean hotspotThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!hotspotThreads.isThreadAllocatedMemorySupported() || !hotspotThreads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long id : threads.getAllThreadIds()) {
+            long bytes = hotspotThreads.getThreadAllocatedBytes(id);
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Helper method to check whether an optional command-line flag was passed.
+     * Flags may appear anywhere after the two required arguments.
+     */
+    private static boolean hasFlag(String[] args, String flag) {
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals(flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Helper method to read an optional command-line option of the form name=value.
+     *
+     * @return The value, or null if the option was not passed.
+     */
+    private static String optionValue(String[] args, String name) {
+        String prefix = name + "=";
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith(prefix)) {
+                return args[i].substring(prefix.length());
+            }
+        }
+        return null;
     }
 }
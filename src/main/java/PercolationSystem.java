@@ -0,0 +1,52 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationSystem.java
+ *  Execution:    none
+ *  Dependencies: none
+ *
+ *  Minimal API shared by the percolation models (site and bond percolation)
+ *  that PercolationStats can estimate thresholds for.
+ *
+ ******************************************************************************/
+
+/**
+ * A percolation system whose elements (sites, or bonds between sites) are opened one at a time until it
+ * percolates. Elements are numbered with indices 0 through elementIndexLimit() - 1. Some models leave gaps
+ * in the numbering (e.g. the bond slots past the edge of the lattice): opening a gap is a no-op, so drawing
+ * indices uniformly and skipping gaps still picks elements uniformly.
+ */
+public interface PercolationSystem {
+    /**
+     * @return The number of elements that can be opened (sites for site percolation, bonds for bond percolation).
+     */
+    int numberOfElements();
+
+    /**
+     * @return One more than the largest element index. At least numberOfElements().
+     */
+    int elementIndexLimit();
+
+    /**
+     * Opens the element with the given index.
+     *
+     * @param index An element index, between 0 and elementIndexLimit() - 1.
+     * @return True if the element was closed and has now been opened. False if it was already open,
+     *         or if the index is a gap in the numbering.
+     * @throws IllegalArgumentException if index is out of range.
+     */
+    boolean openElement(int index);
+
+    /**
+     * @return The number of open elements.
+     */
+    int numberOfOpenElements();
+
+    /**
+     * @return True if an open path connects the top to the bottom of the system.
+     */
+    boolean percolates();
+
+    /**
+     * Closes every element, returning the system to the state of a freshly constructed one.
+     */
+    void reset();
+}
@@ -19,6 +19,8 @@
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdDraw;
 
+import java.util.BitSet;
+
 public class PercolationVisualizer {
 
     // delay in miliseconds (controls animation speed)
@@ -32,29 +34,25 @@ public class PercolationVisualizer {
         StdDraw.setYscale(-0.05*n, 1.05*n);   // leave a border to write text
         StdDraw.filledSquare(n/2.0, n/2.0, n/2.0);
 
-        // draw n-by-n grid
-        int opened = 0;
-        for (int row = 1; row <= n; row++) {
-            for (int col = 1; col <= n; col++) {
-                if (perc.isFull(row, col)) {
-                    StdDraw.setPenColor(StdDraw.BOOK_LIGHT_BLUE);
-                    opened++;
-                }
-                else if (perc.isOpen(row, col)) {
-                    StdDraw.setPenColor(StdDraw.WHITE);
-                    opened++;
-                }
-                else
-                    StdDraw.setPenColor(StdDraw.BLACK);
-                StdDraw.filledSquare(col - 0.5, n - row + 0.5, 0.45);
-            }
+        // draw n-by-n grid: blocked sites are the black background, so only open sites need drawing.
+        // One snapshot per frame instead of an isOpen() and isFull() query per cell.
+        Percolation.Snapshot snapshot = perc.snapshot();
+        BitSet open = snapshot.openSites();
+        BitSet full = snapshot.fullSites();
+        for (int site = open.nextSetBit(0); site >= 0; site = open.nextSetBit(site + 1)) {
+            int row = site / n + 1;
+            int col = site % n + 1;
+            if (full.get(site)) StdDraw.setPenColor(StdDraw.BOOK_LIGHT_BLUE);
+            else                StdDraw.setPenColor(StdDraw.WHITE);
+            StdDraw.filledSquare(col - 0.5, n - row + 0.5, 0.45);
         }
+        int opened = snapshot.numberOfOpenSites();
 
         // write status text
         StdDraw.setPenColor(StdDraw.BLACK);
         StdDraw.text(0.25*n, -0.025*n, opened + " open sites");
-        if (perc.percolates()) StdDraw.text(0.75*n, -0.025*n, "percolates");
-        else                   StdDraw.text(0.75*n, -0.025*n, "does not percolate");
+        if (snapshot.percolates()) StdDraw.text(0.75*n, -0.025*n, "percolates");
+        else                       StdDraw.text(0.75*n, -0.025*n, "does not percolate");
 
     }
 
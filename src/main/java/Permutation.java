@@ -1,15 +1,25 @@
 /******************************************************************************
  *  Compilation:  javac Permutation.java
- *  Execution:    java Permutation k < input.txt
- *  Dependencies: RandomizedQueue.java StdIn.java StdOut.java
+ *  Execution:    java Permutation k [--stream] < input.txt
+ *  Dependencies: RandomizedQueue.java ReservoirSampler.java ByteTokenizer.java
+ *                ByteSink.java StdOut.java
  *
  *  Command-line client to print k items from n StdIn items uniformly at random.
  *
+ *  By default, all n items are read into memory. With --stream, only a
+ *  reservoir of k items is kept, so memory is O(k) however long the input,
+ *  and the items that cannot make it into the reservoir are skipped without
+ *  being decoded.
+ *
+ *  Input is split on ASCII whitespace by ByteTokenizer rather than by StdIn's
+ *  Scanner, and output goes through a ByteSink.
+ *
  ******************************************************************************/
 
-import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 
+import java.io.IOException;
+
 /** Permutation client class for Deque and RandomizedQueue classes */
 public class Permutation {
     /**
@@ -17,22 +27,21 @@ public class Permutation {
      * See the comments at the top of this file for more information on running this program.
      *
      * @param args Command-line arguments.
+     * @throws IOException if reading Standard Input or writing Standard Output fails.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         // Validate that there is one command line argument
         if (args.length < 1) {
-            StdOut.println("Please enter one argument: k (number of items to print)");
+            StdOut.println("Please enter one argument: k (number of items to print), optionally followed by --stream");
             return;
         }
 
         // Cache number of items to print. Generate Randomized Queue.
         int numItemsToPrint = Integer.parseInt(args[0]);
+        boolean stream = args.length > 1 && args[1].equals("--stream");
 
-        // Read lines from Standard Input to queue.
-        RandomizedQueue<String> queue = new RandomizedQueue<>();
-        while (!StdIn.isEmpty()) {
-            queue.enqueue(StdIn.readString());
-        }
+        ByteTokenizer in = ByteTokenizer.standardInput();
+        RandomizedQueue<String> queue = stream ? readSample(in, numItemsToPrint) : readAll(in);
 
         // Validate that user passed in enough items to the program
         if (queue.size() < numItemsToPrint) {
@@ -42,8 +51,39 @@ public class Permutation {
         }
 
         // Print permutations
+        ByteSink out = ByteSink.standardOutput();
         for (int num = 0; num < numItemsToPrint; num++) {
-            StdOut.println(queue.dequeue());
+            out.println(queue.dequeue());
+        }
+        out.flush();
+    }
+
+    /**
+     * Helper method to read every item from Standard Input into a queue.
+     */
+    private static RandomizedQueue<String> readAll(ByteTokenizer in) throws IOException {
+        RandomizedQueue<String> queue = new RandomizedQueue<>();
+        while (in.hasNext()) {
+            queue.enqueue(in.next());
+        }
+        return queue;
+    }
+
+    /**
+     * Helper method to read Standard Input through a reservoir sampler, keeping at most k items.
+     * The queue holds fewer than k items only if the input does.
+     */
+    private static RandomizedQueue<String> readSample(ByteTokenizer in, int k) throws IOException {
+        ReservoirSampler<String> sampler = new ReservoirSampler<>(k);
+        while (in.hasNext()) {
+            // Tokens that would be rejected anyway are never decoded into Strings
+            long skippable = sampler.pendingSkips();
+            if (skippable > 0) {
+                sampler.skip(in.skip(skippable));
+            } else {
+                sampler.offer(in.next());
+            }
         }
+        return sampler.sample();
     }
 }
@@ -0,0 +1,99 @@
+/******************************************************************************
+ *  Compilation:  javac RandomSource.java
+ *  Execution:    none
+ *  Dependencies: StdRandom.java Xoshiro256PlusPlus.java
+ *
+ *  Source of random bits for RandomizedQueue, with unbiased bounded
+ *  sampling on top.
+ *
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A stream of uniformly random 64-bit values. Any generator with a nextLong() method plugs in as a method
+ * reference, e.g. {@code new SplittableRandom(42)::nextLong}.
+ * <p>
+ * uniform() turns the stream into unbiased integers in [0, n) with Lemire's multiply-shift method: one
+ * multiplication per draw, and a division only in the rare case the draw lands in the biased zone.
+ */
+@FunctionalInterface
+public interface RandomSource {
+
+    /**
+     * @return A uniformly random long.
+     */
+    long nextLong();
+
+    /**
+     * Returns a random integer uniformly in [0, n).
+     * (Lemire, "Fast Random Integer Generation in an Interval", 2019.)
+     *
+     * @param n The exclusive upper bound.
+     * @return A random integer uniformly between 0 (inclusive) and n (exclusive).
+     * @throws IllegalArgumentException if n <= 0.
+     */
+    default int uniform(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Bound must be positive: " + n);
+        }
+        // The high 32 bits of x * n are uniform in [0, n) unless the low 32 bits fall below 2^32 mod n
+        long product = (nextLong() >>> 32) * n;
+        int low = (int) product;
+        if (Integer.compareUnsigned(low, n) < 0) {
+            int threshold = Integer.remainderUnsigned(-n, n);
+            while (Integer.compareUnsigned(low, threshold) < 0) {
+                product = (nextLong() >>> 32) * n;
+                low = (int) product;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    /**
+     * @param seed A seed.
+     * @return A SplittableRandom-backed source: fast, and reproducible from the seed.
+     */
+    static RandomSource splittable(long seed) {
+        return new SplittableRandom(seed)::nextLong;
+    }
+
+    /**
+     * @param seed A seed.
+     * @return An xoshiro256++ source: fast, reproducible from the seed, with 256 bits of state.
+     */
+    static RandomSource xoshiro(long seed) {
+        return new Xoshiro256PlusPlus(seed);
+    }
+
+    /**
+     * @return A source backed by the calling thread's ThreadLocalRandom: fast and contention-free, but not
+     *         reproducible.
+     */
+    static RandomSource threadLocal() {
+        return () -> ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * @return A source backed by the global StdRandom, so StdRandom.setSeed() still controls it. uniform()
+     *         delegates to StdRandom.uniform(), drawing exactly what it always did.
+     */
+    static RandomSource stdRandom() {
+        return new RandomSource() {
+            @Override
+            public long nextLong() {
+                return (long) StdRandom.uniform(1 << 22) << 42
+                        | (long) StdRandom.uniform(1 << 21) << 21
+                        | StdRandom.uniform(1 << 21);
+            }
+
+            @Override
+            public int uniform(int n) {
+                return StdRandom.uniform(n);
+            }
+        };
+    }
+}
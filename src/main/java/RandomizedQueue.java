@@ -1,15 +1,13 @@
 /******************************************************************************
  *  Compilation:  javac RandomizedQueue.java
  *  Execution:    java RandomizedQueue
- *  Dependencies: StdRandom.java
+ *  Dependencies: RandomSource.java
  *
  *  Randomized Queue implementation.
  *  Implemented via a resizing array.
  *
  ******************************************************************************/
 
-import edu.princeton.cs.algs4.StdRandom;
-
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -19,18 +17,38 @@ import java.util.NoSuchElementException;
  * Supports isEmpty(), size(), enqueue(), dequeue(), and sample() methods.
  * Implements Iterable interface to support for-each loops.
  * Implemented via resizing array.
+ * <p>
+ * Random choices come from a {@link RandomSource}. The default is the global StdRandom; pass a seeded
+ * source (e.g. {@code RandomSource.xoshiro(seed)}) for reproducible runs that do not contend on StdRandom's
+ * shared, synchronized generator.
  */
 public class RandomizedQueue<Item> implements Iterable<Item> {
     private static final int INITIAL_CAPACITY = 2;
 
+    private final RandomSource random;
     private int size;
     private Item[] items;
 
     /**
      * Constructor. Builds a new RandomizedQueue with an initial capacity of
-     * {@link RandomizedQueue#INITIAL_CAPACITY}.
+     * {@link RandomizedQueue#INITIAL_CAPACITY}, drawing from StdRandom.
      */
     public RandomizedQueue() {
+        this(RandomSource.stdRandom());
+    }
+
+    /**
+     * Constructor. Builds a new RandomizedQueue with an initial capacity of
+     * {@link RandomizedQueue#INITIAL_CAPACITY}, drawing from the given source.
+     *
+     * @param random The source of every random choice of this queue and its iterators.
+     * @throws IllegalArgumentException if random is null.
+     */
+    public RandomizedQueue(RandomSource random) {
+        if (random == null) {
+            throw new IllegalArgumentException("Random source cannot be null");
+        }
+        this.random = random;
         items = (Item[]) new Object[INITIAL_CAPACITY];  // warning: [unchecked] unchecked cast
         size = 0;
     }
@@ -116,7 +134,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
      */
     private int randomIndex() {
         assert size > 0;
-        return StdRandom.uniform(size);
+        return random.uniform(size);
     }
 
     /**
@@ -202,28 +220,34 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         // Next item to access
         private int nextIndex;
 
-        // Holds iteration order over queue
-        private final int[] iterationIndices;
+        // Lazy Fisher-Yates shuffle of the indices 0..size-1: position p holds swaps.get(p), or p itself if
+        // it was never swapped. Only positions touched by a swap are stored, at most one per next().
+        private final SwapMap swaps;
 
         /**
-         * Iterator constructor.
+         * Iterator constructor. O(1): the shuffle happens one step per next().
          */
         private RandomizedQueueIterator() {
             nextIndex = 0;
             initSize = size;
+            swaps = new SwapMap();
+        }
 
-            // Deal with empty queue
-            if (size == 0) {
-                iterationIndices = new int[1];
-                return;
-            }
-
-            // Create random iteration order for queue contents
-            iterationIndices = new int[initSize];
-            for (int i = 0; i < size; i++) {
-                iterationIndices[i] = i;
+        /**
+         * Helper method for one step of the Knuth shuffle: picks a random position r among those not yet
+         * returned, returns its index, and moves the index at nextIndex into r. Draws exactly what the
+         * forward shuffle of StdRandom.shuffle() would, so the resulting order is the same, just computed
+         * on demand.
+         */
+        private int nextShuffledIndex() {
+            int r = nextIndex + random.uniform(initSize - nextIndex);
+            int chosen = swaps.get(r);
+            if (r != nextIndex) {
+                swaps.put(r, swaps.get(nextIndex));
             }
-            StdRandom.shuffle(iterationIndices);
+            swaps.remove(nextIndex);
+            nextIndex++;
+            return chosen;
         }
 
         @Override
@@ -244,7 +268,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
                 throw new NoSuchElementException("No more items to iterate over");
             }
 
-            return items[iterationIndices[nextIndex++]];
+            return items[nextShuffledIndex()];
         }
 
         private void validateQueueNotChanged() {
@@ -254,4 +278,88 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         }
     }
 
+    /**
+     * Sparse int-to-int map for the lazy shuffle: open addressing with linear probing over primitive arrays,
+     * so entries cost no boxing and no node objects. A missing key maps to itself.
+     */
+    private static final class SwapMap {
+        private static final int INITIAL_CAPACITY = 16;
+
+        // keys[i] holds key + 1, so that 0 marks an empty slot
+        private int[] keys = new int[INITIAL_CAPACITY];
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int entries;
+
+        private int get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key + 1) {
+                    return values[slot];
+                }
+            }
+            return key;
+        }
+
+        private void put(int key, int value) {
+            if (2 * (entries + 1) > keys.length) {
+                rehash(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != 0 && keys[slot] != key + 1) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                entries++;
+            }
+            keys[slot] = key + 1;
+            values[slot] = value;
+        }
+
+        /**
+         * Removes the key, then moves later entries of its probe run back so lookups still find them.
+         */
+        private void remove(int key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != key + 1) {
+                if (keys[slot] == 0) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            entries--;
+
+            int hole = slot;
+            for (slot = (slot + 1) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+                int home = hash(keys[slot] - 1) & mask;
+                // Move the entry into the hole unless its home lies cyclically in (hole, slot]
+                boolean homeAfterHole = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+                if (!homeAfterHole) {
+                    keys[hole] = keys[slot];
+                    values[hole] = values[slot];
+                    hole = slot;
+                }
+            }
+            keys[hole] = 0;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            values = new int[capacity];
+            entries = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i] - 1, oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
 }
@@ -0,0 +1,167 @@
+/******************************************************************************
+ *  Compilation:  javac ReservoirSampler.java
+ *  Execution:    none
+ *  Dependencies: RandomSource.java RandomizedQueue.java
+ *
+ *  Uniform random k-subset of a stream of unknown length, in O(k) memory.
+ *
+ ******************************************************************************/
+
+/**
+ * Reservoir sampler: keeps a uniformly random sample of k of the items offered so far, however many that
+ * is, in memory proportional to k only.
+ * <p>
+ * Uses Algorithm L (Li, "Reservoir-Sampling Algorithms of Time Complexity O(n(1 + log(N/n)))", 1994):
+ * instead of drawing a random number per item, it draws how many of the next items to skip, so only about
+ * k * (1 + log(n/k)) of n items cost any random draws. Callers that can discard input more cheaply than
+ * they can build an item (e.g. skip a token without making a String of it) can ask for pendingSkips() and
+ * report skip(n) instead of offering each item.
+ *
+ * @param <Item> A generic class.
+ */
+public class ReservoirSampler<Item> {
+    private final Item[] reservoir;
+    private final RandomSource random;
+
+    // Number of items seen, offered or skipped
+    private long seen;
+    // Number of upcoming items that will not enter the reservoir
+    private long skip;
+    // Algorithm L's running weight: the largest of the k smallest random keys seen so far
+    private double w;
+
+    /**
+     * Constructor. Builds an empty sampler drawing from StdRandom.
+     *
+     * @param k The number of items to keep.
+     * @throws IllegalArgumentException if k < 0.
+     */
+    public ReservoirSampler(int k) {
+        this(k, RandomSource.stdRandom());
+    }
+
+    /**
+     * Constructor. Builds an empty sampler drawing from the given source.
+     *
+     * @param k      The number of items to keep.
+     * @param random The source of randomness.
+     * @throws IllegalArgumentException if k < 0, or random is null.
+     */
+    @SuppressWarnings("unchecked")
+    public ReservoirSampler(int k, RandomSource random) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Sample size must not be negative: " + k);
+        }
+        if (random == null) {
+            throw new IllegalArgumentException("Null random source");
+        }
+        this.reservoir = (Item[]) new Object[k];
+        this.random = random;
+        if (k == 0) {
+            // Nothing is ever kept
+            skip = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * @return The number of items offered or skipped so far.
+     */
+    public long seen() {
+        return seen;
+    }
+
+    /**
+     * @return The number of items currently kept: min(k, seen()).
+     */
+    public int size() {
+        return (int) Math.min(reservoir.length, seen);
+    }
+
+    /**
+     * Offers the next item of the stream.
+     *
+     * @param item Any non-null object of type Item.
+     * @throws IllegalArgumentException if item is null.
+     */
+    public void offer(Item item) {
+        validateNotNull(item);
+        int k = reservoir.length;
+        if (seen < k) {
+            reservoir[(int) seen++] = item;
+            if (seen == k) {
+                w = Math.exp(Math.log(nextOpenDouble()) / k);
+                drawSkip();
+            }
+            return;
+        }
+        seen++;
+        if (skip > 0) {
+            skip--;
+            return;
+        }
+        reservoir[random.uniform(k)] = item;
+        w *= Math.exp(Math.log(nextOpenDouble()) / k);
+        drawSkip();
+    }
+
+    /**
+     * @return The number of upcoming items that will not enter the reservoir, so the caller may pass over
+     *         them with skip() without building them. 0 while the reservoir is filling up.
+     */
+    public long pendingSkips() {
+        return seen < reservoir.length ? 0 : skip;
+    }
+
+    /**
+     * Records that the next n items of the stream were passed over without being offered.
+     *
+     * @param n The number of items passed over.
+     * @throws IllegalArgumentException if n < 0 or n > pendingSkips().
+     */
+    public void skip(long n) {
+        if (n < 0 || n > pendingSkips()) {
+            throw new IllegalArgumentException("Can only skip 0 to " + pendingSkips() + " items: " + n);
+        }
+        skip -= n;
+        seen += n;
+    }
+
+    /**
+     * Returns the sample, in uniformly random order.
+     *
+     * @return A new queue holding the size() kept items. Dequeue it to get them in random order.
+     */
+    public RandomizedQueue<Item> sample() {
+        RandomizedQueue<Item> queue = new RandomizedQueue<>(random);
+        for (int i = 0; i < size(); i++) {
+            queue.enqueue(reservoir[i]);
+        }
+        return queue;
+    }
+
+    /**
+     * Helper method to draw the number of items to pass over before the next replacement: geometric, with
+     * success probability w.
+     */
+    private void drawSkip() {
+        double s = Math.floor(Math.log(nextOpenDouble()) / Math.log1p(-w));
+        // Saturates at Long.MAX_VALUE (and is 0 if w rounded to 1), which no stream reaches anyway
+        skip = (long) s;
+    }
+
+    /**
+     * Helper method for a random double uniformly in (0, 1], so its logarithm is finite.
+     */
+    private double nextOpenDouble() {
+        return ((random.nextLong() >>> 11) + 1) * 0x1.0p-53;
+    }
+
+    /**
+     * Throws IllegalArgumentException if parameter is null
+     */
+    private void validateNotNull(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Null item");
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/******************************************************************************
+ *  Compilation:  javac RingBufferDeque.java
+ *  Execution:    none
+ *  Dependencies: none
+ *
+ *  Array-backed implementation of the Deque API: a circular buffer with
+ *  power-of-two capacity, so wrap-around is a bit mask instead of a branch
+ *  or a modulo.
+ ******************************************************************************/
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Double Ended Queue backed by a resizing circular array.
+ * Same API and iteration order as {@link Deque}, without a Node per item: about 4 bytes (one compressed
+ * reference) per slot instead of about 32 bytes per item, nothing to allocate on add, and iteration walks
+ * contiguous memory.
+ * <ul>
+ *  <li>isEmpty(), size(): constant time</li>
+ *  <li>addFirst(), addLast(), removeFirst(), removeLast(): amortized constant time</li>
+ * </ul>
+ * <p>
+ * The capacity is always a power of two, at least MIN_CAPACITY. It doubles when the array is full, and
+ * halves when it is down to a quarter full, so memory stays proportional to size and a run of adds and
+ * removes at the resize boundary cannot thrash.
+ *
+ * @param <Item> A generic class.
+ */
+public class RingBufferDeque<Item> implements Iterable<Item> {
+    private static final int MIN_CAPACITY = 8;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // items[head] is the first item, items[(head + size - 1) & mask] the last. Free slots are null.
+    private Item[] items;
+    private int mask;
+    private int head;
+    private int size;
+
+    /**
+     * Constructor. Initializes a 0-element Deque.
+     */
+    public RingBufferDeque() {
+        items = newArray(MIN_CAPACITY);
+        mask = MIN_CAPACITY - 1;
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * @return true if the Deque is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of elements in the deque.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Throws an exception for null inputs
+     */
+    private void validateAdd(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException(
+                    "You cannot add null items to a Deque");
+        }
+    }
+
+    /**
+     * Throws an exception if the deque is already empty
+     */
+    private void validateRemove() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("You cannot remove items " +
+                    "from an empty Deque");
+        }
+    }
+
+    /**
+     * Adds an item to the front of the queue.
+     * This will be the first item returned by removeFirst().
+     *
+     * @param item A non-null object.
+     * @throws IllegalArgumentException if item is null.
+     * @throws IllegalStateException if the deque already holds the maximum 2^30 items.
+     */
+    public void addFirst(Item item) {
+        validateAdd(item);
+        if (size == items.length) {
+            resize(grownCapacity());
+        }
+        head = (head - 1) & mask;
+        items[head] = item;
+        size++;
+    }
+
+    /**
+     * Adds an item to the back of the queue.
+     * This will be the first item returned by removeLast().
+     *
+     * @param item A non-null object.
+     * @throws IllegalArgumentException if item is null.
+     * @throws IllegalStateException if the deque already holds the maximum 2^30 items.
+     */
+    public void addLast(Item item) {
+        validateAdd(item);
+        if (size == items.length) {
+            resize(grownCapacity());
+        }
+        items[(head + size) & mask] = item;
+        size++;
+    }
+
+    /**
+     * Removes the item at the front of the deque and returns it.
+     *
+     * @return The item at the front of the deque.
+     * @throws NoSuchElementException if the deque is empty.
+     */
+    public Item removeFirst() {
+        validateRemove();
+        Item item = items[head];
+        items[head] = null;  // garbage collection optimization
+        head = (head + 1) & mask;
+        size--;
+        shrinkIfSparse();
+        return item;
+    }
+
+    /**
+     * Removes and returns the most recently added item from the queue.
+     * @return The most recently added item in the queue.
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public Item removeLast() {
+        validateRemove();
+        int tail = (head + size - 1) & mask;
+        Item item = items[tail];
+        items[tail] = null;  // garbage collection optimization
+        size--;
+        shrinkIfSparse();
+        return item;
+    }
+
+    /**
+     * @return The number of slots in the backing array. Always a power of two.
+     */
+    int capacity() {
+        return items.length;
+    }
+
+    /**
+     * Helper method for the capacity to grow to when the array is full.
+     *
+     * @throws IllegalStateException if the array is already as large as it can be.
+     */
+    private int grownCapacity() {
+        if (items.length == MAX_CAPACITY) {
+            throw new IllegalStateException("A RingBufferDeque cannot hold more than " + MAX_CAPACITY + " items");
+        }
+        return items.length << 1;
+    }
+
+    /**
+     * Helper method to halve the array once it is only a quarter full.
+     */
+    private void shrinkIfSparse() {
+        if (items.length > MIN_CAPACITY && size <= items.length >>> 2) {
+            resize(items.length >>> 1);
+        }
+    }
+
+    /**
+     * Helper method to move the items into a new array of the given capacity, unwrapped so head is 0.
+     * The capacity must be a power of two, and at least size.
+     */
+    private void resize(int capacity) {
+        Item[] resized = newArray(capacity);
+        int firstRun = Math.min(size, items.length - head);
+        System.arraycopy(items, head, resized, 0, firstRun);
+        System.arraycopy(items, 0, resized, firstRun, size - firstRun);
+        items = resized;
+        mask = capacity - 1;
+        head = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Item> Item[] newArray(int capacity) {
+        return (Item[]) new Object[capacity];
+    }
+
+    public Iterator<Item> iterator() {
+        return new RingBufferDequeIterator();
+    }
+
+    /**
+     * Iterator over the Deque.
+     * Iterates front-to-back (FIFO) order.
+     * Supports next() and hasNext(), but will throw UnsupportedOperationEx
+     * for remove().
+     */
+    private class RingBufferDequeIterator implements Iterator<Item> {
+        // Position of the next item, counted from the front
+        private int index = 0;
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return items[(head + index++) & mask];
+        }
+    }
+}
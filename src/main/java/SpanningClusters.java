@@ -0,0 +1,119 @@
+/******************************************************************************
+ *  Compilation:  javac SpanningClusters.java
+ *  Execution:    none
+ *  Dependencies: UnionFind.java PathHalvingUF.java LibraryUnionFind.java PercolationMetrics.java
+ *
+ *  Union-find core shared by site percolation (Percolation) and bond
+ *  percolation (BondPercolation): clusters of sites, plus whether each
+ *  cluster touches the top and the bottom boundary.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ * Clusters of lattice sites, each tagged with whether it touches the top row and the bottom row.
+ * <p>
+ * There are no hidden top/bottom nodes, so there is no backwash. Instead the root of every cluster carries
+ * the union of the boundary flags of its sites, and the clusters percolate as soon as any root carries both.
+ */
+final class SpanningClusters {
+    // Per-root connectivity flags. A cluster's root carries the union of the flags of every site in the cluster.
+    static final byte CONNECTED_TO_TOP = 1;
+    static final byte CONNECTED_TO_BOTTOM = 2;
+    static final byte CONNECTED_TO_BOTH = CONNECTED_TO_TOP | CONNECTED_TO_BOTTOM;
+
+    private final UnionFind unionFind;
+
+    // rootFlags[r] holds CONNECTED_TO_TOP / CONNECTED_TO_BOTTOM bits for the cluster rooted at r.
+    // Entries for non-root nodes are stale and must not be read.
+    private final byte[] rootFlags;
+
+    // Set once any cluster is connected to both the top and the bottom. Percolation is monotonic.
+    private boolean percolates;
+
+    /**
+     * Creates n singleton clusters with no flags.
+     *
+     * @param n                   Number of sites.
+     * @param useLibraryUnionFind If true, wraps the algs4 WeightedQuickUnionUF. Otherwise uses {@link PathHalvingUF}.
+     */
+    SpanningClusters(int n, boolean useLibraryUnionFind) {
+        unionFind = useLibraryUnionFind ? new LibraryUnionFind(n) : new PathHalvingUF(n);
+        rootFlags = new byte[n];
+        percolates = false;
+    }
+
+    /**
+     * Puts every site back into its own cluster and clears every flag.
+     */
+    void reset() {
+        unionFind.reset();
+        Arrays.fill(rootFlags, (byte) 0);
+        percolates = false;
+    }
+
+    /**
+     * Adds boundary flags to the cluster containing the given site.
+     *
+     * @param site  0-based site number.
+     * @param flags Any combination of CONNECTED_TO_TOP and CONNECTED_TO_BOTTOM.
+     */
+    void addFlags(int site, byte flags) {
+        int root = unionFind.find(site);
+        byte merged = (byte) (rootFlags[root] | flags);
+        rootFlags[root] = merged;
+        if (merged == CONNECTED_TO_BOTH) {
+            percolates = true;
+        }
+    }
+
+    /**
+     * Merges the clusters containing the two given sites. The merged cluster carries the flags of both.
+     *
+     * @param p One site.
+     * @param q The other site.
+     */
+    void union(int p, int q) {
+        // Read both clusters' flags while their roots are still roots, then merge
+        int rootP = unionFind.find(p);
+        int rootQ = unionFind.find(q);
+        if (PercolationMetrics.ENABLED) {
+            PercolationMetrics.recordUnion(rootP != rootQ);
+        }
+        if (rootP == rootQ) {
+            return;
+        }
+        byte merged = (byte) (rootFlags[rootP] | rootFlags[rootQ]);
+
+        // Link the two roots directly, and store the merged flags on whichever ended up as the root
+        rootFlags[unionFind.unionRoots(rootP, rootQ)] = merged;
+        if (merged == CONNECTED_TO_BOTH) {
+            percolates = true;
+        }
+    }
+
+    /**
+     * @param site 0-based site number.
+     * @return True if the cluster containing the site touches the top row.
+     */
+    boolean isConnectedToTop(int site) {
+        return (rootFlags[unionFind.find(site)] & CONNECTED_TO_TOP) != 0;
+    }
+
+    /**
+     * @param site 0-based site number.
+     * @return The number of sites in the cluster containing the site.
+     * @throws UnsupportedOperationException if running on the algs4 union-find.
+     */
+    int size(int site) {
+        return unionFind.size(site);
+    }
+
+    /**
+     * @return True if any cluster touches both the top and the bottom row.
+     */
+    boolean percolates() {
+        return percolates;
+    }
+}
@@ -0,0 +1,74 @@
+/******************************************************************************
+ *  Compilation:  javac UnionFind.java
+ *  Execution:    none
+ *  Dependencies: none
+ *
+ *  Minimal Union-Find (disjoint-sets) API shared by the union-find engines
+ *  that Percolation can run on.
+ *
+ ******************************************************************************/
+
+/**
+ * Union-Find (disjoint-sets) data type over the integers 0 through n-1.
+ * Mirrors the API of {@code edu.princeton.cs.algs4.WeightedQuickUnionUF} so
+ * that implementations can be swapped without touching the caller.
+ */
+public interface UnionFind {
+    /**
+     * Returns the canonical element (root) of the set containing element p.
+     *
+     * @param p An element.
+     * @return The root of the set containing p.
+     */
+    int find(int p);
+
+    /**
+     * Merges the set containing element p with the set containing element q.
+     *
+     * @param p One element.
+     * @param q The other element.
+     */
+    void union(int p, int q);
+
+    /**
+     * Merges two distinct sets given by their roots, and returns the root of the merged set.
+     * For callers that already hold both roots: implementations can link them without another find().
+     * The default implementation is union() followed by find().
+     *
+     * @param rootP The root of one set.
+     * @param rootQ The root of another set. Must differ from rootP.
+     * @return The root of the merged set: rootP or rootQ.
+     */
+    default int unionRoots(int rootP, int rootQ) {
+        union(rootP, rootQ);
+        return find(rootP);
+    }
+
+    /**
+     * Determines whether two elements are in the same set.
+     *
+     * @param p One element.
+     * @param q The other element.
+     * @return True if p and q are in the same set.
+     */
+    boolean connected(int p, int q);
+
+    /**
+     * @return The number of disjoint sets.
+     */
+    int count();
+
+    /**
+     * Returns the number of elements in the set containing element p.
+     * Optional operation: implementations that do not track set sizes throw UnsupportedOperationException.
+     *
+     * @param p An element.
+     * @return The size of the set containing p.
+     */
+    int size(int p);
+
+    /**
+     * Puts every element back into its own singleton set, as if freshly constructed.
+     */
+    void reset();
+}
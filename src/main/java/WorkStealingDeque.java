@@ -0,0 +1,336 @@
+/******************************************************************************
+ *  Compilation:  javac WorkStealingDeque.java
+ *  Execution:    java WorkStealingDeque [maxThreads] [items]
+ *  Dependencies: Deque.java StdOut.java Stopwatch.java
+ *
+ *  Chase-Lev work-stealing deque: the owning thread pushes and pops tasks at
+ *  the back without locks, while any number of thieves take tasks from the
+ *  front with a compare-and-set.
+ *
+ *  Running it as a program benchmarks it against a Deque guarded by a lock:
+ *  one owner thread pushes items (all) and pops (every other one) at the back,
+ *  while t - 1 thieves take from the front, for t = 1, 2, 4, ... maxThreads
+ *  (default 32). Every item must come out exactly once.
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent Double Ended Queue for work stealing (Chase and Lev, "Dynamic Circular Work-Stealing Deque").
+ * <ul>
+ *  <li>addLast(), removeLast(), pollLast(): owner thread only. Lock-free: no CAS at all, except to race
+ *      the thieves for the very last item.</li>
+ *  <li>removeFirst(), pollFirst(): any thread. One CAS on top; a thief that loses the race retries.</li>
+ * </ul>
+ * The items live in a growable circular array indexed by two ever-increasing counters: top (next item to
+ * steal) and bottom (next free slot). Growing copies the live items into an array twice the size; thieves
+ * still reading the old array get the same items from it, as the owner never writes to an old array again.
+ * <p>
+ * There is no addFirst(), and no iterator: neither has a lock-free work-stealing counterpart.
+ * The owner thread is not checked: calling an owner method from another thread corrupts the deque.
+ * Slots of stolen items are only cleared when reused, so up to one array's worth of stolen items may stay
+ * reachable.
+ *
+ * @param <Item> A generic class.
+ */
+public class WorkStealingDeque<Item> {
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // Index of the next item to steal. Only ever incremented, by CAS.
+    private final AtomicLong top = new AtomicLong();
+    // Index of the next free slot. Only the owner writes it.
+    private volatile long bottom;
+    // Item i is in slot i & (length - 1). Only the owner replaces the array.
+    private volatile AtomicReferenceArray<Item> array = new AtomicReferenceArray<>(MIN_CAPACITY);
+
+    /**
+     * @return true if the Deque is empty. A snapshot: may be stale as soon as it returns.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return The number of items in the deque. A snapshot: may be stale as soon as it returns.
+     */
+    public int size() {
+        long b = bottom;
+        long t = top.get();
+        return (int) Math.max(0, b - t);
+    }
+
+    /**
+     * Throws an exception for null inputs
+     */
+    private void validateAdd(Item item) {
+        if (item == null) {
+            throw new IllegalArgumentException(
+                    "You cannot add null items to a Deque");
+        }
+    }
+
+    /**
+     * Adds an item to the back of the queue. Owner thread only.
+     * This will be the first item returned by removeLast().
+     *
+     * @param item A non-null object.
+     * @throws IllegalArgumentException if item is null.
+     * @throws IllegalStateException if the deque already holds the maximum 2^30 items.
+     */
+    public void addLast(Item item) {
+        validateAdd(item);
+        long b = bottom;
+        long t = top.get();
+        AtomicReferenceArray<Item> a = array;
+        if (b - t >= a.length()) {
+            a = grow(a, b, t);
+        }
+        // The volatile write of bottom publishes the item to thieves
+        a.lazySet((int) b & (a.length() - 1), item);
+        bottom = b + 1;
+    }
+
+    /**
+     * Removes and returns the most recently added item from the queue. Owner thread only.
+     *
+     * @return The most recently added item in the queue.
+     * @throws NoSuchElementException if the deque is empty
+     */
+    public Item removeLast() {
+        Item item = pollLast();
+        if (item == null) {
+            throw new NoSuchElementException("You cannot remove items " +
+                    "from an empty Deque");
+        }
+        return item;
+    }
+
+    /**
+     * Removes and returns the most recently added item from the queue, or returns null if the queue is
+     * empty. Owner thread only.
+     *
+     * @return The most recently added item, or null.
+     */
+    public Item pollLast() {
+        long b = bottom - 1;
+        AtomicReferenceArray<Item> a = array;
+        // Claim slot b before looking at top (volatile write, then volatile read): a thief either sees the
+        // new bottom and backs off, or has already moved top past b, and we see that
+        bottom = b;
+        long t = top.get();
+        if (t > b) {
+            // Empty
+            bottom = b + 1;
+            return null;
+        }
+
+        int slot = (int) b & (a.length() - 1);
+        Item item = a.get(slot);
+        if (t < b) {
+            // More than one item left, so no thief can reach slot b
+            a.lazySet(slot, null);  // garbage collection optimization
+            return item;
+        }
+
+        // Last item: race the thieves for it
+        if (top.compareAndSet(t, t + 1)) {
+            a.lazySet(slot, null);
+        } else {
+            item = null;
+        }
+        bottom = b + 1;
+        return item;
+    }
+
+    /**
+     * Removes the item at the front of the deque and returns it. Any thread.
+     *
+     * @return The item at the front of the deque.
+     * @throws NoSuchElementException if the deque is empty.
+     */
+    public Item removeFirst() {
+        Item item = pollFirst();
+        if (item == null) {
+            throw new NoSuchElementException("You cannot remove items " +
+                    "from an empty Deque");
+        }
+        return item;
+    }
+
+    /**
+     * Removes the item at the front of the deque and returns it, or returns null if the deque is empty.
+     * Any thread. If another thread takes the front item first, tries again with the next one.
+     *
+     * @return The item at the front of the deque, or null.
+     */
+    public Item pollFirst() {
+        while (true) {
+            long t = top.get();
+            long b = bottom;
+            if (t >= b) {
+                return null;
+            }
+            AtomicReferenceArray<Item> a = array;
+            Item item = a.get((int) t & (a.length() - 1));
+            if (top.compareAndSet(t, t + 1)) {
+                return item;
+            }
+        }
+    }
+
+    /**
+     * Helper method to double the array. Owner thread only.
+     * Copies items t to b - 1; thieves may still take some of them from the old array.
+     */
+    private AtomicReferenceArray<Item> grow(AtomicReferenceArray<Item> a, long b, long t) {
+        if (a.length() == MAX_CAPACITY) {
+            throw new IllegalStateException("A WorkStealingDeque cannot hold more than " + MAX_CAPACITY + " items");
+        }
+        AtomicReferenceArray<Item> grown = new AtomicReferenceArray<>(a.length() << 1);
+        int oldMask = a.length() - 1;
+        int newMask = grown.length() - 1;
+        for (long i = t; i < b; i++) {
+            grown.lazySet((int) i & newMask, a.get((int) i & oldMask));
+        }
+        array = grown;
+        return grown;
+    }
+
+    /**
+     * Main method to run this class as a command-line program.
+     * See the comments at the top of this file for more information on running this program.
+     *
+     * @param args Command-line arguments.
+     * @throws InterruptedException if interrupted while waiting for the worker threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int items = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        Integer[] values = new Integer[items];
+        for (int i = 0; i < items; i++) {
+            values[i] = i;
+        }
+
+        StdOut.printf("cores                   = %d \n", Runtime.getRuntime().availableProcessors());
+        StdOut.printf("items                   = %d \n", items);
+        StdOut.printf("%-8s %18s %18s %10s\n", "threads", "lock-free (M/s)", "synchronized (M/s)", "speedup");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double lockFree = items / run(new WorkStealingQueue(), values, threads) / 1e6;
+            double locked = items / run(new SynchronizedQueue(), values, threads) / 1e6;
+            StdOut.printf("%-8d %18.2f %18.2f %10.2f\n", threads, lockFree, locked, lockFree / locked);
+        }
+    }
+
+    /**
+     * Helper method for main(): the benchmark operations, so both deques run the same code.
+     */
+    private interface TaskQueue {
+        void push(Integer item);
+
+        Integer pop();
+
+        Integer steal();
+    }
+
+    private static final class WorkStealingQueue implements TaskQueue {
+        private final WorkStealingDeque<Integer> deque = new WorkStealingDeque<>();
+
+        @Override
+        public void push(Integer item) {
+            deque.addLast(item);
+        }
+
+        @Override
+        public Integer pop() {
+            return deque.pollLast();
+        }
+
+        @Override
+        public Integer steal() {
+            return deque.pollFirst();
+        }
+    }
+
+    private static final class SynchronizedQueue implements TaskQueue {
+        private final Deque<Integer> deque = new Deque<>();
+
+        @Override
+        public synchronized void push(Integer item) {
+            deque.addLast(item);
+        }
+
+        @Override
+        public synchronized Integer pop() {
+            return deque.isEmpty() ? null : deque.removeLast();
+        }
+
+        @Override
+        public synchronized Integer steal() {
+            return deque.isEmpty() ? null : deque.removeFirst();
+        }
+    }
+
+    /**
+     * Helper method for main(): one owner pushes every item and pops after every second push, while
+     * threads - 1 thieves steal, until all items have been taken.
+     *
+     * @return The elapsed wall-clock time in seconds.
+     * @throws IllegalStateException if an item was lost or taken twice.
+     */
+    private static double run(TaskQueue queue, Integer[] values, int threads) throws InterruptedException {
+        AtomicIntegerArray taken = new AtomicIntegerArray(values.length);
+        AtomicLong remaining = new AtomicLong(values.length);
+        Thread[] workers = new Thread[threads];
+        workers[0] = new Thread(() -> {
+            for (int i = 0; i < values.length; i++) {
+                queue.push(values[i]);
+                if ((i & 1) == 1) {
+                    take(queue.pop(), taken, remaining);
+                }
+            }
+            while (remaining.get() > 0) {
+                take(queue.pop(), taken, remaining);
+            }
+        });
+        for (int w = 1; w < threads; w++) {
+            workers[w] = new Thread(() -> {
+                while (remaining.get() > 0) {
+                    take(queue.steal(), taken, remaining);
+                }
+            });
+        }
+
+        Stopwatch stopwatch = new Stopwatch();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = stopwatch.elapsedTime();
+
+        for (int i = 0; i < values.length; i++) {
+            if (taken.get(i) != 1) {
+                throw new IllegalStateException("Item " + i + " was taken " + taken.get(i) + " times");
+            }
+        }
+        return elapsed;
+    }
+
+    /**
+     * Helper method for run(): records one taken item, if any.
+     */
+    private static void take(Integer item, AtomicIntegerArray taken, AtomicLong remaining) {
+        if (item != null) {
+            taken.incrementAndGet(item);
+            remaining.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/******************************************************************************
+ *  Compilation:  javac Xoshiro256PlusPlus.java
+ *  Execution:    none
+ *  Dependencies: RandomSource.java
+ *
+ *  xoshiro256++ pseudo-random generator (Blackman and Vigna).
+ *
+ ******************************************************************************/
+
+/**
+ * xoshiro256++: 256 bits of state, period 2^256 - 1, a handful of shifts, rotates and adds per value.
+ * Not thread-safe, and not cryptographically secure.
+ * <p>
+ * The state is expanded from a 64-bit seed with SplitMix64, as the authors recommend, so that similar
+ * seeds still give unrelated streams and the state is never all zero.
+ */
+final class Xoshiro256PlusPlus implements RandomSource {
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    /**
+     * @param seed Any long.
+     */
+    Xoshiro256PlusPlus(long seed) {
+        long x = seed;
+        x += 0x9E3779B97F4A7C15L;
+        s0 = splitMix64(x);
+        x += 0x9E3779B97F4A7C15L;
+        s1 = splitMix64(x);
+        x += 0x9E3779B97F4A7C15L;
+        s2 = splitMix64(x);
+        x += 0x9E3779B97F4A7C15L;
+        s3 = splitMix64(x);
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s0 + s3, 23) + s0;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    /**
+     * Helper method for the SplitMix64 output function.
+     */
+    private static long splitMix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,159 @@
+/******************************************************************************
+ *  Compilation:  javac BondPercolationTest
+ *  Execution: tbd
+ *  Dependencies: BondPercolation.java org.junit.*
+ *
+ *  JUnit4 unit tests for BondPercolation.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BondPercolationTest {
+    private BondPercolation percolation;
+
+    @Test
+    public void twoByTwo_noOpenBonds_topRowIsFull_doesNotPercolate() {
+        percolation = new BondPercolation(2);
+        assertTrue("", percolation.isFull(0));
+        assertTrue("", percolation.isFull(1));
+        assertFalse(percolation.isFull(2));
+        assertFalse(percolation.percolates());
+        assertEquals(0, percolation.numberOfOpenBonds());
+    }
+
+    @Test
+    public void twoByTwo_openVerticalBond_percolates() {
+        percolation = new BondPercolation(2);
+        percolation.open(1, 3);
+        assertTrue("", percolation.isOpen(3, 1));
+        assertTrue("", percolation.isFull(3));
+        assertTrue("", percolation.percolates());
+        assertEquals(1, percolation.numberOfOpenBonds());
+    }
+
+    @Test
+    public void threeByThree_horizontalBondsOnly_doNotPercolate() {
+        percolation = new BondPercolation(3);
+        for (int row = 0; row < 3; row++) {
+            percolation.open(3 * row, 3 * row + 1);
+            percolation.open(3 * row + 1, 3 * row + 2);
+        }
+        assertFalse(percolation.percolates());
+        assertEquals(6, percolation.numberOfOpenBonds());
+    }
+
+    @Test
+    public void openSameBondTwice_countsOnce() {
+        percolation = new BondPercolation(3);
+        percolation.open(4, 5);
+        percolation.open(5, 4);
+        assertEquals(1, percolation.numberOfOpenBonds());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openBondBetweenNonNeighbors_throwsIllegalArgumentException() {
+        percolation = new BondPercolation(3);
+        percolation.open(0, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oneByOneGrid_hasNoBonds_throwsIllegalArgumentException() {
+        percolation = new BondPercolation(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bondSlotsDoNotFitInAnInt_throwsIllegalArgumentException() {
+        percolation = new BondPercolation(40000);
+    }
+
+    @Test
+    public void everySlot_opensEachBondExactlyOnce() {
+        for (Lattice lattice : new Lattice[] {Lattice.square(4), Lattice.triangular(4), Lattice.honeycomb(4), Lattice.cubic(3)}) {
+            percolation = new BondPercolation(lattice);
+            int opened = 0;
+            for (int slot = 0; slot < percolation.elementIndexLimit(); slot++) {
+                if (percolation.openElement(slot)) {
+                    opened++;
+                }
+            }
+            assertEquals(lattice.toString(), percolation.numberOfElements(), opened);
+            assertEquals(lattice.toString(), lattice.numberOfBonds(), percolation.numberOfOpenBonds());
+            assertTrue(lattice.toString(), percolation.percolates());
+        }
+    }
+
+    @Test
+    public void reset_closesEveryBond() {
+        percolation = new BondPercolation(Lattice.triangular(5));
+        for (int slot = 0; slot < percolation.elementIndexLimit(); slot++) {
+            percolation.openElement(slot);
+        }
+        percolation.reset();
+        assertEquals(0, percolation.numberOfOpenBonds());
+        assertFalse(percolation.percolates());
+        assertTrue("", percolation.isFull(0));
+        assertFalse(percolation.isFull(5));
+        assertFalse(percolation.isOpen(0, 1));
+    }
+
+    @Test
+    public void randomOpenings_isFullAndPercolates_agreeWithFloodFill() {
+        Random random = new Random(11);
+        for (Lattice lattice : new Lattice[] {Lattice.square(8), Lattice.honeycomb(8), Lattice.cubic(4)}) {
+            for (boolean useLibraryUnionFind : new boolean[] {false, true}) {
+                percolation = new BondPercolation(lattice, useLibraryUnionFind);
+                int sites = lattice.numberOfSites();
+                boolean[][] open = new boolean[sites][sites];
+                int[] buffer = new int[lattice.maxDegree()];
+                for (int step = 0; step < 3 * sites; step++) {
+                    int site = random.nextInt(sites);
+                    int neighbor = buffer[random.nextInt(lattice.neighbors(site, buffer))];
+                    percolation.open(site, neighbor);
+                    open[site][neighbor] = true;
+                    open[neighbor][site] = true;
+
+                    boolean[] full = floodFillFromTop(lattice, open);
+                    boolean bottomRowFull = false;
+                    for (int s = 0; s < sites; s++) {
+                        assertEquals(full[s], percolation.isFull(s));
+                    }
+                    for (int s = sites - lattice.sitesPerRow(); s < sites; s++) {
+                        bottomRowFull |= full[s];
+                    }
+                    assertEquals(bottomRowFull, percolation.percolates());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reference implementation: sites reachable from the top row through open bonds.
+     */
+    private static boolean[] floodFillFromTop(Lattice lattice, boolean[][] open) {
+        int sites = lattice.numberOfSites();
+        boolean[] full = new boolean[sites];
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        for (int s = 0; s < lattice.sitesPerRow(); s++) {
+            full[s] = true;
+            stack.push(s);
+        }
+        int[] buffer = new int[lattice.maxDegree()];
+        while (!stack.isEmpty()) {
+            int site = stack.pop();
+            int degree = lattice.neighbors(site, buffer);
+            for (int i = 0; i < degree; i++) {
+                int neighbor = buffer[i];
+                if (open[site][neighbor] && !full[neighbor]) {
+                    full[neighbor] = true;
+                    stack.push(neighbor);
+                }
+            }
+        }
+        return full;
+    }
+}
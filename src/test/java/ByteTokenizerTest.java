@@ -0,0 +1,165 @@
+/******************************************************************************
+ *  Compilation:  javac ByteTokenizerTest.java
+ *  Execution:    java ByteTokenizerTest
+ *  Dependencies: ByteTokenizer.java ByteSink.java org.junit.*
+ *
+ *  Unit tests for ByteTokenizer and ByteSink.
+ *
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import static org.junit.Assert.*;
+
+public class ByteTokenizerTest {
+
+    private static ByteTokenizer tokenizer(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return new ByteTokenizer(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * A channel that hands out at most three bytes per read, so tokens straddle many fills.
+     */
+    private static ByteTokenizer trickle(String text) {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        return new ByteTokenizer(new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) {
+                if (!bytes.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(3, Math.min(dst.remaining(), bytes.remaining()));
+                for (int i = 0; i < n; i++) {
+                    dst.put(bytes.get());
+                }
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    private static List<String> readAll(ByteTokenizer tokenizer) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        while (tokenizer.hasNext()) {
+            tokens.add(tokenizer.next());
+        }
+        return tokens;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_null_shouldThrow() {
+        new ByteTokenizer(null);
+    }
+
+    @Test
+    public void next_shouldSplitOnAnyAsciiWhitespace() throws IOException {
+        String text = "  to be\tor\r\nnot\u000Bto\fbe \u001C that\n";
+        assertEquals(Arrays.asList("to", "be", "or", "not", "to", "be", "that"), readAll(tokenizer(text)));
+    }
+
+    @Test
+    public void next_shouldMatchScanner() throws IOException {
+        String text = "h\u00E9llo w\u00F6rld  \u2211 42\n\n-7 last";
+        List<String> expected = new ArrayList<>();
+        Scanner scanner = new Scanner(text);
+        while (scanner.hasNext()) {
+            expected.add(scanner.next());
+        }
+        assertEquals(expected, readAll(tokenizer(text)));
+        assertEquals(expected, readAll(trickle(text)));
+    }
+
+    @Test
+    public void next_tokenLongerThanBuffer_shouldBeReadWhole() throws IOException {
+        char[] chars = new char[3 * ByteTokenizer.BUFFER_SIZE + 5];
+        Arrays.fill(chars, 'x');
+        String longToken = new String(chars);
+        assertEquals(Arrays.asList("a", longToken, "b"), readAll(tokenizer("a " + longToken + " b")));
+        assertEquals(Arrays.asList("a", longToken), readAll(tokenizer("a " + longToken)));
+    }
+
+    @Test
+    public void emptyOrBlankInput_shouldHaveNoTokens() throws IOException {
+        assertFalse(tokenizer("").hasNext());
+        assertFalse(tokenizer(" \n\t ").hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void next_atEnd_shouldThrow() throws IOException {
+        ByteTokenizer tokenizer = tokenizer("only");
+        tokenizer.next();
+        tokenizer.next();
+    }
+
+    @Test
+    public void skip_shouldPassOverTokens() throws IOException {
+        ByteTokenizer tokenizer = trickle("one two three four five");
+        tokenizer.skip();
+        assertEquals("two", tokenizer.next());
+        assertEquals(2, tokenizer.skip(2));
+        assertEquals("five", tokenizer.next());
+        assertEquals(0, tokenizer.skip(10));
+    }
+
+    @Test
+    public void skip_pastEnd_shouldReturnTokensSkipped() throws IOException {
+        assertEquals(3, tokenizer("a b c").skip(Long.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void skip_negative_shouldThrow() throws IOException {
+        tokenizer("a").skip(-1);
+    }
+
+    @Test
+    public void sink_shouldWriteUtf8Lines() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ByteSink sink = new ByteSink(Channels.newChannel(bytes));
+        sink.println("plain");
+        sink.println("w\u00F6rld \u2211");
+        sink.println("");
+        sink.flush();
+        assertEquals("plain\nw\u00F6rld \u2211\n\n", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void sink_shouldWriteMoreThanOneBuffer() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StringBuilder expected = new StringBuilder();
+        try (ByteSink sink = new ByteSink(Channels.newChannel(bytes))) {
+            for (int i = 0; i < 50000; i++) {
+                String line = (i % 7 == 0 ? "\u00E9" : "") + i;
+                sink.println(line);
+                expected.append(line).append('\n');
+            }
+        }
+        assertEquals(expected.toString(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sink_nullText_shouldThrow() throws IOException {
+        new ByteSink(Channels.newChannel(new ByteArrayOutputStream())).println(null);
+    }
+}
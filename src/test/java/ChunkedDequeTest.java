@@ -0,0 +1,156 @@
+/******************************************************************************
+ *  Compilation:  javac ChunkedDequeTest
+ *  Execution: tbd
+ *  Dependencies: ChunkedDeque.java org.junit.Test org.junit.Assert
+ *
+ *  JUnit4 unit tests for ChunkedDeque.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ChunkedDequeTest {
+    private static final int BLOCK = ChunkedDeque.BLOCK_SIZE;
+
+    @Test
+    public void newDequeIsEmpty() {
+        ChunkedDeque<Integer> deque = new ChunkedDeque<>();
+        assertTrue(deque.isEmpty());
+        assertEquals(0, deque.size());
+        assertFalse(deque.iterator().hasNext());
+    }
+
+    @Test
+    public void addFirst_thenAddLast_shouldAddInCorrectOrder() {
+        ChunkedDeque<Integer> deque = new ChunkedDeque<>();
+        deque.addFirst(1);
+        deque.addLast(2);
+        deque.addFirst(0);
+        deque.addLast(3);
+        int expected = 0;
+        for (int item : deque) {
+            assertEquals(expected++, item);
+        }
+        assertEquals(4, expected);
+    }
+
+    @Test
+    public void addLastAcrossManyBlocks_thenRemoveFirst_shouldKeepFifoOrder() {
+        ChunkedDeque<Integer> deque = new ChunkedDeque<>();
+        int count = 5 * BLOCK + 7;
+        for (int i = 0; i < count; i++) {
+            deque.addLast(i);
+        }
+        int expected = 0;
+        for (int item : deque) {
+            assertEquals(expected++, item);
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) deque.removeFirst());
+        }
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void addFirstAcrossManyBlocks_thenRemoveFirst_shouldKeepLifoOrder() {
+        ChunkedDeque<Integer> deque = new ChunkedDeque<>();
+        int count = 3 * BLOCK + 1;
+        for (int i = 0; i < count; i++) {
+            deque.addFirst(i);
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            assertEquals(i, (int) deque.removeFirst());
+        }
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void emptiedBlocks_shouldBeRecycledUpToTheLimit() {
+        ChunkedDeque<Integer> deque = new ChunkedDeque<>();
+        int count = (ChunkedDeque.MAX_FREE_BLOCKS + 4) * BLOCK;
+        for (int i = 0; i < count; i++) {
+            deque.addLast(i);
+        }
+        for (int i = 0; i < count; i++) {
+            deque.removeLast();
+        }
+        assertEquals(ChunkedDeque.MAX_FREE_BLOCKS, deque.freeBlocks());
+
+        // Growing again takes blocks from the free-list first
+        for (int i = 0; i < BLOCK; i++) {
+            deque.addLast(i);
+        }
+        assertEquals(ChunkedDeque.MAX_FREE_BLOCKS - 1, deque.freeBlocks());
+    }
+
+    @Test
+    public void randomOperations_matchArrayDeque() {
+        ChunkedDeque<Integer> deque = new ChunkedDeque<>();
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        Random random = new Random(18);
+        for (int step = 0; step < 200000; step++) {
+            // Drift in phases, so the deque repeatedly grows and shrinks across several blocks
+            int bias = (step / 5000) % 2 == 0 ? 3 : 1;
+            int operation = random.nextInt(4 + bias);
+            if (operation == 0 || operation >= 4) {
+                deque.addLast(step);
+                expected.addLast(step);
+            } else if (operation == 1) {
+                deque.addFirst(step);
+                expected.addFirst(step);
+            } else if (operation == 2 && !expected.isEmpty()) {
+                assertEquals(expected.removeFirst(), deque.removeFirst());
+            } else if (operation == 3 && !expected.isEmpty()) {
+                assertEquals(expected.removeLast(), deque.removeLast());
+            }
+            assertEquals(expected.size(), deque.size());
+        }
+        Iterator<Integer> iterator = deque.iterator();
+        for (Integer item : expected) {
+            assertEquals(item, iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_nextPastEnd_shouldThrowNoSuchElementException() {
+        ChunkedDeque<Integer> deque = new ChunkedDeque<>();
+        deque.addLast(1);
+        Iterator<Integer> iterator = deque.iterator();
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void iterator_remove_shouldThrowUnsupportedOperationException() {
+        ChunkedDeque<Integer> deque = new ChunkedDeque<>();
+        deque.addLast(1);
+        deque.iterator().remove();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addFirstWithNullItem_ShouldThrowIllegalArgumentException() {
+        new ChunkedDeque<Integer>().addFirst(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addLastWithNullItem_ShouldThrowIllegalArgumentException() {
+        new ChunkedDeque<Integer>().addLast(null);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeFirstFromEmptyDeque_ShouldThrowNoSuchElementException() {
+        new ChunkedDeque<Integer>().removeFirst();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeLastFromEmptyDeque_ShouldThrowNoSuchElementException() {
+        new ChunkedDeque<Integer>().removeLast();
+    }
+}
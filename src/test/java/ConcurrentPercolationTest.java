@@ -0,0 +1,176 @@
+/******************************************************************************
+ *  Compilation:  javac ConcurrentPercolationTest
+ *  Execution: tbd
+ *  Dependencies: ConcurrentPercolation.java ConcurrentUnionFind.java Percolation.java PathHalvingUF.java org.junit.*
+ *
+ *  JUnit4 unit tests for ConcurrentPercolation.java and ConcurrentUnionFind.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentPercolationTest {
+    private ConcurrentPercolation percolation;
+
+    @Test
+    public void oneByOne_openSite_percolates() {
+        percolation = new ConcurrentPercolation(1);
+        assertFalse(percolation.percolates());
+        percolation.open(1, 1);
+        assertTrue("", percolation.isFull(0));
+        assertTrue("", percolation.percolates());
+        assertEquals(1, percolation.numberOfOpenSites());
+    }
+
+    @Test
+    public void openSameSiteTwice_countsOnce() {
+        percolation = new ConcurrentPercolation(3);
+        percolation.open(2, 2);
+        percolation.open(4);
+        assertEquals(1, percolation.numberOfOpenSites());
+        assertFalse(percolation.openElement(4));
+    }
+
+    @Test
+    public void singleThread_matchesSequentialPercolation_onEveryLattice() {
+        Random random = new Random(14);
+        for (Lattice lattice : new Lattice[]{Lattice.square(12), Lattice.triangular(12), Lattice.honeycomb(12),
+                Lattice.cubic(6)}) {
+            Percolation sequential = new Percolation(lattice);
+            percolation = new ConcurrentPercolation(lattice);
+            int sites = lattice.numberOfSites();
+            for (int step = 0; step < sites; step++) {
+                int site = random.nextInt(sites);
+                sequential.open(site);
+                percolation.open(site);
+                assertEquals(lattice.toString(), sequential.percolates(), percolation.percolates());
+            }
+            assertSameState(sequential, percolation);
+        }
+    }
+
+    @Test
+    public void manyThreads_matchSequentialPercolation() throws InterruptedException {
+        Lattice lattice = Lattice.square(64);
+        int sites = lattice.numberOfSites();
+        Random random = new Random(1400);
+        for (int round = 0; round < 20; round++) {
+            double p = 0.5 + 0.2 * random.nextDouble();
+            int[] chosen = new int[sites];
+            int count = 0;
+            Percolation sequential = new Percolation(lattice);
+            for (int site = 0; site < sites; site++) {
+                if (random.nextDouble() < p) {
+                    chosen[count++] = site;
+                    sequential.open(site);
+                }
+            }
+
+            // The final state does not depend on the order sites were opened in
+            percolation = new ConcurrentPercolation(lattice);
+            int threads = 8;
+            Thread[] workers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                int last = count;
+                workers[t] = new Thread(() -> {
+                    for (int i = first; i < last; i += threads) {
+                        percolation.open(chosen[i]);
+                    }
+                });
+            }
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            assertSameState(sequential, percolation);
+        }
+    }
+
+    @Test
+    public void reset_closesEverySite() {
+        percolation = new ConcurrentPercolation(4);
+        for (int site = 0; site < 16; site++) {
+            percolation.open(site);
+        }
+        assertTrue(percolation.percolates());
+        percolation.reset();
+        assertFalse(percolation.percolates());
+        assertEquals(0, percolation.numberOfOpenSites());
+        assertFalse(percolation.isFull(0));
+    }
+
+    @Test
+    public void concurrentUnionFind_matchesPathHalvingUF() throws InterruptedException {
+        int n = 2000;
+        Random random = new Random(7);
+        int[][] pairs = new int[3000][2];
+        PathHalvingUF sequential = new PathHalvingUF(n);
+        for (int[] pair : pairs) {
+            pair[0] = random.nextInt(n);
+            pair[1] = random.nextInt(n);
+            sequential.union(pair[0], pair[1]);
+        }
+
+        ConcurrentUnionFind unionFind = new ConcurrentUnionFind(n);
+        int threads = 4;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            workers[t] = new Thread(() -> {
+                for (int i = first; i < pairs.length; i += threads) {
+                    unionFind.union(pairs[i][0], pairs[i][1]);
+                }
+            });
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(sequential.count(), unionFind.count());
+        for (int i = 0; i < n; i++) {
+            int j = random.nextInt(n);
+            assertEquals(sequential.connected(i, j), unionFind.connected(i, j));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void concurrentUnionFind_size_throwsUnsupportedOperationException() {
+        new ConcurrentUnionFind(3).size(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullLattice_throwsIllegalArgumentException() {
+        new ConcurrentPercolation((Lattice) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openOutOfBounds_throwsIllegalArgumentException() {
+        percolation = new ConcurrentPercolation(3);
+        percolation.open(4, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void isFullNegativeSite_throwsIllegalArgumentException() {
+        percolation = new ConcurrentPercolation(3);
+        percolation.isFull(-1);
+    }
+
+    private static void assertSameState(Percolation expected, ConcurrentPercolation actual) {
+        int sites = expected.lattice().numberOfSites();
+        assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+        assertEquals(expected.percolates(), actual.percolates());
+        for (int site = 0; site < sites; site++) {
+            assertEquals("site " + site, expected.isOpen(site), actual.isOpen(site));
+            assertEquals("site " + site, expected.isFull(site), actual.isFull(site));
+        }
+    }
+}
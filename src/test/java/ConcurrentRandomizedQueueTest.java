@@ -0,0 +1,189 @@
+/******************************************************************************
+ *  Compilation:  javac ConcurrentRandomizedQueueTest.java
+ *  Execution:    java ConcurrentRandomizedQueueTest
+ *  Dependencies: ConcurrentRandomizedQueue.java org.junit.*
+ *
+ *  Unit, uniformity and concurrency tests for ConcurrentRandomizedQueue class.
+ *
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentRandomizedQueueTest {
+
+    @Test
+    public void newQueue_shouldBeEmpty() {
+        ConcurrentRandomizedQueue<String> queue = new ConcurrentRandomizedQueue<>(4);
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        assertFalse(queue.iterator().hasNext());
+    }
+
+    @Test
+    public void enqueueFiveItems_thenDequeueFiveItems_shouldReturnEachOnce() {
+        ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>(4);
+        for (int i = 0; i < 5; i++) {
+            queue.enqueue(i);
+        }
+        assertEquals(5, queue.size());
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(seen.add(queue.dequeue()));
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void iterator_shouldVisitEveryItemOnce() {
+        ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>(4);
+        for (int i = 0; i < 50; i++) {
+            queue.enqueue(i);
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (int item : queue) {
+            assertTrue(seen.add(item));
+        }
+        assertEquals(50, seen.size());
+    }
+
+    @Test
+    public void sample_fromUnevenStripes_shouldBeUniform() throws InterruptedException {
+        // Four threads fill their stripes very unevenly: 1, 5, 20 and 74 items
+        int[] counts = {1, 5, 20, 74};
+        int items = 100;
+        ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>(8);
+        int first = 0;
+        for (int count : counts) {
+            int from = first;
+            Thread producer = new Thread(() -> {
+                for (int i = from; i < from + count; i++) {
+                    queue.enqueue(i);
+                }
+            });
+            producer.start();
+            producer.join();
+            first += count;
+        }
+
+        int samples = 200000;
+        int[] histogram = new int[items];
+        for (int i = 0; i < samples; i++) {
+            histogram[queue.sample()]++;
+        }
+
+        // Chi-squared with 99 degrees of freedom: 160 is well beyond the 0.1% critical value (148)
+        double expected = (double) samples / items;
+        double chiSquared = 0;
+        for (int count : histogram) {
+            chiSquared += (count - expected) * (count - expected) / expected;
+        }
+        assertTrue("chi-squared = " + chiSquared, chiSquared < 160);
+    }
+
+    @Test
+    public void dequeue_afterStripesShrink_shouldStillFindLastItems() {
+        ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>(16);
+        for (int i = 0; i < 10000; i++) {
+            queue.enqueue(i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            queue.dequeue();
+        }
+        queue.enqueue(7);
+        assertEquals(7, (int) queue.dequeue());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void dequeue_fromShrunkenSingleStripe_shouldLowerSizeBound() {
+        // One producer thread: every item is in one stripe, so the bound can only drop as it drains
+        ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>(8);
+        for (int i = 0; i < 1000; i++) {
+            queue.enqueue(i);
+        }
+        assertEquals(1000, queue.sizeBound());
+        for (int i = 0; i < 990; i++) {
+            queue.dequeue();
+        }
+        assertEquals(10, queue.size());
+        assertTrue("size bound = " + queue.sizeBound(), queue.sizeBound() < 1000);
+        assertTrue(queue.sizeBound() >= 10);
+    }
+
+    @Test
+    public void concurrentProducersAndConsumers_shouldDequeueEveryItemOnce() throws InterruptedException {
+        int perThread = 20000;
+        int threads = 4;
+        ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>(threads);
+        AtomicIntegerArray taken = new AtomicIntegerArray(perThread * threads);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = first; i < first + perThread; i++) {
+                    queue.enqueue(i);
+                    if (i % 2 == 1) {
+                        taken.incrementAndGet(queue.dequeue());
+                    }
+                }
+            });
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        while (!queue.isEmpty()) {
+            taken.incrementAndGet(queue.dequeue());
+        }
+        for (int i = 0; i < taken.length(); i++) {
+            assertEquals("item " + i, 1, taken.get(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void enqueueNull_shouldThrowIllegalArgumentException() {
+        new ConcurrentRandomizedQueue<String>(2).enqueue(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroStripes_shouldThrowIllegalArgumentException() {
+        new ConcurrentRandomizedQueue<String>(0);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void dequeueFromEmptyQueue_shouldThrowNoSuchElementException() {
+        new ConcurrentRandomizedQueue<String>(2).dequeue();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void dequeueFromEmptiedQueue_shouldThrowNoSuchElementException() {
+        ConcurrentRandomizedQueue<String> queue = new ConcurrentRandomizedQueue<>(2);
+        queue.enqueue("a");
+        queue.dequeue();
+        queue.dequeue();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void sampleFromEmptyQueue_throwsNoSuchElementException() {
+        new ConcurrentRandomizedQueue<String>(2).sample();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void removeOnIterator_shouldThrowUnsupportedOperationException() {
+        ConcurrentRandomizedQueue<String> queue = new ConcurrentRandomizedQueue<>(2);
+        queue.enqueue("a");
+        Iterator<String> iterator = queue.iterator();
+        iterator.next();
+        iterator.remove();
+    }
+}
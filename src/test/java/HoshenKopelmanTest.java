@@ -0,0 +1,185 @@
+/******************************************************************************
+ *  Compilation:  javac HoshenKopelmanTest
+ *  Execution: tbd
+ *  Dependencies: HoshenKopelman.java Percolation.java org.junit.*
+ *
+ *  JUnit4 unit tests for HoshenKopelman.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class HoshenKopelmanTest {
+    private HoshenKopelman clusters;
+
+    @Test
+    public void noOpenSites_hasNoClusters() {
+        clusters = new HoshenKopelman(new Percolation(4));
+        assertEquals(0, clusters.numberOfClusters());
+        assertEquals(0, clusters.largestCluster());
+        assertEquals(0, clusters.count(1));
+    }
+
+    @Test
+    public void allSitesOpen_isOneCluster() {
+        Percolation percolation = new Percolation(5);
+        for (int site = 0; site < 25; site++) {
+            percolation.open(site);
+        }
+        clusters = new HoshenKopelman(percolation);
+        assertEquals(1, clusters.numberOfClusters());
+        assertEquals(25, clusters.largestCluster());
+        assertEquals(1, clusters.count(25));
+    }
+
+    @Test
+    public void uShape_mergesTwoLabelsInTheLastRow() {
+        // X . X
+        // X . X
+        // X X X
+        Percolation percolation = new Percolation(3);
+        for (int site : new int[] {0, 2, 3, 5, 6, 7, 8}) {
+            percolation.open(site);
+        }
+        clusters = new HoshenKopelman(percolation);
+        assertEquals(1, clusters.numberOfClusters());
+        assertEquals(1, clusters.count(7));
+    }
+
+    @Test
+    public void checkerboard_isAllSingletons() {
+        Percolation percolation = new Percolation(6);
+        for (int site = 0; site < 36; site++) {
+            if (((site / 6) + (site % 6)) % 2 == 0) {
+                percolation.open(site);
+            }
+        }
+        clusters = new HoshenKopelman(percolation);
+        assertEquals(18, clusters.numberOfClusters());
+        assertEquals(18, clusters.count(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void countOfSizeZero_throwsIllegalArgumentException() {
+        new HoshenKopelman(new Percolation(2)).count(0);
+    }
+
+    @Test
+    public void randomSystems_histogramAgreesWithFloodFill() {
+        Random random = new Random(3);
+        for (Lattice lattice : new Lattice[] {Lattice.square(20), Lattice.triangular(20), Lattice.honeycomb(20),
+                Lattice.cubic(7)}) {
+            for (double p : new double[] {0.3, 0.5, 0.6, 0.8}) {
+                Percolation percolation = new Percolation(lattice);
+                for (int site = 0; site < lattice.numberOfSites(); site++) {
+                    if (random.nextDouble() < p) {
+                        percolation.open(site);
+                    }
+                }
+                TreeMap<Integer, Long> expected = floodFillHistogram(percolation);
+                clusters = new HoshenKopelman(percolation);
+                long total = 0;
+                for (int size = 1; size <= lattice.numberOfSites(); size++) {
+                    Long count = expected.get(size);
+                    assertEquals(lattice + " p=" + p + " size=" + size, count == null ? 0 : count, clusters.count(size));
+                    total += clusters.count(size);
+                }
+                assertEquals(total, clusters.numberOfClusters());
+                assertEquals(expected.isEmpty() ? 0 : (int) expected.lastKey(), clusters.largestCluster());
+            }
+        }
+    }
+
+    @Test
+    public void writeCsv_listsSizesInAscendingOrder() throws IOException {
+        // X X . X
+        // . . . X
+        // X . . .
+        // X . X X
+        Percolation percolation = new Percolation(4);
+        for (int site : new int[] {0, 1, 3, 7, 8, 12, 14, 15}) {
+            percolation.open(site);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new HoshenKopelman(percolation).writeCsv(out);
+        assertEquals("size,count\n2,4\n", new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void writeBinary_roundTrips() throws IOException {
+        Percolation percolation = new Percolation(50);
+        Random random = new Random(5);
+        for (int site = 0; site < 2500; site++) {
+            if (random.nextDouble() < 0.7) {
+                percolation.open(site);
+            }
+        }
+        clusters = new HoshenKopelman(percolation);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        clusters.writeBinary(out);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(HoshenKopelman.BINARY_MAGIC, in.readInt());
+        assertEquals(HoshenKopelman.BINARY_VERSION, in.readInt());
+        assertEquals(2500, in.readInt());
+        assertEquals(clusters.numberOfClusters(), in.readInt());
+        int entries = in.readInt();
+        int previousSize = 0;
+        long total = 0;
+        for (int i = 0; i < entries; i++) {
+            int size = in.readInt();
+            long count = in.readLong();
+            assertTrue("", size > previousSize);
+            assertEquals(clusters.count(size), count);
+            previousSize = size;
+            total += count;
+        }
+        assertEquals(clusters.numberOfClusters(), total);
+        assertEquals(clusters.largestCluster(), previousSize);
+        assertEquals(-1, in.read());
+    }
+
+    /**
+     * Reference implementation: cluster sizes by flood fill over the whole lattice.
+     */
+    private static TreeMap<Integer, Long> floodFillHistogram(Percolation percolation) {
+        Lattice lattice = percolation.lattice();
+        int sites = lattice.numberOfSites();
+        boolean[] seen = new boolean[sites];
+        int[] buffer = new int[lattice.maxDegree()];
+        TreeMap<Integer, Long> histogram = new TreeMap<>();
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        for (int start = 0; start < sites; start++) {
+            if (seen[start] || !percolation.isOpen(start)) {
+                continue;
+            }
+            int size = 0;
+            seen[start] = true;
+            stack.push(start);
+            while (!stack.isEmpty()) {
+                int site = stack.pop();
+                size++;
+                int degree = lattice.neighbors(site, buffer);
+                for (int i = 0; i < degree; i++) {
+                    int neighbor = buffer[i];
+                    if (!seen[neighbor] && percolation.isOpen(neighbor)) {
+                        seen[neighbor] = true;
+                        stack.push(neighbor);
+                    }
+                }
+            }
+            histogram.merge(size, 1L, Long::sum);
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,123 @@
+/******************************************************************************
+ *  Compilation:  javac IntDequeTest
+ *  Execution: tbd
+ *  Dependencies: IntDeque.java org.junit.Test org.junit.Assert
+ *
+ *  JUnit4 unit tests for IntDeque.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntDequeTest {
+    @Test
+    public void newDequeIsEmpty() {
+        IntDeque deque = new IntDeque();
+        assertTrue(deque.isEmpty());
+        assertEquals(0, deque.size());
+        assertFalse(deque.iterator().hasNext());
+    }
+
+    @Test
+    public void addFirst_thenAddLast_shouldAddInCorrectOrder() {
+        IntDeque deque = new IntDeque();
+        deque.addFirst(1);
+        deque.addLast(2);
+        deque.addFirst(0);
+        deque.addLast(3);
+        PrimitiveIterator.OfInt iterator = deque.iterator();
+        for (int expected = 0; expected < 4; expected++) {
+            assertEquals(expected, iterator.nextInt());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void forEach_visitsFrontToBack() {
+        IntDeque deque = new IntDeque();
+        for (int i = 0; i < 20; i++) {
+            deque.addLast(i);
+        }
+        int[] sum = new int[1];
+        deque.forEach(value -> sum[0] = sum[0] * 31 + value);
+        int expected = 0;
+        for (int i = 0; i < 20; i++) {
+            expected = expected * 31 + i;
+        }
+        assertEquals(expected, sum[0]);
+    }
+
+    @Test
+    public void growAndShrink_shouldKeepValues() {
+        IntDeque deque = new IntDeque();
+        for (int i = 0; i < 1000; i++) {
+            deque.addFirst(i);
+        }
+        assertEquals(1024, deque.capacity());
+        for (int i = 0; i < 996; i++) {
+            assertEquals(i, deque.removeLast());
+        }
+        assertEquals(8, deque.capacity());
+        assertEquals(999, deque.removeFirst());
+    }
+
+    @Test
+    public void randomOperations_matchArrayDeque() {
+        IntDeque deque = new IntDeque();
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        Random random = new Random(19);
+        for (int step = 0; step < 100000; step++) {
+            int value = step;
+            int operation = random.nextInt(5);
+            if (operation == 0) {
+                deque.addFirst(value);
+                expected.addFirst(value);
+            } else if (operation == 1) {
+                deque.addLast(value);
+                expected.addLast(value);
+            } else if (operation == 2 && !expected.isEmpty()) {
+                assertEquals((int) expected.removeFirst(), deque.removeFirst());
+            } else if (operation == 3 && !expected.isEmpty()) {
+                assertEquals((int) expected.removeLast(), deque.removeLast());
+            }
+            assertEquals(expected.size(), deque.size());
+        }
+        PrimitiveIterator.OfInt iterator = deque.iterator();
+        for (Integer value : expected) {
+            assertEquals((int) value, iterator.nextInt());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_nextPastEnd_shouldThrowNoSuchElementException() {
+        IntDeque deque = new IntDeque();
+        deque.addLast(1);
+        PrimitiveIterator.OfInt iterator = deque.iterator();
+        iterator.nextInt();
+        iterator.nextInt();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void iterator_remove_shouldThrowUnsupportedOperationException() {
+        IntDeque deque = new IntDeque();
+        deque.addLast(1);
+        deque.iterator().remove();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeFirstFromEmptyDeque_ShouldThrowNoSuchElementException() {
+        new IntDeque().removeFirst();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeLastFromEmptyDeque_ShouldThrowNoSuchElementException() {
+        new IntDeque().removeLast();
+    }
+}
@@ -0,0 +1,124 @@
+/******************************************************************************
+ *  Compilation:  javac LatticeTest
+ *  Execution: tbd
+ *  Dependencies: Lattice.java org.junit.*
+ *
+ *  JUnit4 unit tests for Lattice.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class LatticeTest {
+
+    @Test
+    public void square_cornerHasTwoNeighbors_interiorHasFour() {
+        Lattice lattice = Lattice.square(3);
+        assertArrayEquals(new int[] {1, 3}, neighborsOf(lattice, 0));
+        assertArrayEquals(new int[] {1, 3, 5, 7}, neighborsOf(lattice, 4));
+    }
+
+    @Test
+    public void triangular_interiorHasSixNeighbors() {
+        Lattice lattice = Lattice.triangular(3);
+        assertArrayEquals(new int[] {1, 2, 3, 5, 6, 7}, neighborsOf(lattice, 4));
+        assertEquals(6, lattice.maxDegree());
+    }
+
+    @Test
+    public void honeycomb_interiorHasThreeNeighbors_alternatingUpAndDown() {
+        Lattice lattice = Lattice.honeycomb(4);
+        // (1, 1): row + col even, links down to (2, 1)
+        assertArrayEquals(new int[] {4, 6, 9}, neighborsOf(lattice, 5));
+        // (1, 2): row + col odd, links up to (0, 2)
+        assertArrayEquals(new int[] {2, 5, 7}, neighborsOf(lattice, 6));
+    }
+
+    @Test
+    public void honeycomb_neighborRelationIsSymmetric() {
+        for (Lattice lattice : new Lattice[] {Lattice.square(5), Lattice.triangular(5), Lattice.honeycomb(5), Lattice.cubic(4)}) {
+            for (int site = 0; site < lattice.numberOfSites(); site++) {
+                for (int neighbor : neighborsOf(lattice, site)) {
+                    assertTrue(lattice + " " + site + "-" + neighbor,
+                            Arrays.binarySearch(neighborsOf(lattice, neighbor), site) >= 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void cubic_interiorHasSixNeighbors_rowsAreSlabs() {
+        Lattice lattice = Lattice.cubic(3);
+        assertEquals(27, lattice.numberOfSites());
+        assertEquals(9, lattice.sitesPerRow());
+        assertEquals(3, lattice.dimensions());
+        assertArrayEquals(new int[] {4, 10, 12, 14, 16, 22}, neighborsOf(lattice, 13));
+        assertArrayEquals(new int[] {1, 3, 9}, neighborsOf(lattice, 0));
+    }
+
+    @Test
+    public void numberOfBonds_matchesNeighborCount() {
+        for (Lattice lattice : new Lattice[] {Lattice.square(1), Lattice.square(5), Lattice.triangular(5),
+                Lattice.honeycomb(5), Lattice.honeycomb(6), Lattice.cubic(4)}) {
+            long degreeSum = 0;
+            int[] buffer = new int[lattice.maxDegree()];
+            for (int site = 0; site < lattice.numberOfSites(); site++) {
+                degreeSum += lattice.neighbors(site, buffer);
+            }
+            assertEquals(lattice.toString(), degreeSum / 2, lattice.numberOfBonds());
+        }
+        assertEquals(2L * 46340 * 46339, Lattice.square(46340).numberOfBonds());
+    }
+
+    @Test
+    public void forwardNeighbors_areTheHigherNumberedNeighbors() {
+        for (Lattice lattice : new Lattice[] {Lattice.square(4), Lattice.triangular(4), Lattice.honeycomb(4), Lattice.cubic(3)}) {
+            for (int site = 0; site < lattice.numberOfSites(); site++) {
+                int[] forward = new int[lattice.forwardDegree()];
+                int count = 0;
+                for (int k = 0; k < lattice.forwardDegree(); k++) {
+                    int neighbor = lattice.forwardNeighbor(site, k);
+                    if (neighbor >= 0) {
+                        forward[count++] = neighbor;
+                    }
+                }
+                int owner = site;
+                int[] expected = Arrays.stream(neighborsOf(lattice, site)).filter(neighbor -> neighbor > owner).toArray();
+                int[] actual = Arrays.copyOf(forward, count);
+                Arrays.sort(actual);
+                assertArrayEquals(lattice + " " + site, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void of_looksUpByName() {
+        assertEquals("triangular 4x4", Lattice.of("Triangular", 4).toString());
+        assertEquals("cubic 4x4x4", Lattice.of("cubic", 4).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void of_unknownName_throwsIllegalArgumentException() {
+        Lattice.of("kagome", 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroSideLength_throwsIllegalArgumentException() {
+        Lattice.square(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cubicTooLargeForIntSiteNumbers_throwsIllegalArgumentException() {
+        Lattice.cubic(1291);
+    }
+
+    private static int[] neighborsOf(Lattice lattice, int site) {
+        int[] buffer = new int[lattice.maxDegree()];
+        int[] neighbors = Arrays.copyOf(buffer, lattice.neighbors(site, buffer));
+        Arrays.sort(neighbors);
+        return neighbors;
+    }
+}
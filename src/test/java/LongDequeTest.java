@@ -0,0 +1,145 @@
+/******************************************************************************
+ *  Compilation:  javac LongDequeTest
+ *  Execution: tbd
+ *  Dependencies: LongDeque.java org.junit.Test org.junit.Assert
+ *
+ *  JUnit4 unit tests for LongDeque.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongDequeTest {
+    @Test
+    public void newDequeIsEmpty() {
+        LongDeque deque = new LongDeque();
+        assertTrue(deque.isEmpty());
+        assertEquals(0, deque.size());
+        assertFalse(deque.iterator().hasNext());
+    }
+
+    @Test
+    public void addFirst_thenAddLast_shouldAddInCorrectOrder() {
+        LongDeque deque = new LongDeque();
+        deque.addFirst(1);
+        deque.addLast(2);
+        deque.addFirst(0);
+        deque.addLast(3);
+        PrimitiveIterator.OfLong iterator = deque.iterator();
+        for (int expected = 0; expected < 4; expected++) {
+            assertEquals(expected, iterator.nextLong());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void forEach_visitsFrontToBack() {
+        LongDeque deque = new LongDeque();
+        for (int i = 0; i < 20; i++) {
+            deque.addLast(i);
+        }
+        long[] sum = new long[1];
+        deque.forEach(value -> sum[0] = sum[0] * 31 + value);
+        long expected = 0;
+        for (int i = 0; i < 20; i++) {
+            expected = expected * 31 + i;
+        }
+        assertEquals(expected, sum[0]);
+    }
+
+    @Test
+    public void growAndShrink_shouldKeepValues() {
+        LongDeque deque = new LongDeque();
+        for (int i = 0; i < 1000; i++) {
+            deque.addFirst(i);
+        }
+        assertEquals(1024, deque.capacity());
+        for (int i = 0; i < 996; i++) {
+            assertEquals(i, deque.removeLast());
+        }
+        assertEquals(8, deque.capacity());
+        assertEquals(999, deque.removeFirst());
+    }
+
+    @Test
+    public void extremeValues_shouldRoundTripAllSixtyFourBits() {
+        // Values an int cannot hold, stored across the wrap-around point of the buffer
+        long[] values = {Long.MIN_VALUE, Long.MAX_VALUE, -1L, 1L << 40, 0x8000_0000L, -0x8000_0001L};
+        LongDeque deque = new LongDeque();
+        for (int i = 0; i < 5; i++) {
+            deque.addLast(0);
+            deque.removeFirst();
+        }
+        for (long value : values) {
+            deque.addLast(value);
+        }
+        assertEquals(8, deque.capacity());
+        long[] seen = new long[values.length];
+        int[] index = new int[1];
+        deque.forEach(value -> seen[index[0]++] = value);
+        assertArrayEquals(values, seen);
+        for (int i = values.length - 1; i >= 0; i--) {
+            assertEquals(values[i], deque.removeLast());
+        }
+    }
+
+    @Test
+    public void randomOperations_matchArrayDeque() {
+        LongDeque deque = new LongDeque();
+        ArrayDeque<Long> expected = new ArrayDeque<>();
+        Random random = new Random(19);
+        for (int step = 0; step < 100000; step++) {
+            long value = (long) step << 32 | step;
+            int operation = random.nextInt(5);
+            if (operation == 0) {
+                deque.addFirst(value);
+                expected.addFirst(value);
+            } else if (operation == 1) {
+                deque.addLast(value);
+                expected.addLast(value);
+            } else if (operation == 2 && !expected.isEmpty()) {
+                assertEquals((long) expected.removeFirst(), deque.removeFirst());
+            } else if (operation == 3 && !expected.isEmpty()) {
+                assertEquals((long) expected.removeLast(), deque.removeLast());
+            }
+            assertEquals(expected.size(), deque.size());
+        }
+        PrimitiveIterator.OfLong iterator = deque.iterator();
+        for (Long value : expected) {
+            assertEquals((long) value, iterator.nextLong());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_nextPastEnd_shouldThrowNoSuchElementException() {
+        LongDeque deque = new LongDeque();
+        deque.addLast(1);
+        PrimitiveIterator.OfLong iterator = deque.iterator();
+        iterator.nextLong();
+        iterator.nextLong();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void iterator_remove_shouldThrowUnsupportedOperationException() {
+        LongDeque deque = new LongDeque();
+        deque.addLast(1);
+        deque.iterator().remove();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeFirstFromEmptyDeque_ShouldThrowNoSuchElementException() {
+        new LongDeque().removeFirst();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeLastFromEmptyDeque_ShouldThrowNoSuchElementException() {
+        new LongDeque().removeLast();
+    }
+}
@@ -0,0 +1,127 @@
+/******************************************************************************
+ *  Compilation:  javac PathHalvingUFTest
+ *  Execution: tbd
+ *  Dependencies: PathHalvingUF.java org.junit.*
+ *
+ *  JUnit4 unit tests for PathHalvingUF.java
+ ******************************************************************************/
+
+import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PathHalvingUFTest {
+    private PathHalvingUF unionFind;
+
+    @Test
+    public void newUnionFind_everyElementIsItsOwnRoot() {
+        unionFind = new PathHalvingUF(5);
+        assertEquals(5, unionFind.count());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, unionFind.find(i));
+        }
+    }
+
+    @Test
+    public void emptyUnionFind_hasNoSets() {
+        unionFind = new PathHalvingUF(0);
+        assertEquals(0, unionFind.count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeSize_throwsIllegalArgumentException() {
+        unionFind = new PathHalvingUF(-1);
+    }
+
+    @Test
+    public void union_connectsElements_andDecrementsCount() {
+        unionFind = new PathHalvingUF(4);
+        unionFind.union(0, 1);
+        assertTrue(unionFind.connected(0, 1));
+        assertFalse(unionFind.connected(0, 2));
+        assertEquals(3, unionFind.count());
+    }
+
+    @Test
+    public void unionSameSetTwice_doesNotDecrementCount() {
+        unionFind = new PathHalvingUF(4);
+        unionFind.union(0, 1);
+        unionFind.union(1, 0);
+        assertEquals(3, unionFind.count());
+    }
+
+    @Test
+    public void union_isTransitive() {
+        unionFind = new PathHalvingUF(10);
+        for (int i = 0; i < 9; i++) {
+            unionFind.union(i, i + 1);
+        }
+        assertEquals(1, unionFind.count());
+        assertTrue(unionFind.connected(0, 9));
+        assertEquals(unionFind.find(0), unionFind.find(9));
+    }
+
+    @Test
+    public void randomUnions_agreeWithLibraryImplementation() {
+        int n = 500;
+        Random random = new Random(42);
+        unionFind = new PathHalvingUF(n);
+        WeightedQuickUnionUF reference = new WeightedQuickUnionUF(n);
+        for (int i = 0; i < 400; i++) {
+            int p = random.nextInt(n);
+            int q = random.nextInt(n);
+            unionFind.union(p, q);
+            reference.union(p, q);
+        }
+        assertEquals(reference.count(), unionFind.count());
+        for (int i = 0; i < 1000; i++) {
+            int p = random.nextInt(n);
+            int q = random.nextInt(n);
+            assertEquals(reference.connected(p, q), unionFind.connected(p, q));
+        }
+    }
+
+    @Test
+    public void size_tracksNumberOfElementsInSet() {
+        unionFind = new PathHalvingUF(6);
+        assertEquals(1, unionFind.size(3));
+        unionFind.union(0, 1);
+        unionFind.union(2, 1);
+        assertEquals(3, unionFind.size(0));
+        assertEquals(3, unionFind.size(2));
+        assertEquals(1, unionFind.size(5));
+    }
+
+    @Test
+    public void reset_restoresSingletonSets() {
+        unionFind = new PathHalvingUF(4);
+        unionFind.union(0, 1);
+        unionFind.union(2, 3);
+        unionFind.reset();
+        assertEquals(4, unionFind.count());
+        assertFalse(unionFind.connected(0, 1));
+        assertEquals(1, unionFind.size(2));
+    }
+
+    @Test
+    public void unionRoots_returnsRootOfMergedSet_largerTreeWins() {
+        unionFind = new PathHalvingUF(5);
+        unionFind.union(0, 1);
+        int root = unionFind.unionRoots(unionFind.find(2), unionFind.find(0));
+        assertEquals(unionFind.find(0), root);
+        assertEquals(unionFind.find(2), root);
+        assertEquals(3, unionFind.size(2));
+        assertEquals(3, unionFind.count());
+    }
+
+    @Test
+    public void unionRoots_default_agreesWithUnion() {
+        UnionFind library = new LibraryUnionFind(5);
+        int root = library.unionRoots(3, 4);
+        assertTrue(library.connected(3, 4));
+        assertEquals(library.find(4), root);
+    }
+}
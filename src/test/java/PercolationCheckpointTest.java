@@ -0,0 +1,123 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationCheckpointTest
+ *  Execution: tbd
+ *  Dependencies: PercolationCheckpoint.java PercolationStats.java org.junit.*
+ *
+ *  JUnit4 unit tests for PercolationCheckpoint.java
+ ******************************************************************************/
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.*;
+
+public class PercolationCheckpointTest {
+    private static final PercolationStats.Sampling SAMPLING = PercolationStats.Sampling.PERMUTATION;
+    private static final PercolationStats.Model MODEL = PercolationStats.Model.SITE;
+
+    private Path directory;
+    private Path checkpoint;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("checkpoint-test");
+        checkpoint = directory.resolve("run.ckpt");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        for (Path file : Files.newDirectoryStream(directory)) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void freshRun_matchesRunWithoutCheckpoint_andRecordsEveryTrial() throws IOException {
+        Lattice lattice = Lattice.square(20);
+        PercolationStats stats = PercolationStats.withCheckpoint(lattice, 30, 7L, SAMPLING, MODEL, checkpoint);
+        PercolationStats plain = new PercolationStats(lattice, 30, 7L, SAMPLING, MODEL);
+        assertEquals(plain.mean(), stats.mean(), 0.0);
+        assertEquals(plain.stddev(), stats.stddev(), 0.0);
+        assertEquals(0, stats.resumedTrials());
+
+        PercolationCheckpoint loaded = PercolationCheckpoint.load(checkpoint);
+        assertEquals(30, loaded.numberOfRecords());
+        assertEquals(7L, loaded.seed());
+        assertEquals("square 20x20", loaded.lattice().toString());
+    }
+
+    @Test
+    public void resumedRun_skipsRecordedTrials_andMatchesUninterruptedRun() throws IOException {
+        Lattice lattice = Lattice.triangular(20);
+        // An "interrupted" run that only got through the first 12 trials
+        PercolationStats.withCheckpoint(lattice, 12, 3L, SAMPLING, MODEL, checkpoint);
+
+        PercolationStats resumed = PercolationStats.withCheckpoint(lattice, 40, 3L, SAMPLING, MODEL, checkpoint);
+        PercolationStats uninterrupted = new PercolationStats(lattice, 40, 3L, SAMPLING, MODEL);
+        assertEquals(12, resumed.resumedTrials());
+        assertEquals(uninterrupted.mean(), resumed.mean(), 0.0);
+        assertEquals(uninterrupted.stddev(), resumed.stddev(), 0.0);
+        assertEquals(40, PercolationCheckpoint.load(checkpoint).numberOfRecords());
+    }
+
+    @Test
+    public void partialTrailingRecord_isTruncatedOnResume() throws IOException {
+        Lattice lattice = Lattice.square(10);
+        PercolationStats.withCheckpoint(lattice, 5, 1L, SAMPLING, MODEL, checkpoint);
+        long completeLength = Files.size(checkpoint);
+        Files.write(checkpoint, new byte[] {1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+        assertEquals(5, PercolationCheckpoint.load(checkpoint).numberOfRecords());
+
+        PercolationStats resumed = PercolationStats.withCheckpoint(lattice, 8, 1L, SAMPLING, MODEL, checkpoint);
+        assertEquals(5, resumed.resumedTrials());
+        assertEquals(completeLength + 3 * PercolationCheckpoint.RECORD_BYTES, Files.size(checkpoint));
+        assertEquals(new PercolationStats(lattice, 8, 1L, SAMPLING, MODEL).mean(), resumed.mean(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void resumeWithDifferentSeed_throwsIllegalArgumentException() throws IOException {
+        PercolationStats.withCheckpoint(Lattice.square(10), 5, 1L, SAMPLING, MODEL, checkpoint);
+        PercolationStats.withCheckpoint(Lattice.square(10), 5, 2L, SAMPLING, MODEL, checkpoint);
+    }
+
+    @Test(expected = IOException.class)
+    public void loadNonCheckpointFile_throwsIOException() throws IOException {
+        Files.write(checkpoint, "size,count\n1,2\n".getBytes("US-ASCII"));
+        PercolationCheckpoint.load(checkpoint);
+    }
+
+    @Test
+    public void fromCheckpoints_mergesDistinctSeeds_andDropsDuplicateTrials() throws IOException {
+        Lattice lattice = Lattice.square(15);
+        Path first = directory.resolve("first.ckpt");
+        Path second = directory.resolve("second.ckpt");
+        PercolationStats.withCheckpoint(lattice, 20, 10L, SAMPLING, MODEL, first);
+        PercolationStats.withCheckpoint(lattice, 25, 11L, PercolationStats.Sampling.REJECTION, MODEL, second);
+
+        PercolationStats merged = PercolationStats.fromCheckpoints(first, second);
+        assertEquals(45, merged.trials());
+        assertEquals(10L, merged.seed());
+        assertEquals(0.593, merged.mean(), 0.05);
+        assertTrue("", merged.confidenceLo() < merged.mean() && merged.mean() < merged.confidenceHi());
+
+        PercolationStats duplicated = PercolationStats.fromCheckpoints(first, first, second);
+        assertEquals(45, duplicated.trials());
+        assertEquals(merged.mean(), duplicated.mean(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromCheckpoints_differentLattices_throwsIllegalArgumentException() throws IOException {
+        Path first = directory.resolve("first.ckpt");
+        Path second = directory.resolve("second.ckpt");
+        PercolationStats.withCheckpoint(Lattice.square(10), 5, 1L, SAMPLING, MODEL, first);
+        PercolationStats.withCheckpoint(Lattice.square(11), 5, 2L, SAMPLING, MODEL, second);
+        PercolationStats.fromCheckpoints(first, second);
+    }
+}
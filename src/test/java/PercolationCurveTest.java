@@ -0,0 +1,93 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationCurveTest
+ *  Execution: tbd
+ *  Dependencies: PercolationCurve.java PercolationStats.java org.junit.*
+ *
+ *  JUnit4 unit tests for PercolationCurve.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PercolationCurveTest {
+    private PercolationCurve curve;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroSideLength_throwsIllegalArgumentException() {
+        curve = new PercolationCurve(0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroTrials_throwsIllegalArgumentException() {
+        curve = new PercolationCurve(10, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void probabilityOutOfRange_throwsIllegalArgumentException() {
+        curve = new PercolationCurve(5, 2, 1L);
+        curve.spanningProbability(1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openSitesOutOfRange_throwsIllegalArgumentException() {
+        curve = new PercolationCurve(5, 2, 1L);
+        curve.spanningProbabilityAt(26);
+    }
+
+    @Test
+    public void endpoints_noSitesNeverSpans_allSitesAlwaysSpans() {
+        curve = new PercolationCurve(10, 20, 3L);
+        assertEquals(0.0, curve.spanningProbabilityAt(0), 0.0);
+        assertEquals(1.0, curve.spanningProbabilityAt(curve.numberOfSites()), 0.0);
+        assertEquals(0.0, curve.spanningProbability(0.0), 0.0);
+        assertEquals(1.0, curve.spanningProbability(1.0), 0.0);
+        assertEquals(1.0, curve.largestClusterFraction(1.0), 0.0);
+        assertEquals(0.01, curve.largestClusterFractionAt(1), 0.0);
+    }
+
+    @Test
+    public void spanningProbability_isMonotonic() {
+        curve = new PercolationCurve(10, 50, 5L);
+        double previous = 0.0;
+        for (int i = 0; i <= 100; i++) {
+            double current = curve.spanningProbability(i / 100.0);
+            assertTrue("", current >= previous - 1e-12);
+            previous = current;
+        }
+    }
+
+    @Test
+    public void spanningProbability_crossesOneHalfNearKnownThreshold() {
+        curve = new PercolationCurve(32, 200, 11L);
+        assertTrue("", curve.spanningProbability(0.52) < 0.5);
+        assertTrue("", curve.spanningProbability(0.66) > 0.5);
+    }
+
+    @Test
+    public void meanSpanningOnset_matchesPercolationStatsWithPermutationSampling() {
+        // Both drivers seed trial i identically and shuffle sites the same way,
+        // so the sweep's spanning onset is exactly the PercolationStats threshold.
+        int n = 12;
+        int trials = 40;
+        curve = new PercolationCurve(n, trials, 99L);
+        PercolationStats stats = new PercolationStats(n, trials, 99L, PercolationStats.Sampling.PERMUTATION);
+
+        double meanOnset = 0.0;
+        for (int k = 1; k <= curve.numberOfSites(); k++) {
+            double onsetProbability = curve.spanningProbabilityAt(k) - curve.spanningProbabilityAt(k - 1);
+            meanOnset += onsetProbability * k / curve.numberOfSites();
+        }
+        assertEquals(stats.mean(), meanOnset, 1e-12);
+    }
+
+    @Test
+    public void sameSeed_givesIdenticalCurves() {
+        PercolationCurve first = new PercolationCurve(8, 30, 21L);
+        PercolationCurve second = new PercolationCurve(8, 30, 21L);
+        for (int k = 0; k <= first.numberOfSites(); k++) {
+            assertEquals(first.spanningProbabilityAt(k), second.spanningProbabilityAt(k), 0.0);
+            assertEquals(first.largestClusterFractionAt(k), second.largestClusterFractionAt(k), 0.0);
+        }
+    }
+}
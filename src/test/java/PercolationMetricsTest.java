@@ -0,0 +1,93 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationMetricsTest
+ *  Execution: tbd
+ *  Dependencies: PercolationMetrics.java Percolation.java org.junit.*
+ *
+ *  JUnit4 unit tests for PercolationMetrics.java
+ ******************************************************************************/
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PercolationMetricsTest {
+
+    @Before
+    public void setUp() {
+        PercolationMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        PercolationMetrics.reset();
+    }
+
+    @Test
+    public void recordOpen_countsRedundantOpensSeparately() {
+        PercolationMetrics.recordOpen(true);
+        PercolationMetrics.recordOpen(false);
+        PercolationMetrics.recordOpen(true);
+        assertEquals(3, PercolationMetrics.opens());
+        assertEquals(1, PercolationMetrics.redundantOpens());
+    }
+
+    @Test
+    public void recordUnion_countsMerges() {
+        PercolationMetrics.recordUnion(true);
+        PercolationMetrics.recordUnion(false);
+        assertEquals(2, PercolationMetrics.unions());
+        assertEquals(1, PercolationMetrics.merges());
+    }
+
+    @Test
+    public void recordFind_fillsPathLengthHistogram_longPathsShareLastBucket() {
+        PercolationMetrics.recordFind(0);
+        PercolationMetrics.recordFind(2);
+        PercolationMetrics.recordFind(2);
+        PercolationMetrics.recordFind(PercolationMetrics.LONG_PATHS + 5);
+        assertEquals(4, PercolationMetrics.finds());
+        assertEquals(1, PercolationMetrics.findsWithPathLength(0));
+        assertEquals(2, PercolationMetrics.findsWithPathLength(2));
+        assertEquals(1, PercolationMetrics.findsWithPathLength(PercolationMetrics.LONG_PATHS));
+    }
+
+    @Test
+    public void reset_clearsEveryCounter() {
+        PercolationMetrics.recordOpen(false);
+        PercolationMetrics.recordNeighbors(4, 2);
+        PercolationMetrics.recordFind(1);
+        PercolationMetrics.recordValidation(System.nanoTime());
+        PercolationMetrics.reset();
+        assertEquals(0, PercolationMetrics.opens());
+        assertEquals(0, PercolationMetrics.redundantOpens());
+        assertEquals(0, PercolationMetrics.neighborChecks());
+        assertEquals(0, PercolationMetrics.finds());
+        assertEquals(0, PercolationMetrics.findsWithPathLength(1));
+        assertEquals(0, PercolationMetrics.validations());
+    }
+
+    @Test
+    public void percolation_recordsOnlyWhenEnabled() {
+        Percolation percolation = new Percolation(4);
+        percolation.open(1, 1);
+        percolation.open(1, 1);
+        percolation.open(2, 1);
+        long expectedOpens = PercolationMetrics.ENABLED ? 3 : 0;
+        assertEquals(expectedOpens, PercolationMetrics.opens());
+        assertEquals(PercolationMetrics.ENABLED ? 1 : 0, PercolationMetrics.redundantOpens());
+        assertEquals(PercolationMetrics.ENABLED ? 3 : 0, PercolationMetrics.validations());
+    }
+
+    @Test
+    public void union_recordsOnlyTheTwoRealFinds() {
+        // Linking the two roots must not add finds on roots already known
+        SpanningClusters clusters = new SpanningClusters(4, false);
+        clusters.union(0, 1);
+        clusters.union(2, 3);
+        clusters.union(1, 3);
+        assertEquals(PercolationMetrics.ENABLED ? 6 : 0, PercolationMetrics.finds());
+        assertEquals(PercolationMetrics.ENABLED ? 3 : 0, PercolationMetrics.merges());
+    }
+}
@@ -0,0 +1,187 @@
+/******************************************************************************
+ *  Compilation:  javac PercolationStatsTest
+ *  Execution: tbd
+ *  Dependencies: PercolationStats.java org.junit.*
+ *
+ *  JUnit4 unit tests for PercolationStats.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class PercolationStatsTest {
+    private PercolationStats stats;
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroSideLength_throwsIllegalArgumentException() {
+        stats = new PercolationStats(0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroTrials_throwsIllegalArgumentException() {
+        stats = new PercolationStats(10, 0);
+    }
+
+    @Test
+    public void meanIsCloseToKnownThreshold() {
+        stats = new PercolationStats(50, 200, 12345L);
+        assertEquals(0.593, stats.mean(), 0.01);
+        assertTrue("", stats.confidenceLo() < stats.mean());
+        assertTrue("", stats.confidenceHi() > stats.mean());
+    }
+
+    @Test
+    public void sameSeed_givesIdenticalResults() {
+        PercolationStats first = new PercolationStats(20, 50, 42L);
+        PercolationStats second = new PercolationStats(20, 50, 42L);
+        assertEquals(first.mean(), second.mean(), 0.0);
+        assertEquals(first.stddev(), second.stddev(), 0.0);
+        assertEquals(42L, first.seed());
+    }
+
+    @Test
+    public void sameSeed_givesIdenticalResults_whateverTheNumberOfThreads() {
+        ForkJoinPool singleThread = new ForkJoinPool(1);
+        ForkJoinPool manyThreads = new ForkJoinPool(8);
+        try {
+            PercolationStats sequential = new PercolationStats(20, 64, 7L, false, PercolationStats.Sampling.REJECTION, singleThread);
+            PercolationStats parallel = new PercolationStats(20, 64, 7L, false, PercolationStats.Sampling.REJECTION, manyThreads);
+            assertEquals(Double.doubleToLongBits(sequential.mean()), Double.doubleToLongBits(parallel.mean()));
+            assertEquals(Double.doubleToLongBits(sequential.stddev()), Double.doubleToLongBits(parallel.stddev()));
+        } finally {
+            singleThread.shutdown();
+            manyThreads.shutdown();
+        }
+    }
+
+    @Test
+    public void differentSeeds_giveDifferentResults() {
+        PercolationStats first = new PercolationStats(20, 50, 1L);
+        PercolationStats second = new PercolationStats(20, 50, 2L);
+        assertNotEquals(first.mean(), second.mean());
+    }
+
+    @Test
+    public void singleTrial_confidenceIntervalIsNaN() {
+        stats = new PercolationStats(10, 1, 3L);
+        assertTrue("", Double.isNaN(stats.confidenceLo()));
+        assertTrue("", Double.isNaN(stats.confidenceHi()));
+    }
+
+    @Test
+    public void permutationSampling_meanIsCloseToKnownThreshold() {
+        stats = new PercolationStats(50, 200, 12345L, PercolationStats.Sampling.PERMUTATION);
+        assertEquals(0.593, stats.mean(), 0.01);
+    }
+
+    @Test
+    public void permutationSampling_sameSeed_givesIdenticalResults() {
+        PercolationStats first = new PercolationStats(20, 50, 42L, PercolationStats.Sampling.PERMUTATION);
+        PercolationStats second = new PercolationStats(20, 50, 42L, PercolationStats.Sampling.PERMUTATION);
+        assertEquals(first.mean(), second.mean(), 0.0);
+        assertEquals(first.stddev(), second.stddev(), 0.0);
+    }
+
+    @Test
+    public void permutationSampling_oneByOneGrid_thresholdIsOne() {
+        stats = new PercolationStats(1, 5, 9L, PercolationStats.Sampling.PERMUTATION);
+        assertEquals(1.0, stats.mean(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void untilConfidence_nonPositiveHalfWidth_throwsIllegalArgumentException() {
+        stats = PercolationStats.untilConfidence(10, 0.0, 100, 1L, PercolationStats.Sampling.REJECTION);
+    }
+
+    @Test
+    public void untilConfidence_stopsEarlyOnceTargetWidthIsMet() {
+        double halfWidth = 0.01;
+        stats = PercolationStats.untilConfidence(30, halfWidth, 10000, 8L, PercolationStats.Sampling.PERMUTATION);
+        assertTrue("", stats.trials() < 10000);
+        assertTrue("", stats.trials() >= 10);
+        assertTrue("", stats.confidenceHi() - stats.mean() <= halfWidth);
+        assertEquals(0.593, stats.mean(), 0.03);
+    }
+
+    @Test
+    public void untilConfidence_unreachableTarget_usesWholeBudget() {
+        stats = PercolationStats.untilConfidence(20, 1e-9, 25, 8L, PercolationStats.Sampling.REJECTION);
+        assertEquals(25, stats.trials());
+    }
+
+    @Test
+    public void untilConfidence_sameSeed_givesIdenticalResults() {
+        PercolationStats first = PercolationStats.untilConfidence(20, 0.01, 5000, 4L, PercolationStats.Sampling.REJECTION);
+        PercolationStats second = PercolationStats.untilConfidence(20, 0.01, 5000, 4L, PercolationStats.Sampling.REJECTION);
+        assertEquals(first.trials(), second.trials());
+        assertEquals(first.mean(), second.mean(), 0.0);
+        assertEquals(first.stddev(), second.stddev(), 0.0);
+    }
+
+    @Test
+    public void untilConfidence_agreesWithFixedModeOverTheSameTrials() {
+        PercolationStats adaptive = PercolationStats.untilConfidence(20, 0.01, 5000, 4L, PercolationStats.Sampling.REJECTION);
+        PercolationStats fixed = new PercolationStats(20, adaptive.trials(), 4L);
+        assertEquals(fixed.mean(), adaptive.mean(), 1e-12);
+        assertEquals(fixed.stddev(), adaptive.stddev(), 1e-12);
+    }
+
+    @Test
+    public void triangularLattice_meanIsCloseToOneHalf() {
+        stats = new PercolationStats(Lattice.triangular(50), 200, 5L, PercolationStats.Sampling.PERMUTATION);
+        assertEquals(0.5, stats.mean(), 0.01);
+    }
+
+    @Test
+    public void cubicLattice_meanIsCloseToKnownThreshold() {
+        stats = new PercolationStats(Lattice.cubic(16), 100, 5L, PercolationStats.Sampling.PERMUTATION);
+        assertEquals(0.3116, stats.mean(), 0.02);
+    }
+
+    @Test
+    public void honeycombLattice_meanIsCloseToKnownThreshold() {
+        // Top-to-bottom spanning on the brick wall converges to p_c from above, so allow for the finite-size shift
+        stats = new PercolationStats(Lattice.honeycomb(50), 200, 5L, PercolationStats.Sampling.PERMUTATION);
+        assertEquals(0.6970, stats.mean(), 0.025);
+    }
+
+    @Test
+    public void squareLattice_matchesSideLengthConstructor() {
+        PercolationStats byLattice = new PercolationStats(Lattice.square(20), 50, 9L, PercolationStats.Sampling.REJECTION);
+        PercolationStats bySide = new PercolationStats(20, 50, 9L, PercolationStats.Sampling.REJECTION);
+        assertEquals(bySide.mean(), byLattice.mean(), 0.0);
+    }
+
+    @Test
+    public void bondModel_squareLattice_meanIsCloseToOneHalf() {
+        stats = new PercolationStats(Lattice.square(50), 200, 5L, PercolationStats.Sampling.PERMUTATION,
+                PercolationStats.Model.BOND);
+        assertEquals(0.5, stats.mean(), 0.01);
+    }
+
+    @Test
+    public void bondModel_rejectionAndPermutationAgree() {
+        PercolationStats rejection = new PercolationStats(Lattice.triangular(30), 200, 5L,
+                PercolationStats.Sampling.REJECTION, PercolationStats.Model.BOND);
+        PercolationStats permutation = new PercolationStats(Lattice.triangular(30), 200, 6L,
+                PercolationStats.Sampling.PERMUTATION, PercolationStats.Model.BOND);
+        assertEquals(0.3473, rejection.mean(), 0.015);
+        assertEquals(0.3473, permutation.mean(), 0.015);
+    }
+
+    @Test
+    public void bondModel_cubicLattice_meanIsCloseToKnownThreshold() {
+        stats = new PercolationStats(Lattice.cubic(16), 100, 5L, PercolationStats.Sampling.PERMUTATION,
+                PercolationStats.Model.BOND);
+        assertEquals(0.2488, stats.mean(), 0.02);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bondModel_singleSite_throwsIllegalArgumentException() {
+        stats = new PercolationStats(Lattice.square(1), 10, 5L, PercolationStats.Sampling.REJECTION,
+                PercolationStats.Model.BOND);
+    }
+}
@@ -8,6 +8,10 @@
 
 import org.junit.Test;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 public class PercolationTest {
@@ -139,6 +143,24 @@ public class PercolationTest {
         percolation = new Percolation(-1);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void sideLengthTooLargeForIntIndices_throwsIllegalArgumentException() {
+        percolation = new Percolation(46341);
+    }
+
+    @Test
+    public void gridSpanningSeveralBitsetWords_openSitesAreIndependent() {
+        // 9x9 = 81 sites, so sites straddle the boundary between the first and second long
+        percolation = new Percolation(9);
+        percolation.open(8, 1);  // site 63: last bit of the first word
+        percolation.open(8, 2);  // site 64: first bit of the second word
+        assertTrue("", percolation.isOpen(8, 1));
+        assertTrue("", percolation.isOpen(8, 2));
+        assertFalse(percolation.isOpen(1, 1));
+        assertFalse(percolation.isOpen(8, 3));
+        assertEquals(2, percolation.numberOfOpenSites());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void openRowGreaterThanSideLength_throwsIllegalArgumentException() {
         percolation = new Percolation(3);
@@ -162,4 +184,213 @@ public class PercolationTest {
         percolation = new Percolation(3);
         percolation.open(1, 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void libraryUnionFind_backwashTest() {
+        percolation = new Percolation(3, true);
+        percolation.open(1, 1);
+        percolation.open(2, 1);
+        percolation.open(3, 1);
+        percolation.open(3, 3);
+
+        assertFalse(percolation.isFull(3, 3));
+        assertTrue("", percolation.isFull(3, 1));
+        assertTrue("", percolation.percolates());
+    }
+
+    @Test
+    public void libraryUnionFind_openMiddleColumn_shouldPercolate() {
+        percolation = new Percolation(3, true);
+        percolation.open(1, 2);
+        percolation.open(2, 2);
+        assertFalse(percolation.percolates());
+        percolation.open(3, 2);
+        assertTrue("", percolation.percolates());
+    }
+
+    @Test
+    public void reset_closesAllSites_andClearsPercolation() {
+        percolation = new Percolation(3);
+        percolation.open(1, 2);
+        percolation.open(2, 2);
+        percolation.open(3, 2);
+        assertTrue("", percolation.percolates());
+
+        percolation.reset();
+        assertEquals(0, percolation.numberOfOpenSites());
+        assertFalse(percolation.percolates());
+        for (int row = 1; row <= 3; row++) {
+            for (int col = 1; col <= 3; col++) {
+                assertFalse(percolation.isOpen(row, col));
+                assertFalse(percolation.isFull(row, col));
+            }
+        }
+    }
+
+    @Test
+    public void reset_thenReopen_behavesLikeFreshInstance() {
+        for (boolean useLibraryUnionFind : new boolean[] {false, true}) {
+            percolation = new Percolation(3, useLibraryUnionFind);
+            percolation.open(1, 1);
+            percolation.open(2, 1);
+            percolation.open(3, 1);
+            percolation.reset();
+
+            // Backwash check on the reused instance: the old column must not leak into the new clusters
+            percolation.open(3, 1);
+            percolation.open(1, 3);
+            assertFalse(percolation.isFull(3, 1));
+            assertTrue("", percolation.isFull(1, 3));
+            assertFalse(percolation.percolates());
+            percolation.open(2, 3);
+            percolation.open(3, 3);
+            assertTrue("", percolation.percolates());
+            assertEquals(4, percolation.numberOfOpenSites());
+        }
+    }
+
+    @Test
+    public void cubicLattice_openColumnThroughAllSlabs_percolates() {
+        Lattice lattice = Lattice.cubic(3);
+        percolation = new Percolation(lattice);
+        // Site (row, col, layer) = (r, 1, 1) for each slab r
+        percolation.open(4);
+        percolation.open(13);
+        assertFalse(percolation.percolates());
+        assertTrue("", percolation.isFull(13));
+        percolation.open(22);
+        assertTrue("", percolation.percolates());
+        assertEquals(3, percolation.numberOfOpenSites());
+    }
+
+    @Test
+    public void triangularLattice_diagonalPathPercolates() {
+        percolation = new Percolation(Lattice.triangular(2));
+        // (0, 1) and (1, 0) touch only along the triangular diagonal
+        percolation.open(1);
+        percolation.open(2);
+        assertTrue("", percolation.percolates());
+
+        percolation = new Percolation(Lattice.square(2));
+        percolation.open(1);
+        percolation.open(2);
+        assertFalse(percolation.percolates());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void siteIndexOutOfRange_throwsIllegalArgumentException() {
+        percolation = new Percolation(Lattice.honeycomb(3));
+        percolation.open(9);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void rowColOnCubicLattice_throwsUnsupportedOperationException() {
+        percolation = new Percolation(Lattice.cubic(3));
+        percolation.open(1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullLattice_throwsIllegalArgumentException() {
+        percolation = new Percolation((Lattice) null);
+    }
+
+    @Test
+    public void snapshot_agreesWithIsOpenAndIsFull() {
+        Random random = new Random(21);
+        for (Lattice lattice : new Lattice[] {Lattice.square(15), Lattice.triangular(15), Lattice.honeycomb(15),
+                Lattice.cubic(6)}) {
+            percolation = new Percolation(lattice);
+            for (int step = 0; step < lattice.numberOfSites(); step++) {
+                percolation.open(random.nextInt(lattice.numberOfSites()));
+                if (step % 7 != 0) {
+                    continue;
+                }
+                Percolation.Snapshot snapshot = percolation.snapshot();
+                BitSet open = snapshot.openSites();
+                BitSet full = snapshot.fullSites();
+                for (int site = 0; site < lattice.numberOfSites(); site++) {
+                    assertEquals(percolation.isOpen(site), snapshot.isOpen(site));
+                    assertEquals(percolation.isOpen(site), open.get(site));
+                    assertEquals(percolation.isFull(site), snapshot.isFull(site));
+                    assertEquals(percolation.isFull(site), full.get(site));
+                }
+                assertEquals(percolation.numberOfOpenSites(), open.cardinality());
+                assertEquals(percolation.numberOfOpenSites(), snapshot.numberOfOpenSites());
+                assertEquals(percolation.percolates(), snapshot.percolates());
+            }
+        }
+    }
+
+    @Test
+    public void snapshot_isNotChangedByLaterOpenings() {
+        percolation = new Percolation(3);
+        percolation.open(2, 2);
+        Percolation.Snapshot snapshot = percolation.snapshot();
+        percolation.open(1, 2);
+        assertTrue("", snapshot.isOpen(4));
+        assertFalse(snapshot.isFull(4));
+        assertFalse(snapshot.isOpen(1));
+        assertEquals(1, snapshot.numberOfOpenSites());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snapshot_siteOutOfRange_throwsIllegalArgumentException() {
+        new Percolation(3).snapshot().isFull(9);
+    }
+
+    @Test
+    public void randomOpenings_isFullAndPercolates_agreeWithFloodFill() {
+        int n = 12;
+        Random random = new Random(7);
+        for (boolean useLibraryUnionFind : new boolean[] {false, true}) {
+            percolation = new Percolation(n, useLibraryUnionFind);
+            boolean[][] open = new boolean[n + 1][n + 1];
+            for (int step = 0; step < n * n; step++) {
+                int row = random.nextInt(n) + 1;
+                int col = random.nextInt(n) + 1;
+                percolation.open(row, col);
+                open[row][col] = true;
+
+                boolean[][] full = floodFillFromTop(open, n);
+                boolean bottomRowFull = false;
+                for (int r = 1; r <= n; r++) {
+                    for (int c = 1; c <= n; c++) {
+                        assertEquals(full[r][c], percolation.isFull(r, c));
+                    }
+                }
+                for (int c = 1; c <= n; c++) {
+                    bottomRowFull |= full[n][c];
+                }
+                assertEquals(bottomRowFull, percolation.percolates());
+            }
+        }
+    }
+
+    /**
+     * Reference implementation for isFull(): depth-first search from every open site on the top row.
+     */
+    private static boolean[][] floodFillFromTop(boolean[][] open, int n) {
+        boolean[][] full = new boolean[n + 1][n + 1];
+        ArrayDeque<int[]> stack = new ArrayDeque<>();
+        for (int col = 1; col <= n; col++) {
+            if (open[1][col]) {
+                full[1][col] = true;
+                stack.push(new int[] {1, col});
+            }
+        }
+        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+        while (!stack.isEmpty()) {
+            int[] site = stack.pop();
+            for (int[] d : directions) {
+                int r = site[0] + d[0];
+                int c = site[1] + d[1];
+                if (r < 1 || c < 1 || r > n || c > n || !open[r][c] || full[r][c]) {
+                    continue;
+                }
+                full[r][c] = true;
+                stack.push(new int[] {r, c});
+            }
+        }
+        return full;
+    }
+}
@@ -0,0 +1,92 @@
+/******************************************************************************
+ *  Compilation:  javac RandomSourceTest.java
+ *  Execution:    java RandomSourceTest
+ *  Dependencies: RandomSource.java Xoshiro256PlusPlus.java org.junit.*
+ *
+ *  Unit tests for RandomSource and Xoshiro256PlusPlus.
+ *
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.*;
+
+public class RandomSourceTest {
+
+    @Test
+    public void uniform_rejectsDrawsInTheBiasedZone() {
+        // n = 3: 2^32 mod 3 = 1, so only x = 0 (low word 0) is rejected. x = 2^32 - 1 maps to 2.
+        PrimitiveIterator.OfLong draws = LongStream.of(0L, 0xFFFFFFFFL << 32).iterator();
+        RandomSource source = draws::nextLong;
+        assertEquals(2, source.uniform(3));
+        assertFalse(draws.hasNext());
+    }
+
+    @Test
+    public void uniform_powerOfTwo_usesTopBits() {
+        RandomSource source = () -> 0xB000000000000000L;
+        assertEquals(0xB, source.uniform(16));
+    }
+
+    @Test
+    public void uniform_staysInRange_andIsUniform() {
+        RandomSource source = RandomSource.xoshiro(22);
+        int n = 10;
+        int draws = 100000;
+        int[] histogram = new int[n];
+        for (int i = 0; i < draws; i++) {
+            int value = source.uniform(n);
+            assertTrue(value >= 0 && value < n);
+            histogram[value]++;
+        }
+        // Chi-squared with 9 degrees of freedom: the 0.1% critical value is 27.9
+        double expected = (double) draws / n;
+        double chiSquared = 0;
+        for (int count : histogram) {
+            chiSquared += (count - expected) * (count - expected) / expected;
+        }
+        assertTrue("chi-squared = " + chiSquared, chiSquared < 27.9);
+    }
+
+    @Test
+    public void uniform_ofOne_isAlwaysZero() {
+        RandomSource source = RandomSource.splittable(1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, source.uniform(1));
+        }
+    }
+
+    @Test
+    public void xoshiro_sameSeed_sameStream_differentSeed_differentStream() {
+        RandomSource a = RandomSource.xoshiro(42);
+        RandomSource b = RandomSource.xoshiro(42);
+        RandomSource c = RandomSource.xoshiro(43);
+        boolean differs = false;
+        for (int i = 0; i < 100; i++) {
+            long value = a.nextLong();
+            assertEquals(value, b.nextLong());
+            differs |= value != c.nextLong();
+        }
+        assertTrue(differs);
+    }
+
+    @Test
+    public void xoshiro_zeroSeed_doesNotGetStuck() {
+        RandomSource source = RandomSource.xoshiro(0);
+        long first = source.nextLong();
+        assertNotEquals(first, source.nextLong());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void uniform_zeroBound_throwsIllegalArgumentException() {
+        RandomSource.splittable(1).uniform(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void uniform_negativeBound_throwsIllegalArgumentException() {
+        RandomSource.threadLocal().uniform(-5);
+    }
+}
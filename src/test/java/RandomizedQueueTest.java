@@ -334,4 +334,110 @@ public class RandomizedQueueTest {
         assertEquals(expected, results);
     }
 
+    ////////////////////////////////////////////////////////////////////////////
+    // Unit tests for pluggable random sources
+    ////////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void seededSource_shouldGiveReproducibleDequeueAndIterationOrder(){
+        RandomizedQueue<String> first = new RandomizedQueue<>(RandomSource.xoshiro(7));
+        RandomizedQueue<String> second = new RandomizedQueue<>(RandomSource.xoshiro(7));
+        for (char c = 'a'; c <= 'z'; c++) {
+            first.enqueue(String.valueOf(c));
+            second.enqueue(String.valueOf(c));
+        }
+
+        List<String> firstOrder = new ArrayList<>();
+        List<String> secondOrder = new ArrayList<>();
+        for (String item : first) { firstOrder.add(item); }
+        for (String item : second) { secondOrder.add(item); }
+        assertEquals(firstOrder, secondOrder);
+
+        while (!first.isEmpty()) {
+            assertEquals(first.dequeue(), second.dequeue());
+        }
+    }
+
+    @Test
+    public void methodReferenceSource_shouldDequeueEveryItemOnce(){
+        RandomizedQueue<Integer> seeded = new RandomizedQueue<>(new java.util.SplittableRandom(3)::nextLong);
+        for (int i = 0; i < 100; i++) {
+            seeded.enqueue(i);
+        }
+        Set<Integer> seen = new HashSet<>();
+        while (!seeded.isEmpty()) {
+            assertTrue(seen.add(seeded.dequeue()));
+        }
+        assertEquals(100, seen.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullSource_shouldThrowIllegalArgumentException(){
+        new RandomizedQueue<String>(null);
+    }
+
+    @Test
+    public void lazyIterator_shouldVisitEveryItemOnce_forLargeQueue(){
+        RandomizedQueue<Integer> large = new RandomizedQueue<>(RandomSource.xoshiro(23));
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            large.enqueue(i);
+        }
+        boolean[] seen = new boolean[n];
+        int count = 0;
+        for (int item : large) {
+            assertFalse(seen[item]);
+            seen[item] = true;
+            count++;
+        }
+        assertEquals(n, count);
+    }
+
+    @Test
+    public void lazyIterator_shouldMatchEagerKnuthShuffle(){
+        int n = 1000;
+        RandomizedQueue<Integer> lazy = new RandomizedQueue<>(RandomSource.xoshiro(5));
+        for (int i = 0; i < n; i++) {
+            lazy.enqueue(i);
+        }
+
+        // The same draws, applied as an up-front forward shuffle
+        RandomSource random = RandomSource.xoshiro(5);
+        int[] expected = new int[n];
+        for (int i = 0; i < n; i++) {
+            expected[i] = i;
+        }
+        for (int i = 0; i < n; i++) {
+            int r = i + random.uniform(n - i);
+            int swap = expected[i];
+            expected[i] = expected[r];
+            expected[r] = swap;
+        }
+
+        int position = 0;
+        for (int item : lazy) {
+            assertEquals(expected[position++], item);
+        }
+    }
+
+    @Test
+    public void lazyIterator_firstItem_shouldBeUniform(){
+        int n = 8;
+        int trials = 80000;
+        RandomizedQueue<Integer> small = new RandomizedQueue<>(RandomSource.xoshiro(11));
+        for (int i = 0; i < n; i++) {
+            small.enqueue(i);
+        }
+        int[] histogram = new int[n];
+        for (int t = 0; t < trials; t++) {
+            histogram[small.iterator().next()]++;
+        }
+        // Chi-squared with 7 degrees of freedom: the 0.1% critical value is 24.3
+        double expected = (double) trials / n;
+        double chiSquared = 0;
+        for (int count : histogram) {
+            chiSquared += (count - expected) * (count - expected) / expected;
+        }
+        assertTrue("chi-squared = " + chiSquared, chiSquared < 24.3);
+    }
 }
@@ -0,0 +1,141 @@
+/******************************************************************************
+ *  Compilation:  javac ReservoirSamplerTest.java
+ *  Execution:    java ReservoirSamplerTest
+ *  Dependencies: ReservoirSampler.java RandomSource.java RandomizedQueue.java org.junit.*
+ *
+ *  Unit tests for ReservoirSampler.
+ *
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ReservoirSamplerTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_negativeK_shouldThrow() {
+        new ReservoirSampler<Integer>(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_nullSource_shouldThrow() {
+        new ReservoirSampler<Integer>(1, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void offer_null_shouldThrow() {
+        new ReservoirSampler<Integer>(1).offer(null);
+    }
+
+    @Test
+    public void sample_fewerItemsThanK_shouldKeepThemAll() {
+        ReservoirSampler<Integer> sampler = new ReservoirSampler<>(10, RandomSource.xoshiro(1));
+        for (int i = 0; i < 4; i++) {
+            sampler.offer(i);
+        }
+        assertEquals(4, sampler.size());
+        assertEquals(0, sampler.pendingSkips());
+
+        Set<Integer> kept = new HashSet<>();
+        for (int item : sampler.sample()) {
+            kept.add(item);
+        }
+        assertEquals(4, kept.size());
+    }
+
+    @Test
+    public void sample_shouldHoldKDistinctItems() {
+        int k = 100;
+        ReservoirSampler<Integer> sampler = new ReservoirSampler<>(k, RandomSource.xoshiro(2));
+        for (int i = 0; i < 1_000_000; i++) {
+            sampler.offer(i);
+        }
+        assertEquals(1_000_000, sampler.seen());
+        assertEquals(k, sampler.size());
+
+        RandomizedQueue<Integer> sample = sampler.sample();
+        Set<Integer> kept = new HashSet<>();
+        while (!sample.isEmpty()) {
+            int item = sample.dequeue();
+            assertTrue(item >= 0 && item < 1_000_000);
+            kept.add(item);
+        }
+        assertEquals(k, kept.size());
+    }
+
+    @Test
+    public void zeroK_shouldKeepNothing() {
+        ReservoirSampler<Integer> sampler = new ReservoirSampler<>(0, RandomSource.xoshiro(3));
+        for (int i = 0; i < 1000; i++) {
+            sampler.offer(i);
+        }
+        assertEquals(1000, sampler.seen());
+        assertEquals(0, sampler.size());
+        assertTrue(sampler.sample().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void skip_moreThanPending_shouldThrow() {
+        ReservoirSampler<Integer> sampler = new ReservoirSampler<>(2, RandomSource.xoshiro(4));
+        sampler.offer(0);
+        sampler.skip(1);
+    }
+
+    @Test
+    public void skip_shouldMatchOfferingEveryItem() {
+        // Skipping the pending items must leave the sampler exactly where offering them would
+        ReservoirSampler<Integer> offered = new ReservoirSampler<>(5, RandomSource.xoshiro(5));
+        ReservoirSampler<Integer> skipped = new ReservoirSampler<>(5, RandomSource.xoshiro(5));
+        int n = 100000;
+        int i = 0;
+        while (i < n) {
+            long pending = Math.min(skipped.pendingSkips(), n - i);
+            if (pending > 0) {
+                skipped.skip(pending);
+                for (long s = 0; s < pending; s++) {
+                    offered.offer(i++);
+                }
+            } else {
+                skipped.offer(i);
+                offered.offer(i++);
+            }
+        }
+        assertEquals(offered.seen(), skipped.seen());
+
+        RandomizedQueue<Integer> a = offered.sample();
+        RandomizedQueue<Integer> b = skipped.sample();
+        while (!a.isEmpty()) {
+            assertEquals(a.dequeue(), b.dequeue());
+        }
+    }
+
+    @Test
+    public void everyItem_shouldBeKeptWithProbabilityKOverN() {
+        // n = 20 items, k = 4: each should be kept in 1/5 of the trials
+        int n = 20;
+        int k = 4;
+        int trials = 50000;
+        RandomSource random = RandomSource.xoshiro(6);
+        int[] histogram = new int[n];
+        for (int t = 0; t < trials; t++) {
+            ReservoirSampler<Integer> sampler = new ReservoirSampler<>(k, random);
+            for (int i = 0; i < n; i++) {
+                sampler.offer(i);
+            }
+            for (int item : sampler.sample()) {
+                histogram[item]++;
+            }
+        }
+        // Chi-squared with 19 degrees of freedom: the 0.1% critical value is 43.8
+        double expected = (double) trials * k / n;
+        double chiSquared = 0;
+        for (int count : histogram) {
+            chiSquared += (count - expected) * (count - expected) / expected;
+        }
+        assertTrue("chi-squared = " + chiSquared, chiSquared < 43.8);
+    }
+}
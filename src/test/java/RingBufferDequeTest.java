@@ -0,0 +1,155 @@
+/******************************************************************************
+ *  Compilation:  javac RingBufferDequeTest
+ *  Execution: tbd
+ *  Dependencies: RingBufferDeque.java org.junit.Test org.junit.Assert
+ *
+ *  JUnit4 unit tests for RingBufferDeque.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RingBufferDequeTest {
+    @Test
+    public void newDequeIsEmpty() {
+        RingBufferDeque<Integer> deque = new RingBufferDeque<>();
+        assertTrue(deque.isEmpty());
+        assertEquals(0, deque.size());
+        assertFalse(deque.iterator().hasNext());
+    }
+
+    @Test
+    public void addFirst_thenAddLast_shouldAddInCorrectOrder() {
+        RingBufferDeque<Integer> deque = new RingBufferDeque<>();
+        deque.addFirst(1);
+        deque.addLast(2);
+        deque.addFirst(0);
+        deque.addLast(3);
+        int expected = 0;
+        for (int item : deque) {
+            assertEquals(expected++, item);
+        }
+        assertEquals(4, expected);
+    }
+
+    @Test
+    public void removeFirstAndLast_shouldReturnEnds() {
+        RingBufferDeque<Integer> deque = new RingBufferDeque<>();
+        for (int i = 0; i < 5; i++) {
+            deque.addLast(i);
+        }
+        assertEquals(0, (int) deque.removeFirst());
+        assertEquals(4, (int) deque.removeLast());
+        assertEquals(3, deque.size());
+    }
+
+    @Test
+    public void addFirstPastCapacity_shouldWrapAndGrow() {
+        RingBufferDeque<Integer> deque = new RingBufferDeque<>();
+        for (int i = 0; i < 100; i++) {
+            deque.addFirst(i);
+        }
+        assertEquals(128, deque.capacity());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) deque.removeLast());
+        }
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void removingDownToAQuarter_shouldShrinkCapacity() {
+        RingBufferDeque<Integer> deque = new RingBufferDeque<>();
+        for (int i = 0; i < 1024; i++) {
+            deque.addLast(i);
+        }
+        assertEquals(1024, deque.capacity());
+        while (deque.size() > 4) {
+            deque.removeFirst();
+        }
+        assertEquals(8, deque.capacity());
+        assertEquals(1020, (int) deque.removeFirst());
+    }
+
+    @Test
+    public void randomOperations_matchArrayDeque() {
+        RingBufferDeque<Integer> deque = new RingBufferDeque<>();
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        Random random = new Random(17);
+        for (int step = 0; step < 100000; step++) {
+            int operation = random.nextInt(5);
+            if (operation == 0) {
+                deque.addFirst(step);
+                expected.addFirst(step);
+            } else if (operation == 1) {
+                deque.addLast(step);
+                expected.addLast(step);
+            } else if (operation == 2 && !expected.isEmpty()) {
+                assertEquals(expected.removeFirst(), deque.removeFirst());
+            } else if (operation == 3 && !expected.isEmpty()) {
+                assertEquals(expected.removeLast(), deque.removeLast());
+            }
+            assertEquals(expected.size(), deque.size());
+        }
+        Iterator<Integer> iterator = deque.iterator();
+        for (Integer item : expected) {
+            assertEquals(item, iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void iterator_shouldSupportMultipleIteratorsSimultaneously() {
+        RingBufferDeque<Integer> deque = new RingBufferDeque<>();
+        deque.addLast(1);
+        deque.addLast(2);
+        Iterator<Integer> first = deque.iterator();
+        Iterator<Integer> second = deque.iterator();
+        assertEquals(1, (int) first.next());
+        assertEquals(1, (int) second.next());
+        assertEquals(2, (int) first.next());
+        assertFalse(first.hasNext());
+        assertTrue(second.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_nextPastEnd_shouldThrowNoSuchElementException() {
+        RingBufferDeque<Integer> deque = new RingBufferDeque<>();
+        deque.addLast(1);
+        Iterator<Integer> iterator = deque.iterator();
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void iterator_remove_shouldThrowUnsupportedOperationException() {
+        RingBufferDeque<Integer> deque = new RingBufferDeque<>();
+        deque.addLast(1);
+        deque.iterator().remove();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addFirstWithNullItem_ShouldThrowIllegalArgumentException() {
+        new RingBufferDeque<Integer>().addFirst(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addLastWithNullItem_ShouldThrowIllegalArgumentException() {
+        new RingBufferDeque<Integer>().addLast(null);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeFirstFromEmptyDeque_ShouldThrowNoSuchElementException() {
+        new RingBufferDeque<Integer>().removeFirst();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeLastFromEmptyDeque_ShouldThrowNoSuchElementException() {
+        new RingBufferDeque<Integer>().removeLast();
+    }
+}
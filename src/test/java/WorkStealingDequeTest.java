@@ -0,0 +1,127 @@
+/******************************************************************************
+ *  Compilation:  javac WorkStealingDequeTest
+ *  Execution: tbd
+ *  Dependencies: WorkStealingDeque.java org.junit.Test org.junit.Assert
+ *
+ *  JUnit4 unit and stress tests for WorkStealingDeque.java
+ ******************************************************************************/
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.*;
+
+public class WorkStealingDequeTest {
+    @Test
+    public void newDequeIsEmpty() {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>();
+        assertTrue(deque.isEmpty());
+        assertEquals(0, deque.size());
+        assertNull(deque.pollFirst());
+        assertNull(deque.pollLast());
+    }
+
+    @Test
+    public void ownerTakesFromBack_thievesFromFront() {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>();
+        for (int i = 0; i < 5; i++) {
+            deque.addLast(i);
+        }
+        assertEquals(4, (int) deque.removeLast());
+        assertEquals(0, (int) deque.removeFirst());
+        assertEquals(3, (int) deque.removeLast());
+        assertEquals(1, (int) deque.removeFirst());
+        assertEquals(1, deque.size());
+        assertEquals(2, (int) deque.removeLast());
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void addLastPastCapacity_shouldGrowAndKeepOrder() {
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>();
+        for (int i = 0; i < 10; i++) {
+            deque.addLast(i);
+            deque.removeFirst();
+        }
+        // top and bottom now start mid-array, so the copy has to unwrap
+        for (int i = 0; i < 1000; i++) {
+            deque.addLast(i);
+        }
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, (int) deque.removeFirst());
+        }
+        for (int i = 999; i >= 500; i--) {
+            assertEquals(i, (int) deque.removeLast());
+        }
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test
+    public void stress_ownerAndThieves_takeEveryItemExactlyOnce() throws InterruptedException {
+        int items = 200000;
+        int thieves = 4;
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>();
+        AtomicIntegerArray taken = new AtomicIntegerArray(items);
+        AtomicBoolean ownerDone = new AtomicBoolean();
+
+        Thread owner = new Thread(() -> {
+            for (int i = 0; i < items; i++) {
+                deque.addLast(i);
+                if (i % 3 == 0) {
+                    Integer item = deque.pollLast();
+                    if (item != null) {
+                        taken.incrementAndGet(item);
+                    }
+                }
+            }
+            Integer item;
+            while ((item = deque.pollLast()) != null) {
+                taken.incrementAndGet(item);
+            }
+            ownerDone.set(true);
+        });
+        Thread[] workers = new Thread[thieves];
+        for (int w = 0; w < thieves; w++) {
+            workers[w] = new Thread(() -> {
+                while (!ownerDone.get() || !deque.isEmpty()) {
+                    Integer item = deque.pollFirst();
+                    if (item != null) {
+                        taken.incrementAndGet(item);
+                    }
+                }
+            });
+        }
+
+        owner.start();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        owner.join();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        for (int i = 0; i < items; i++) {
+            assertEquals("item " + i, 1, taken.get(i));
+        }
+        assertTrue(deque.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addLastWithNullItem_ShouldThrowIllegalArgumentException() {
+        new WorkStealingDeque<Integer>().addLast(null);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeFirstFromEmptyDeque_ShouldThrowNoSuchElementException() {
+        new WorkStealingDeque<Integer>().removeFirst();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void removeLastFromEmptyDeque_ShouldThrowNoSuchElementException() {
+        new WorkStealingDeque<Integer>().removeLast();
+    }
+}